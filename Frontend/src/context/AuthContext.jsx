@@ -57,8 +57,11 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
-    localStorage.removeItem('token');
-    localStorage.removeItem('user');
+    // Revokes the token on the server too; the token is only dropped once the request is sent
+    authAPI.logout().catch(() => {}).finally(() => {
+      localStorage.removeItem('token');
+      localStorage.removeItem('user');
+    });
     setUser(null);
   };
 
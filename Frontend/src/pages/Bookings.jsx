@@ -21,6 +21,7 @@ export const Bookings = () => {
   const { user, isAdmin, isLabManager, isInstructor, isStudent } = useAuth();
   const { showSuccess, showError } = useToast();
   const [bookings, setBookings] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [labs, setLabs] = useState([]);
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState('');
@@ -36,20 +37,32 @@ export const Bookings = () => {
   });
 
   useEffect(() => {
-    loadBookings();
     loadLabs();
   }, []);
 
-  const loadBookings = async () => {
+  useEffect(() => {
+    loadBookings();
+  }, [statusFilter]);
+
+  const loadBookings = async (cursor) => {
     try {
-      setLoading(true);
+      if (!cursor) {
+        setLoading(true);
+      }
+      const params = {
+        status: statusFilter === 'ALL' ? undefined : statusFilter,
+        cursor,
+        limit: 100,
+      };
       let response;
       if (isAdmin || isLabManager) {
-        response = await bookingAPI.getAll();
+        response = await bookingAPI.getAll(params);
       } else {
-        response = await bookingAPI.getMyBookings();
+        response = await bookingAPI.getMyBookings(params);
       }
-      setBookings(response.data.data || []);
+      const page = response.data.data || {};
+      setBookings((previous) => (cursor ? [...previous, ...(page.items || [])] : page.items || []));
+      setNextCursor(page.nextCursor || null);
     } catch (error) {
       showError('Failed to load bookings');
     } finally {
@@ -424,6 +437,13 @@ export const Bookings = () => {
                     totalPages={totalPages}
                     onPageChange={goToPage}
                   />
+                  {nextCursor && (
+                    <div className="flex justify-center mt-4">
+                      <Button variant="outline" onClick={() => loadBookings(nextCursor)}>
+                        Load more bookings
+                      </Button>
+                    </div>
+                  )}
                 </>
               )}
             </CardContent>
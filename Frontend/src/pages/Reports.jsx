@@ -6,7 +6,7 @@ import { Button } from '../components/ui/button';
 import { Input } from '../components/ui/input';
 import { Label } from '../components/ui/label';
 import { LoadingSkeleton } from '../components/LoadingSkeleton';
-import { BarChart3, TrendingUp, DollarSign, Wrench } from 'lucide-react';
+import { BarChart3, TrendingUp, DollarSign, Wrench, Download } from 'lucide-react';
 import { BarChart, Bar, XAxis, YAxis, CartesianGrid, Tooltip, Legend, ResponsiveContainer, PieChart, Pie, Cell, LineChart, Line } from 'recharts';
 
 export const Reports = () => {
@@ -40,6 +40,31 @@ export const Reports = () => {
     }
   };
 
+  const downloadFile = (response, filename) => {
+    const url = URL.createObjectURL(response.data);
+    const link = document.createElement('a');
+    link.href = url;
+    link.download = filename;
+    link.click();
+    URL.revokeObjectURL(url);
+  };
+
+  const exportMonth = async () => {
+    const [year, month] = selectedMonth.split('-').map(Number);
+    const from = `${selectedMonth}-01`;
+    const next = new Date(Date.UTC(year, month, 1)).toISOString().slice(0, 10);
+    try {
+      const [bookingsRes, usageRes] = await Promise.all([
+        reportsAPI.exportBookings(from, next),
+        reportsAPI.exportMonthlyLabUsage(selectedMonth),
+      ]);
+      downloadFile(bookingsRes, `bookings-${selectedMonth}.csv`);
+      downloadFile(usageRes, `lab-usage-${selectedMonth}.csv`);
+    } catch (error) {
+      showError('Failed to export report');
+    }
+  };
+
   const equipmentChartData = equipmentData ? [
     { name: 'Available', value: equipmentData.available, color: '#10b981' },
     { name: 'In Use', value: equipmentData.inUse, color: '#3b82f6' },
@@ -86,6 +111,10 @@ export const Reports = () => {
                 />
               </div>
               <Button onClick={loadReports}>Load Report</Button>
+              <Button variant="outline" onClick={exportMonth}>
+                <Download className="h-4 w-4 mr-2" />
+                Export CSV
+              </Button>
             </div>
             {monthlyData && (
               <div className="mt-6 grid md:grid-cols-4 gap-4">
@@ -109,8 +138,8 @@ export const Reports = () => {
                 </Card>
                 <Card>
                   <CardContent className="pt-6">
-                    <div className="text-2xl font-bold">{monthlyData.bookings?.length || 0}</div>
-                    <p className="text-xs text-muted-foreground">This Month</p>
+                    <div className="text-2xl font-bold">{monthlyData.bookedHours ?? 0}</div>
+                    <p className="text-xs text-muted-foreground">Booked Hours</p>
                   </CardContent>
                 </Card>
               </div>
@@ -40,6 +40,7 @@ api.interceptors.response.use(
 export const authAPI = {
   register: (data) => api.post('/auth/register', data),
   login: (data) => api.post('/auth/login', data),
+  logout: () => api.post('/auth/logout'),
 };
 
 // User API
@@ -76,17 +77,19 @@ export const equipmentAPI = {
 
 // Booking API
 export const bookingAPI = {
-  getAll: () => api.get('/bookings'),
+  // Paged: params { status, from, to, cursor, limit } -> data { items, nextCursor }
+  getAll: (params) => api.get('/bookings', { params }),
   getById: (id) => api.get(`/bookings/${id}`),
-  getByUser: (userId) => api.get(`/bookings/user/${userId}`),
-  getMyBookings: () => api.get('/bookings/my-bookings'),
-  getByLab: (labId) => api.get(`/bookings/lab/${labId}`),
+  getByUser: (userId, params) => api.get(`/bookings/user/${userId}`, { params }),
+  getMyBookings: (params) => api.get('/bookings/my-bookings', { params }),
+  getByLab: (labId, params) => api.get(`/bookings/lab/${labId}`, { params }),
   getByDateRange: (labId, start, end) => api.get(`/bookings/lab/${labId}/availability`, { params: { start, end } }),
   createInstructor: (data) => api.post('/instructor/bookings', data),
   createStudent: (data) => api.post('/student/bookings', data),
   update: (id, data) => api.put(`/instructor/bookings/${id}`, data),
   approve: (id) => api.post(`/lab-manager/bookings/${id}/approve`),
   reject: (id) => api.post(`/lab-manager/bookings/${id}/reject`),
+  decide: (decisions) => api.post('/lab-manager/bookings/decisions', { decisions }),
   cancel: (id) => api.post(`/bookings/${id}/cancel`),
   delete: (id) => api.delete(`/admin/bookings/${id}`),
 };
@@ -108,8 +111,34 @@ export const maintenanceAPI = {
 // Reports API
 export const reportsAPI = {
   monthlyLabUsage: (yearMonth) => api.get('/admin/reports/monthly-lab-usage', { params: { yearMonth } }),
+  monthlyBookings: (yearMonth, params) =>
+    api.get('/admin/reports/monthly-lab-usage/bookings', { params: { yearMonth, ...params } }),
+  yearlyLabUsage: (year) => api.get('/admin/reports/yearly-lab-usage', { params: { year } }),
+  labOccupancy: (from, to) => api.get('/admin/reports/lab-occupancy', { params: { from, to } }),
+  trends: (period, from, to) => api.get('/admin/reports/trends', { params: { period, from, to } }),
+  rebuildUsageRollup: () => api.post('/admin/reports/usage-rollup/rebuild'),
   equipmentUtilization: () => api.get('/admin/reports/equipment-utilization'),
   maintenanceStatistics: () => api.get('/admin/reports/maintenance-statistics'),
+  exportBookings: (from, to, format = 'csv') =>
+    api.get('/admin/reports/export/bookings', { params: { from, to, format }, responseType: 'blob' }),
+  exportAuditLogs: (from, to, format = 'csv') =>
+    api.get('/admin/reports/export/audit-logs', { params: { from, to, format }, responseType: 'blob' }),
+  exportMonthlyLabUsage: (yearMonth, format = 'csv') =>
+    api.get('/admin/reports/export/monthly-lab-usage', { params: { yearMonth, format }, responseType: 'blob' }),
+  submitJob: (request) => api.post('/admin/reports/jobs', request),
+  getJobs: () => api.get('/admin/reports/jobs'),
+  getJob: (id) => api.get(`/admin/reports/jobs/${id}`),
+  getJobResult: (id) => api.get(`/admin/reports/jobs/${id}/result`),
+  cancelJob: (id) => api.delete(`/admin/reports/jobs/${id}`),
+};
+
+// Audit log API
+export const auditAPI = {
+  search: (params) => api.get('/admin/audit-logs', { params }),
+  getArchivedDays: () => api.get('/admin/audit-logs/archive'),
+  archive: () => api.post('/admin/audit-logs/archive'),
+  readJournal: (from, to, limit) => api.get('/admin/audit-logs/journal', { params: { from, to, limit } }),
+  compactJournal: () => api.post('/admin/audit-logs/journal/compact'),
 };
 
 export default api;
@@ -8,8 +8,11 @@ import com.example.ElisaInternership.repository.BookingRepository;
 import com.example.ElisaInternership.repository.EquipmentRepository;
 import com.example.ElisaInternership.repository.LabRepository;
 import com.example.ElisaInternership.repository.UserRepository;
+import com.example.ElisaInternership.service.LabUsageRollup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -30,8 +33,16 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LabUsageRollup labUsageRollup;
+
     @Override
     public void run(String... args) throws Exception {
+        alignBookingSequence();
+
         // Create default admin user if it doesn't exist
         User admin = null;
         if (!userRepository.existsByUsername("admin")) {
@@ -55,6 +66,22 @@ public class DataInitializer implements CommandLineRunner {
         }
     }
 
+    // V8 seeds the sequence above the IDENTITY ids it replaced; this only repairs a table
+    // that was reset or restored behind the bookings.
+    private void alignBookingSequence() {
+        try {
+            int updated = jdbcTemplate.update(
+                    "UPDATE bookings_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + ? FROM bookings) " +
+                    "WHERE next_val < (SELECT COALESCE(MAX(id), 0) + ? FROM bookings)",
+                    Booking.ID_ALLOCATION_SIZE, Booking.ID_ALLOCATION_SIZE);
+            if (updated > 0) {
+                System.out.println("Booking id sequence aligned with existing bookings");
+            }
+        } catch (DataAccessException e) {
+            // Database has native sequences, nothing to align
+        }
+    }
+
     private void createSampleLabs(User admin) {
         // Lab 1: Main Computer Lab
         Lab lab1 = new Lab();
@@ -120,7 +147,7 @@ public class DataInitializer implements CommandLineRunner {
         booking1.setEndTime(java.time.LocalDateTime.now().plusDays(1).withHour(12).withMinute(0));
         booking1.setPurpose("Java Programming Class");
         booking1.setStatus(Booking.BookingStatus.APPROVED);
-        bookingRepository.save(booking1);
+        labUsageRollup.bookingAdded(bookingRepository.save(booking1));
 
         Booking booking2 = new Booking();
         booking2.setLab(lab);
@@ -129,7 +156,7 @@ public class DataInitializer implements CommandLineRunner {
         booking2.setEndTime(java.time.LocalDateTime.now().plusDays(2).withHour(16).withMinute(0));
         booking2.setPurpose("Database Management Workshop");
         booking2.setStatus(Booking.BookingStatus.PENDING);
-        bookingRepository.save(booking2);
+        labUsageRollup.bookingAdded(bookingRepository.save(booking2));
 
         System.out.println("Sample bookings created");
     }
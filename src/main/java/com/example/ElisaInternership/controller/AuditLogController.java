@@ -0,0 +1,78 @@
+package com.example.ElisaInternership.controller;
+
+import com.example.ElisaInternership.dto.ApiResponse;
+import com.example.ElisaInternership.dto.AuditLogFilter;
+import com.example.ElisaInternership.dto.AuditLogSummary;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.service.AuditArchive;
+import com.example.ElisaInternership.service.AuditEvent;
+import com.example.ElisaInternership.service.AuditService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/audit-logs")
+public class AuditLogController {
+    @Autowired
+    private AuditService auditService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<CursorPage<AuditLogSummary>>> searchAuditLogs(
+            AuditLogFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            CursorPage<AuditLogSummary> page = auditService.searchAuditLogs(filter, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success("Audit logs retrieved successfully", page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<ApiResponse<List<AuditArchive.Day>>> getArchivedDays() {
+        List<AuditArchive.Day> days = auditService.getArchivedDays();
+        return ResponseEntity.ok(ApiResponse.success("Archived days retrieved successfully", days));
+    }
+
+    @PostMapping("/archive")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> archiveAuditLogs() {
+        try {
+            int archived = auditService.archiveAuditLogs();
+            return ResponseEntity.ok(ApiResponse.success("Audit logs archived successfully",
+                    Map.of("archived", archived)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/journal")
+    public ResponseEntity<ApiResponse<List<AuditEvent>>> readJournal(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<AuditEvent> entries = auditService.readJournal(from, to, limit);
+            return ResponseEntity.ok(ApiResponse.success("Journal entries retrieved successfully", entries));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/journal/compact")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> compactJournal() {
+        try {
+            int shipped = auditService.compactJournal();
+            return ResponseEntity.ok(ApiResponse.success("Audit journal compacted successfully",
+                    Map.of("shipped", shipped)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
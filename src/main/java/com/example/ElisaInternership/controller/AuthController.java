@@ -4,10 +4,12 @@ import com.example.ElisaInternership.dto.ApiResponse;
 import com.example.ElisaInternership.dto.AuthResponse;
 import com.example.ElisaInternership.dto.LoginRequest;
 import com.example.ElisaInternership.dto.RegisterRequest;
+import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -35,6 +37,19 @@ public class AuthController {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Object>> logout(Authentication authentication) {
+        try {
+            if (authentication == null) {
+                throw new RuntimeException("Not logged in");
+            }
+            authService.logout((User) authentication.getPrincipal());
+            return ResponseEntity.ok(ApiResponse.success("Logged out successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
 }
 
 
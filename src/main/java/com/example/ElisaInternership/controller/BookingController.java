@@ -1,8 +1,17 @@
 package com.example.ElisaInternership.controller;
 
 import com.example.ElisaInternership.dto.ApiResponse;
+import com.example.ElisaInternership.dto.BookingFilter;
 import com.example.ElisaInternership.dto.BookingRequest;
+import com.example.ElisaInternership.dto.BookingSummary;
+import com.example.ElisaInternership.dto.BulkDecisionRequest;
+import com.example.ElisaInternership.dto.BulkDecisionResponse;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.dto.RecurringBookingRequest;
+import com.example.ElisaInternership.dto.RecurringBookingResponse;
+import com.example.ElisaInternership.dto.TimeSlot;
 import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.service.AvailabilityService;
 import com.example.ElisaInternership.service.BookingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +29,9 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
     @PostMapping("/instructor/bookings")
     public ResponseEntity<ApiResponse<Booking>> createBooking(
             @Valid @RequestBody BookingRequest request,
@@ -34,6 +46,24 @@ public class BookingController {
         }
     }
 
+    @PostMapping("/instructor/bookings/recurring")
+    public ResponseEntity<ApiResponse<RecurringBookingResponse>> createRecurringBooking(
+            @Valid @RequestBody RecurringBookingRequest request,
+            Authentication authentication) {
+        try {
+            com.example.ElisaInternership.model.User currentUser = 
+                    (com.example.ElisaInternership.model.User) authentication.getPrincipal();
+            RecurringBookingResponse response = bookingService.createRecurringBooking(request, currentUser);
+            if (response.getCreatedCount() == 0) {
+                return ResponseEntity.badRequest().body(new ApiResponse<>(false,
+                        "No bookings created: " + response.getConflictCount() + " occurrences conflict", response));
+            }
+            return ResponseEntity.ok(ApiResponse.success("Recurring booking created successfully", response));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PostMapping("/student/bookings")
     public ResponseEntity<ApiResponse<Booking>> createStudentBooking(
             @Valid @RequestBody BookingRequest request,
@@ -91,6 +121,20 @@ public class BookingController {
         }
     }
 
+    @PostMapping("/lab-manager/bookings/decisions")
+    public ResponseEntity<ApiResponse<BulkDecisionResponse>> decideBookings(
+            @Valid @RequestBody BulkDecisionRequest request,
+            Authentication authentication) {
+        try {
+            com.example.ElisaInternership.model.User currentUser = 
+                    (com.example.ElisaInternership.model.User) authentication.getPrincipal();
+            BulkDecisionResponse response = bookingService.decideBookings(request.getDecisions(), currentUser);
+            return ResponseEntity.ok(ApiResponse.success("Booking decisions applied", response));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PostMapping("/bookings/{id}/cancel")
     public ResponseEntity<ApiResponse<Object>> cancelBooking(
             @PathVariable Long id,
@@ -120,9 +164,11 @@ public class BookingController {
     }
 
     @GetMapping("/bookings")
-    public ResponseEntity<ApiResponse<List<Booking>>> getAllBookings() {
-        List<Booking> bookings = bookingService.getAllBookings();
-        return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+    public ResponseEntity<ApiResponse<CursorPage<BookingSummary>>> getAllBookings(
+            BookingFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return getBookingPage(filter, cursor, limit);
     }
 
     @GetMapping("/bookings/{id}")
@@ -136,27 +182,35 @@ public class BookingController {
     }
 
     @GetMapping("/bookings/user/{userId}")
-    public ResponseEntity<ApiResponse<List<Booking>>> getBookingsByUser(@PathVariable Long userId) {
-        List<Booking> bookings = bookingService.getBookingsByUser(userId);
-        return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+    public ResponseEntity<ApiResponse<CursorPage<BookingSummary>>> getBookingsByUser(
+            @PathVariable Long userId,
+            BookingFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        filter.setUserId(userId);
+        return getBookingPage(filter, cursor, limit);
     }
 
     @GetMapping("/bookings/my-bookings")
-    public ResponseEntity<ApiResponse<List<Booking>>> getMyBookings(Authentication authentication) {
-        try {
-            com.example.ElisaInternership.model.User currentUser = 
-                    (com.example.ElisaInternership.model.User) authentication.getPrincipal();
-            List<Booking> bookings = bookingService.getBookingsByUser(currentUser.getId());
-            return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+    public ResponseEntity<ApiResponse<CursorPage<BookingSummary>>> getMyBookings(
+            BookingFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        com.example.ElisaInternership.model.User currentUser = 
+                (com.example.ElisaInternership.model.User) authentication.getPrincipal();
+        filter.setUserId(currentUser.getId());
+        return getBookingPage(filter, cursor, limit);
     }
 
     @GetMapping("/bookings/lab/{labId}")
-    public ResponseEntity<ApiResponse<List<Booking>>> getBookingsByLab(@PathVariable Long labId) {
-        List<Booking> bookings = bookingService.getBookingsByLab(labId);
-        return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+    public ResponseEntity<ApiResponse<CursorPage<BookingSummary>>> getBookingsByLab(
+            @PathVariable Long labId,
+            BookingFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        filter.setLabId(labId);
+        return getBookingPage(filter, cursor, limit);
     }
 
     @GetMapping("/bookings/lab/{labId}/availability")
@@ -167,6 +221,30 @@ public class BookingController {
         List<Booking> bookings = bookingService.getBookingsByLabAndDateRange(labId, start, end);
         return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
     }
+
+    @GetMapping("/bookings/lab/{labId}/free-slots")
+    public ResponseEntity<ApiResponse<List<TimeSlot>>> getFreeSlots(
+            @PathVariable Long labId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) Integer slotMinutes) {
+        try {
+            List<TimeSlot> slots = availabilityService.getFreeSlots(labId, start, end, slotMinutes);
+            return ResponseEntity.ok(ApiResponse.success("Free slots retrieved successfully", slots));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<ApiResponse<CursorPage<BookingSummary>>> getBookingPage(
+            BookingFilter filter, String cursor, Integer limit) {
+        try {
+            CursorPage<BookingSummary> page = bookingService.getBookings(filter, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", page));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
 }
 
 
@@ -2,6 +2,7 @@ package com.example.ElisaInternership.controller;
 
 import com.example.ElisaInternership.dto.ApiResponse;
 import com.example.ElisaInternership.dto.EquipmentRequest;
+import com.example.ElisaInternership.dto.EquipmentSummary;
 import com.example.ElisaInternership.model.Equipment;
 import com.example.ElisaInternership.service.EquipmentService;
 import jakarta.validation.Valid;
@@ -62,8 +63,8 @@ public class EquipmentController {
     }
 
     @GetMapping("/equipment")
-    public ResponseEntity<ApiResponse<List<Equipment>>> getAllEquipment() {
-        List<Equipment> equipment = equipmentService.getAllEquipment();
+    public ResponseEntity<ApiResponse<List<EquipmentSummary>>> getAllEquipment() {
+        List<EquipmentSummary> equipment = equipmentService.getAllEquipment();
         return ResponseEntity.ok(ApiResponse.success("Equipment retrieved successfully", equipment));
     }
 
@@ -0,0 +1,88 @@
+package com.example.ElisaInternership.controller;
+
+import com.example.ElisaInternership.dto.ApiResponse;
+import com.example.ElisaInternership.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin/reports/export")
+public class ExportController {
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/bookings")
+    public ResponseEntity<?> exportBookings(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            ExportService.Format exportFormat = ExportService.Format.parse(format);
+            ExportService.requireRange(from, to);
+            return download("bookings-" + from + "-to-" + to, exportFormat, gzip,
+                    out -> exportService.exportBookings(from, to, exportFormat, out));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/audit-logs")
+    public ResponseEntity<?> exportAuditLogs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            ExportService.Format exportFormat = ExportService.Format.parse(format);
+            ExportService.requireRange(from, to);
+            return download("audit-logs-" + from + "-to-" + to, exportFormat, gzip,
+                    out -> exportService.exportAuditLogs(from, to, exportFormat, out));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/monthly-lab-usage")
+    public ResponseEntity<?> exportMonthlyLabUsage(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            ExportService.Format exportFormat = ExportService.Format.parse(format);
+            return download("lab-usage-" + yearMonth, exportFormat, gzip,
+                    out -> exportService.exportMonthlyLabUsage(yearMonth, exportFormat, out));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Rows are written to the response as they are read; gzip turns the download into a .gz file
+    private ResponseEntity<StreamingResponseBody> download(String name, ExportService.Format format, boolean gzip,
+                                                           StreamingResponseBody body) {
+        String filename = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8");
+        StreamingResponseBody stream = !gzip ? body : out -> {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+            body.writeTo(compressed);
+            compressed.finish();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build()
+                        .toString())
+                .contentType(contentType)
+                .body(stream);
+    }
+}
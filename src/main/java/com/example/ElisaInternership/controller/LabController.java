@@ -2,14 +2,18 @@ package com.example.ElisaInternership.controller;
 
 import com.example.ElisaInternership.dto.ApiResponse;
 import com.example.ElisaInternership.dto.LabRequest;
+import com.example.ElisaInternership.dto.LabSummary;
 import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.service.AvailabilityService;
 import com.example.ElisaInternership.service.LabService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,6 +22,9 @@ public class LabController {
     @Autowired
     private LabService labService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
     @PostMapping("/admin/labs")
     public ResponseEntity<ApiResponse<Lab>> createLab(
             @Valid @RequestBody LabRequest request,
@@ -62,8 +69,8 @@ public class LabController {
     }
 
     @GetMapping("/labs")
-    public ResponseEntity<ApiResponse<List<Lab>>> getAllLabs() {
-        List<Lab> labs = labService.getAllLabs();
+    public ResponseEntity<ApiResponse<List<LabSummary>>> getAllLabs() {
+        List<LabSummary> labs = labService.getAllLabs();
         return ResponseEntity.ok(ApiResponse.success("Labs retrieved successfully", labs));
     }
 
@@ -73,6 +80,26 @@ public class LabController {
         return ResponseEntity.ok(ApiResponse.success("Active labs retrieved successfully", labs));
     }
 
+    @GetMapping("/labs/search")
+    public ResponseEntity<ApiResponse<List<LabSummary>>> searchAvailableLabs(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer capacity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        Lab.LabType labType;
+        try {
+            labType = type != null ? Lab.LabType.valueOf(type.toUpperCase()) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid lab type: " + type));
+        }
+        try {
+            List<LabSummary> labs = availabilityService.findAvailableLabs(labType, capacity, start, end);
+            return ResponseEntity.ok(ApiResponse.success("Available labs retrieved successfully", labs));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/labs/{id}")
     public ResponseEntity<ApiResponse<Lab>> getLabById(@PathVariable Long id) {
         try {
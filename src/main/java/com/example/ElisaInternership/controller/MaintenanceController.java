@@ -2,6 +2,7 @@ package com.example.ElisaInternership.controller;
 
 import com.example.ElisaInternership.dto.ApiResponse;
 import com.example.ElisaInternership.dto.MaintenanceRequest;
+import com.example.ElisaInternership.dto.MaintenanceSummary;
 import com.example.ElisaInternership.model.Maintenance;
 import com.example.ElisaInternership.service.MaintenanceService;
 import jakarta.validation.Valid;
@@ -93,8 +94,8 @@ public class MaintenanceController {
     }
 
     @GetMapping("/maintenance")
-    public ResponseEntity<ApiResponse<List<Maintenance>>> getAllMaintenance() {
-        List<Maintenance> maintenance = maintenanceService.getAllMaintenance();
+    public ResponseEntity<ApiResponse<List<MaintenanceSummary>>> getAllMaintenance() {
+        List<MaintenanceSummary> maintenance = maintenanceService.getAllMaintenance();
         return ResponseEntity.ok(ApiResponse.success("Maintenance requests retrieved successfully", maintenance));
     }
 
@@ -1,12 +1,18 @@
 package com.example.ElisaInternership.controller;
 
 import com.example.ElisaInternership.dto.ApiResponse;
+import com.example.ElisaInternership.dto.BookingSummary;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.service.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.Year;
 import java.time.YearMonth;
 import java.util.Map;
 
@@ -18,11 +24,68 @@ public class ReportController {
 
     @GetMapping("/monthly-lab-usage")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getMonthlyLabUsageReport(
-            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth) {
-        Map<String, Object> report = reportService.getMonthlyLabUsageReport(yearMonth);
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth,
+            @RequestParam(defaultValue = "false") boolean includeBookings) {
+        Map<String, Object> report = reportService.getMonthlyLabUsageReport(yearMonth, includeBookings);
         return ResponseEntity.ok(ApiResponse.success("Report generated successfully", report));
     }
 
+    @GetMapping("/monthly-lab-usage/bookings")
+    public ResponseEntity<ApiResponse<CursorPage<BookingSummary>>> getMonthlyBookings(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth yearMonth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            CursorPage<BookingSummary> bookings = reportService.getMonthlyBookings(yearMonth, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/yearly-lab-usage")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getYearlyLabUsageReport(@RequestParam Year year) {
+        Map<String, Object> report = reportService.getYearlyLabUsageReport(year);
+        return ResponseEntity.ok(ApiResponse.success("Report generated successfully", report));
+    }
+
+    @GetMapping("/lab-occupancy")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLabOccupancyReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            Map<String, Object> report = reportService.getLabOccupancyReport(from, to);
+            return ResponseEntity.ok(ApiResponse.success("Report generated successfully", report));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/trends")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getTrendReport(
+            @RequestParam(defaultValue = "month") String period,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            ReportService.TrendPeriod trendPeriod = ReportService.TrendPeriod.parse(period);
+            Map<String, Object> report = reportService.getTrendReport(trendPeriod, from, to);
+            return ResponseEntity.ok(ApiResponse.success("Report generated successfully", report));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/usage-rollup/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildUsageRollup(Authentication authentication) {
+        try {
+            User currentUser = (User) authentication.getPrincipal();
+            Map<String, Object> result = reportService.rebuildUsageRollup(currentUser);
+            return ResponseEntity.ok(ApiResponse.success("Usage rollup rebuilt successfully", result));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/equipment-utilization")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getEquipmentUtilizationReport() {
         Map<String, Object> report = reportService.getEquipmentUtilizationReport();
@@ -0,0 +1,80 @@
+package com.example.ElisaInternership.controller;
+
+import com.example.ElisaInternership.dto.ApiResponse;
+import com.example.ElisaInternership.dto.ReportJob;
+import com.example.ElisaInternership.dto.ReportJobRequest;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.service.ReportJobService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/reports/jobs")
+public class ReportJobController {
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ReportJob>> submitJob(
+            @Valid @RequestBody ReportJobRequest request,
+            Authentication authentication) {
+        try {
+            User currentUser = (User) authentication.getPrincipal();
+            ReportJob job = reportJobService.submit(request, currentUser);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Report job submitted", job));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ReportJob>>> getJobs(Authentication authentication) {
+        User currentUser = (User) authentication.getPrincipal();
+        List<ReportJob> jobs = reportJobService.getJobs(currentUser);
+        return ResponseEntity.ok(ApiResponse.success("Report jobs retrieved successfully", jobs));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<ReportJob>> getJob(@PathVariable String id, Authentication authentication) {
+        try {
+            User currentUser = (User) authentication.getPrincipal();
+            ReportJob job = reportJobService.getJob(id, currentUser);
+            return ResponseEntity.ok(ApiResponse.success("Report job retrieved successfully", job));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getResult(@PathVariable String id,
+                                                                      Authentication authentication) {
+        try {
+            User currentUser = (User) authentication.getPrincipal();
+            Map<String, Object> report = reportJobService.getResult(id, currentUser);
+            return ResponseEntity.ok(ApiResponse.success("Report generated successfully", report));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<ReportJob>> cancelJob(@PathVariable String id, Authentication authentication) {
+        try {
+            User currentUser = (User) authentication.getPrincipal();
+            ReportJob job = reportJobService.cancel(id, currentUser);
+            String message = job.getStatus() == ReportJob.Status.CANCELLED
+                    ? "Report job cancelled"
+                    : "Report job removed";
+            return ResponseEntity.ok(ApiResponse.success(message, job));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
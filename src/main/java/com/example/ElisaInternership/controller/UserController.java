@@ -1,6 +1,7 @@
 package com.example.ElisaInternership.controller;
 
 import com.example.ElisaInternership.dto.ApiResponse;
+import com.example.ElisaInternership.dto.UserSummary;
 import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,8 +60,8 @@ public class UserController {
     }
 
     @GetMapping("/users")
-    public ResponseEntity<ApiResponse<List<User>>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
+    public ResponseEntity<ApiResponse<List<UserSummary>>> getAllUsers() {
+        List<UserSummary> users = userService.getAllUsers();
         return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", users));
     }
 
@@ -0,0 +1,104 @@
+package com.example.ElisaInternership.dto;
+
+import java.time.LocalDateTime;
+
+public class AuditLogSummary {
+    private Long id;
+    private String action;
+    private String entityType;
+    private Long entityId;
+    private Long userId;
+    private String username;
+    private String description;
+    private String ipAddress;
+    private LocalDateTime createdAt;
+
+    public AuditLogSummary() {
+    }
+
+    public AuditLogSummary(Long id, String action, String entityType, Long entityId, Long userId, String username,
+                           String description, String ipAddress, LocalDateTime createdAt) {
+        this.id = id;
+        this.action = action;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.userId = userId;
+        this.username = username;
+        this.description = description;
+        this.ipAddress = ipAddress;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ElisaInternership.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class BookingDecision {
+    @NotNull(message = "Booking ID is required")
+    private Long bookingId;
+
+    @NotNull(message = "Decision is required")
+    private Decision decision;
+
+    public BookingDecision() {
+    }
+
+    public BookingDecision(Long bookingId, Decision decision) {
+        this.bookingId = bookingId;
+        this.decision = decision;
+    }
+
+    // Getters and Setters
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public Decision getDecision() {
+        return decision;
+    }
+
+    public void setDecision(Decision decision) {
+        this.decision = decision;
+    }
+
+    public enum Decision {
+        APPROVE, REJECT
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Booking;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public class BookingFilter {
+    private Long labId;
+    private Long userId;
+    private Booking.BookingStatus status;
+
+    // Bookings that overlap [from, to); either end may be left open
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    // Getters and Setters
+    public Long getLabId() {
+        return labId;
+    }
+
+    public void setLabId(Long labId) {
+        this.labId = labId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Booking.BookingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Booking.BookingStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ElisaInternership.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingInterval {
+    Long getId();
+
+    Long getLabId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
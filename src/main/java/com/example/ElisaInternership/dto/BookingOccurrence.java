@@ -0,0 +1,57 @@
+package com.example.ElisaInternership.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingOccurrence {
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Long bookingId;
+    private List<Long> conflictingBookingIds = new ArrayList<>();
+
+    public BookingOccurrence() {
+    }
+
+    public BookingOccurrence(LocalDateTime startTime, LocalDateTime endTime) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public boolean hasConflicts() {
+        return !conflictingBookingIds.isEmpty();
+    }
+
+    // Getters and Setters
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public List<Long> getConflictingBookingIds() {
+        return conflictingBookingIds;
+    }
+
+    public void setConflictingBookingIds(List<Long> conflictingBookingIds) {
+        this.conflictingBookingIds = conflictingBookingIds;
+    }
+}
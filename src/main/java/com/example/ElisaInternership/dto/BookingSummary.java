@@ -0,0 +1,97 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Booking;
+
+import java.time.LocalDateTime;
+
+public class BookingSummary {
+    private Long id;
+    private LabRef lab;
+    private UserRef user;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String purpose;
+    private Booking.BookingStatus status;
+    private LocalDateTime createdAt;
+
+    public BookingSummary() {
+    }
+
+    public BookingSummary(Long id, Long labId, String labName, Long userId, String username, String firstName,
+                          String lastName, LocalDateTime startTime, LocalDateTime endTime, String purpose,
+                          Booking.BookingStatus status, LocalDateTime createdAt) {
+        this.id = id;
+        this.lab = new LabRef(labId, labName);
+        this.user = new UserRef(userId, username, firstName, lastName);
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.purpose = purpose;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LabRef getLab() {
+        return lab;
+    }
+
+    public void setLab(LabRef lab) {
+        this.lab = lab;
+    }
+
+    public UserRef getUser() {
+        return user;
+    }
+
+    public void setUser(UserRef user) {
+        this.user = user;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getPurpose() {
+        return purpose;
+    }
+
+    public void setPurpose(String purpose) {
+        this.purpose = purpose;
+    }
+
+    public Booking.BookingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Booking.BookingStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
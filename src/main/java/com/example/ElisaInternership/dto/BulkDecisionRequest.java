@@ -0,0 +1,23 @@
+package com.example.ElisaInternership.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkDecisionRequest {
+    @NotEmpty(message = "At least one decision is required")
+    @Size(max = 500, message = "At most 500 decisions per request")
+    @Valid
+    private List<BookingDecision> decisions;
+
+    // Getters and Setters
+    public List<BookingDecision> getDecisions() {
+        return decisions;
+    }
+
+    public void setDecisions(List<BookingDecision> decisions) {
+        this.decisions = decisions;
+    }
+}
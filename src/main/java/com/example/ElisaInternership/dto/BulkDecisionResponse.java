@@ -0,0 +1,48 @@
+package com.example.ElisaInternership.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BulkDecisionResponse {
+    private List<Long> approved = new ArrayList<>();
+    private List<Long> rejected = new ArrayList<>();
+    // PENDING bookings rejected because they overlap a booking approved in this batch
+    private List<Long> autoRejected = new ArrayList<>();
+    // Requested decisions that were not applied, with the reason
+    private Map<Long, String> skipped = new LinkedHashMap<>();
+
+    // Getters and Setters
+    public List<Long> getApproved() {
+        return approved;
+    }
+
+    public void setApproved(List<Long> approved) {
+        this.approved = approved;
+    }
+
+    public List<Long> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<Long> rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<Long> getAutoRejected() {
+        return autoRejected;
+    }
+
+    public void setAutoRejected(List<Long> autoRejected) {
+        this.autoRejected = autoRejected;
+    }
+
+    public Map<Long, String> getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(Map<Long, String> skipped) {
+        this.skipped = skipped;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ElisaInternership.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPage<T> {
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private List<T> items;
+    private String nextCursor;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public static int size(Integer limit) {
+        int size = limit != null ? limit : DEFAULT_SIZE;
+        if (size < 1 || size > MAX_SIZE) {
+            throw new RuntimeException("Limit must be between 1 and " + MAX_SIZE);
+        }
+        return size;
+    }
+
+    /**
+     * Builds a page from a query that fetched {@code size + 1} rows; the extra
+     * row only tells whether another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> page = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(page, cursorOf.apply(page.get(size - 1)).encode());
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
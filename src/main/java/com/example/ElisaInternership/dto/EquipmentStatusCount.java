@@ -0,0 +1,54 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Equipment;
+
+// One GROUP BY lab, status row of the equipment utilization report
+public class EquipmentStatusCount {
+    private Long labId;
+    private String labName;
+    private Equipment.EquipmentStatus status;
+    private long count;
+
+    public EquipmentStatusCount() {
+    }
+
+    public EquipmentStatusCount(Long labId, String labName, Equipment.EquipmentStatus status, Long count) {
+        this.labId = labId;
+        this.labName = labName;
+        this.status = status;
+        this.count = count != null ? count : 0;
+    }
+
+    // Getters and Setters
+    public Long getLabId() {
+        return labId;
+    }
+
+    public void setLabId(Long labId) {
+        this.labId = labId;
+    }
+
+    public String getLabName() {
+        return labName;
+    }
+
+    public void setLabName(String labName) {
+        this.labName = labName;
+    }
+
+    public Equipment.EquipmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Equipment.EquipmentStatus status) {
+        this.status = status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
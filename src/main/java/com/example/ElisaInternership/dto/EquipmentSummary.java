@@ -0,0 +1,97 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Equipment;
+
+import java.time.LocalDateTime;
+
+public class EquipmentSummary {
+    private Long id;
+    private String name;
+    private String description;
+    private String serialNumber;
+    private LabRef lab;
+    private Equipment.EquipmentStatus status;
+    private LocalDateTime purchaseDate;
+    private LocalDateTime lastMaintenanceDate;
+
+    public EquipmentSummary() {
+    }
+
+    public EquipmentSummary(Long id, String name, String description, String serialNumber, Long labId, String labName,
+                            Equipment.EquipmentStatus status, LocalDateTime purchaseDate,
+                            LocalDateTime lastMaintenanceDate) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.serialNumber = serialNumber;
+        this.lab = new LabRef(labId, labName);
+        this.status = status;
+        this.purchaseDate = purchaseDate;
+        this.lastMaintenanceDate = lastMaintenanceDate;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public void setSerialNumber(String serialNumber) {
+        this.serialNumber = serialNumber;
+    }
+
+    public LabRef getLab() {
+        return lab;
+    }
+
+    public void setLab(LabRef lab) {
+        this.lab = lab;
+    }
+
+    public Equipment.EquipmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Equipment.EquipmentStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getPurchaseDate() {
+        return purchaseDate;
+    }
+
+    public void setPurchaseDate(LocalDateTime purchaseDate) {
+        this.purchaseDate = purchaseDate;
+    }
+
+    public LocalDateTime getLastMaintenanceDate() {
+        return lastMaintenanceDate;
+    }
+
+    public void setLastMaintenanceDate(LocalDateTime lastMaintenanceDate) {
+        this.lastMaintenanceDate = lastMaintenanceDate;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ElisaInternership.dto;
+
+public class LabEquipmentStats {
+    private Long labId;
+    private String labName;
+    private long totalEquipment;
+    private long available;
+    private long inUse;
+    private long underMaintenance;
+    private long broken;
+    private double utilizationRate;
+
+    public LabEquipmentStats() {
+    }
+
+    public LabEquipmentStats(Long labId, String labName) {
+        this.labId = labId;
+        this.labName = labName;
+    }
+
+    // Getters and Setters
+    public Long getLabId() {
+        return labId;
+    }
+
+    public void setLabId(Long labId) {
+        this.labId = labId;
+    }
+
+    public String getLabName() {
+        return labName;
+    }
+
+    public void setLabName(String labName) {
+        this.labName = labName;
+    }
+
+    public long getTotalEquipment() {
+        return totalEquipment;
+    }
+
+    public void setTotalEquipment(long totalEquipment) {
+        this.totalEquipment = totalEquipment;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(long available) {
+        this.available = available;
+    }
+
+    public long getInUse() {
+        return inUse;
+    }
+
+    public void setInUse(long inUse) {
+        this.inUse = inUse;
+    }
+
+    public long getUnderMaintenance() {
+        return underMaintenance;
+    }
+
+    public void setUnderMaintenance(long underMaintenance) {
+        this.underMaintenance = underMaintenance;
+    }
+
+    public long getBroken() {
+        return broken;
+    }
+
+    public void setBroken(long broken) {
+        this.broken = broken;
+    }
+
+    public double getUtilizationRate() {
+        return utilizationRate;
+    }
+
+    public void setUtilizationRate(double utilizationRate) {
+        this.utilizationRate = utilizationRate;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ElisaInternership.dto;
+
+public class LabMaintenanceStats {
+    private Long labId;
+    private String labName;
+    private long totalRequests;
+    private long pending;
+    private long inProgress;
+    private long completed;
+    private long cancelled;
+    private double totalCost;
+    private double averageCost;
+
+    public LabMaintenanceStats() {
+    }
+
+    public LabMaintenanceStats(Long labId, String labName) {
+        this.labId = labId;
+        this.labName = labName;
+    }
+
+    // Getters and Setters
+    public Long getLabId() {
+        return labId;
+    }
+
+    public void setLabId(Long labId) {
+        this.labId = labId;
+    }
+
+    public String getLabName() {
+        return labName;
+    }
+
+    public void setLabName(String labName) {
+        this.labName = labName;
+    }
+
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+
+    public void setTotalRequests(long totalRequests) {
+        this.totalRequests = totalRequests;
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public void setPending(long pending) {
+        this.pending = pending;
+    }
+
+    public long getInProgress() {
+        return inProgress;
+    }
+
+    public void setInProgress(long inProgress) {
+        this.inProgress = inProgress;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(long cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    public void setTotalCost(double totalCost) {
+        this.totalCost = totalCost;
+    }
+
+    public double getAverageCost() {
+        return averageCost;
+    }
+
+    public void setAverageCost(double averageCost) {
+        this.averageCost = averageCost;
+    }
+}
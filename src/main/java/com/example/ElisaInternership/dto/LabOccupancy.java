@@ -0,0 +1,60 @@
+package com.example.ElisaInternership.dto;
+
+// Rows are weekdays from Monday, columns hours of the day
+public class LabOccupancy {
+    private Long labId;
+    private String labName;
+    private Integer capacity;
+    private int[][] occupiedMinutes;
+    private double[][] occupancy;
+
+    public LabOccupancy() {
+    }
+
+    public LabOccupancy(Long labId, String labName, Integer capacity) {
+        this.labId = labId;
+        this.labName = labName;
+        this.capacity = capacity;
+    }
+
+    // Getters and Setters
+    public Long getLabId() {
+        return labId;
+    }
+
+    public void setLabId(Long labId) {
+        this.labId = labId;
+    }
+
+    public String getLabName() {
+        return labName;
+    }
+
+    public void setLabName(String labName) {
+        this.labName = labName;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public int[][] getOccupiedMinutes() {
+        return occupiedMinutes;
+    }
+
+    public void setOccupiedMinutes(int[][] occupiedMinutes) {
+        this.occupiedMinutes = occupiedMinutes;
+    }
+
+    public double[][] getOccupancy() {
+        return occupancy;
+    }
+
+    public void setOccupancy(double[][] occupancy) {
+        this.occupancy = occupancy;
+    }
+}
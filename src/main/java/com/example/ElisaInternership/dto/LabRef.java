@@ -0,0 +1,31 @@
+package com.example.ElisaInternership.dto;
+
+public class LabRef {
+    private Long id;
+    private String name;
+
+    public LabRef() {
+    }
+
+    public LabRef(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Booking;
+
+// One GROUP BY lab, status row of the lab usage report
+public class LabStatusUsage {
+    private Long labId;
+    private String labName;
+    private Booking.BookingStatus status;
+    private long bookings;
+    private long bookedSeconds;
+
+    public LabStatusUsage() {
+    }
+
+    public LabStatusUsage(Long labId, String labName, Booking.BookingStatus status, Long bookings,
+                          Long bookedSeconds) {
+        this.labId = labId;
+        this.labName = labName;
+        this.status = status;
+        this.bookings = bookings != null ? bookings : 0;
+        this.bookedSeconds = bookedSeconds != null ? bookedSeconds : 0;
+    }
+
+    // Getters and Setters
+    public Long getLabId() {
+        return labId;
+    }
+
+    public void setLabId(Long labId) {
+        this.labId = labId;
+    }
+
+    public String getLabName() {
+        return labName;
+    }
+
+    public void setLabName(String labName) {
+        this.labName = labName;
+    }
+
+    public Booking.BookingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Booking.BookingStatus status) {
+        this.status = status;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(long bookings) {
+        this.bookings = bookings;
+    }
+
+    public long getBookedSeconds() {
+        return bookedSeconds;
+    }
+
+    public void setBookedSeconds(long bookedSeconds) {
+        this.bookedSeconds = bookedSeconds;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Lab;
+
+public class LabSummary {
+    private Long id;
+    private String name;
+    private String location;
+    private Integer capacity;
+    private Lab.LabType type;
+    private Boolean active;
+    private UserRef labManager;
+
+    public LabSummary() {
+    }
+
+    public LabSummary(Long id, String name, String location, Integer capacity, Lab.LabType type, Boolean active) {
+        this.id = id;
+        this.name = name;
+        this.location = location;
+        this.capacity = capacity;
+        this.type = type;
+        this.active = active;
+    }
+
+    public LabSummary(Long id, String name, String location, Integer capacity, Lab.LabType type, Boolean active,
+                      Long managerId, String managerUsername, String managerFirstName, String managerLastName) {
+        this(id, name, location, capacity, type, active);
+        this.labManager = managerId != null
+                ? new UserRef(managerId, managerUsername, managerFirstName, managerLastName)
+                : null;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public Lab.LabType getType() {
+        return type;
+    }
+
+    public void setType(Lab.LabType type) {
+        this.type = type;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public UserRef getLabManager() {
+        return labManager;
+    }
+
+    public void setLabManager(UserRef labManager) {
+        this.labManager = labManager;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Booking;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class LabUsage {
+    private Long labId;
+    private String labName;
+    private long totalBookings;
+    private double bookedHours;
+    private long uniqueUsers;
+    private Map<Booking.BookingStatus, Long> statusCounts;
+
+    public LabUsage() {
+    }
+
+    public LabUsage(Long labId, String labName) {
+        this.labId = labId;
+        this.labName = labName;
+        this.statusCounts = new EnumMap<>(Booking.BookingStatus.class);
+    }
+
+    // Getters and Setters
+    public Long getLabId() {
+        return labId;
+    }
+
+    public void setLabId(Long labId) {
+        this.labId = labId;
+    }
+
+    public String getLabName() {
+        return labName;
+    }
+
+    public void setLabName(String labName) {
+        this.labName = labName;
+    }
+
+    public long getTotalBookings() {
+        return totalBookings;
+    }
+
+    public void setTotalBookings(long totalBookings) {
+        this.totalBookings = totalBookings;
+    }
+
+    public double getBookedHours() {
+        return bookedHours;
+    }
+
+    public void setBookedHours(double bookedHours) {
+        this.bookedHours = bookedHours;
+    }
+
+    public long getUniqueUsers() {
+        return uniqueUsers;
+    }
+
+    public void setUniqueUsers(long uniqueUsers) {
+        this.uniqueUsers = uniqueUsers;
+    }
+
+    public Map<Booking.BookingStatus, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<Booking.BookingStatus, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Maintenance;
+
+// One GROUP BY lab, status row of the maintenance statistics; costedRequests counts rows with a cost
+public class MaintenanceStatusCost {
+    private Long labId;
+    private String labName;
+    private Maintenance.MaintenanceStatus status;
+    private long requests;
+    private long costedRequests;
+    private double totalCost;
+
+    public MaintenanceStatusCost() {
+    }
+
+    public MaintenanceStatusCost(Long labId, String labName, Maintenance.MaintenanceStatus status, Long requests,
+                                 Long costedRequests, Double totalCost) {
+        this.labId = labId;
+        this.labName = labName;
+        this.status = status;
+        this.requests = requests != null ? requests : 0;
+        this.costedRequests = costedRequests != null ? costedRequests : 0;
+        this.totalCost = totalCost != null ? totalCost : 0;
+    }
+
+    // Getters and Setters
+    public Long getLabId() {
+        return labId;
+    }
+
+    public void setLabId(Long labId) {
+        this.labId = labId;
+    }
+
+    public String getLabName() {
+        return labName;
+    }
+
+    public void setLabName(String labName) {
+        this.labName = labName;
+    }
+
+    public Maintenance.MaintenanceStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Maintenance.MaintenanceStatus status) {
+        this.status = status;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public long getCostedRequests() {
+        return costedRequests;
+    }
+
+    public void setCostedRequests(long costedRequests) {
+        this.costedRequests = costedRequests;
+    }
+
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    public void setTotalCost(double totalCost) {
+        this.totalCost = totalCost;
+    }
+}
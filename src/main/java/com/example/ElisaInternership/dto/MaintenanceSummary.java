@@ -0,0 +1,131 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Maintenance;
+
+import java.time.LocalDateTime;
+
+public class MaintenanceSummary {
+    private Long id;
+    private EquipmentRef equipment;
+    private UserRef requestedBy;
+    private UserRef assignedTechnician;
+    private String description;
+    private Maintenance.MaintenanceStatus status;
+    private LocalDateTime requestDate;
+    private LocalDateTime assignedDate;
+    private LocalDateTime completionDate;
+    private Double cost;
+    private String notes;
+
+    public MaintenanceSummary() {
+    }
+
+    public MaintenanceSummary(Long id, Long equipmentId, String equipmentName, Long requesterId, String requesterUsername,
+                              String requesterFirstName, String requesterLastName, Long technicianId,
+                              String technicianUsername, String technicianFirstName, String technicianLastName,
+                              String description, Maintenance.MaintenanceStatus status, LocalDateTime requestDate,
+                              LocalDateTime assignedDate, LocalDateTime completionDate, Double cost, String notes) {
+        this.id = id;
+        this.equipment = new EquipmentRef(equipmentId, equipmentName);
+        this.requestedBy = new UserRef(requesterId, requesterUsername, requesterFirstName, requesterLastName);
+        this.assignedTechnician = technicianId != null
+                ? new UserRef(technicianId, technicianUsername, technicianFirstName, technicianLastName)
+                : null;
+        this.description = description;
+        this.status = status;
+        this.requestDate = requestDate;
+        this.assignedDate = assignedDate;
+        this.completionDate = completionDate;
+        this.cost = cost;
+        this.notes = notes;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public EquipmentRef getEquipment() {
+        return equipment;
+    }
+
+    public void setEquipment(EquipmentRef equipment) {
+        this.equipment = equipment;
+    }
+
+    public UserRef getRequestedBy() {
+        return requestedBy;
+    }
+
+    public void setRequestedBy(UserRef requestedBy) {
+        this.requestedBy = requestedBy;
+    }
+
+    public UserRef getAssignedTechnician() {
+        return assignedTechnician;
+    }
+
+    public void setAssignedTechnician(UserRef assignedTechnician) {
+        this.assignedTechnician = assignedTechnician;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Maintenance.MaintenanceStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Maintenance.MaintenanceStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getRequestDate() {
+        return requestDate;
+    }
+
+    public void setRequestDate(LocalDateTime requestDate) {
+        this.requestDate = requestDate;
+    }
+
+    public LocalDateTime getAssignedDate() {
+        return assignedDate;
+    }
+
+    public void setAssignedDate(LocalDateTime assignedDate) {
+        this.assignedDate = assignedDate;
+    }
+
+    public LocalDateTime getCompletionDate() {
+        return completionDate;
+    }
+
+    public void setCompletionDate(LocalDateTime completionDate) {
+        this.completionDate = completionDate;
+    }
+
+    public Double getCost() {
+        return cost;
+    }
+
+    public void setCost(Double cost) {
+        this.cost = cost;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Booking;
+
+import java.time.YearMonth;
+
+// One GROUP BY month, status row of the yearly lab usage report
+public class MonthStatusUsage {
+    private YearMonth month;
+    private Booking.BookingStatus status;
+    private long bookings;
+    private long bookedSeconds;
+
+    public MonthStatusUsage() {
+    }
+
+    public MonthStatusUsage(YearMonth month, Booking.BookingStatus status, long bookings, long bookedSeconds) {
+        this.month = month;
+        this.status = status;
+        this.bookings = bookings;
+        this.bookedSeconds = bookedSeconds;
+    }
+
+    // Getters and Setters
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public void setMonth(YearMonth month) {
+        this.month = month;
+    }
+
+    public Booking.BookingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Booking.BookingStatus status) {
+        this.status = status;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(long bookings) {
+        this.bookings = bookings;
+    }
+
+    public long getBookedSeconds() {
+        return bookedSeconds;
+    }
+
+    public void setBookedSeconds(long bookedSeconds) {
+        this.bookedSeconds = bookedSeconds;
+    }
+}
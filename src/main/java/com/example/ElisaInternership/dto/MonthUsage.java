@@ -0,0 +1,54 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.Booking;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class MonthUsage {
+    private String month;
+    private long totalBookings;
+    private double bookedHours;
+    private Map<Booking.BookingStatus, Long> statusCounts;
+
+    public MonthUsage() {
+    }
+
+    public MonthUsage(String month) {
+        this.month = month;
+        this.statusCounts = new EnumMap<>(Booking.BookingStatus.class);
+    }
+
+    // Getters and Setters
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public long getTotalBookings() {
+        return totalBookings;
+    }
+
+    public void setTotalBookings(long totalBookings) {
+        this.totalBookings = totalBookings;
+    }
+
+    public double getBookedHours() {
+        return bookedHours;
+    }
+
+    public void setBookedHours(double bookedHours) {
+        this.bookedHours = bookedHours;
+    }
+
+    public Map<Booking.BookingStatus, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<Booking.BookingStatus, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+}
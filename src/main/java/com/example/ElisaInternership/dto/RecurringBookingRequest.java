@@ -0,0 +1,100 @@
+package com.example.ElisaInternership.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class RecurringBookingRequest {
+    @NotNull(message = "Lab ID is required")
+    private Long labId;
+
+    @NotNull(message = "Start time is required")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "End time is required")
+    private LocalDateTime endTime;
+
+    @NotNull(message = "Frequency is required")
+    private Frequency frequency;
+
+    @Min(value = 1, message = "Interval must be at least 1")
+    private int interval = 1;
+
+    @NotNull(message = "Until date is required")
+    private LocalDate until;
+
+    private String purpose;
+
+    private boolean skipConflicts;
+
+    // Getters and Setters
+    public Long getLabId() {
+        return labId;
+    }
+
+    public void setLabId(Long labId) {
+        this.labId = labId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    public void setUntil(LocalDate until) {
+        this.until = until;
+    }
+
+    public String getPurpose() {
+        return purpose;
+    }
+
+    public void setPurpose(String purpose) {
+        this.purpose = purpose;
+    }
+
+    public boolean isSkipConflicts() {
+        return skipConflicts;
+    }
+
+    public void setSkipConflicts(boolean skipConflicts) {
+        this.skipConflicts = skipConflicts;
+    }
+
+    public enum Frequency {
+        DAILY, WEEKLY
+    }
+}
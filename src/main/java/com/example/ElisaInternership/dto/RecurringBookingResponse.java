@@ -0,0 +1,43 @@
+package com.example.ElisaInternership.dto;
+
+import java.util.List;
+
+public class RecurringBookingResponse {
+    private int createdCount;
+    private int conflictCount;
+    private List<BookingOccurrence> occurrences;
+
+    public RecurringBookingResponse() {
+    }
+
+    public RecurringBookingResponse(int createdCount, int conflictCount, List<BookingOccurrence> occurrences) {
+        this.createdCount = createdCount;
+        this.conflictCount = conflictCount;
+        this.occurrences = occurrences;
+    }
+
+    // Getters and Setters
+    public int getCreatedCount() {
+        return createdCount;
+    }
+
+    public void setCreatedCount(int createdCount) {
+        this.createdCount = createdCount;
+    }
+
+    public int getConflictCount() {
+        return conflictCount;
+    }
+
+    public void setConflictCount(int conflictCount) {
+        this.conflictCount = conflictCount;
+    }
+
+    public List<BookingOccurrence> getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(List<BookingOccurrence> occurrences) {
+        this.occurrences = occurrences;
+    }
+}
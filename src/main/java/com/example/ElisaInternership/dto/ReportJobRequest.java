@@ -0,0 +1,74 @@
+package com.example.ElisaInternership.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+
+public class ReportJobRequest {
+    @NotNull(message = "Report type is required")
+    private ReportJob.Type type;
+
+    // Required for MONTHLY_LAB_USAGE, e.g. "2025-03"
+    private YearMonth yearMonth;
+
+    // Required for YEARLY_LAB_USAGE
+    private Year year;
+
+    // Required for LAB_OCCUPANCY and TRENDS
+    private LocalDate from;
+    private LocalDate to;
+
+    // TRENDS only, "month" (default) or "week"
+    private String period;
+
+    // Getters and Setters
+    public ReportJob.Type getType() {
+        return type;
+    }
+
+    public void setType(ReportJob.Type type) {
+        this.type = type;
+    }
+
+    public YearMonth getYearMonth() {
+        return yearMonth;
+    }
+
+    public void setYearMonth(YearMonth yearMonth) {
+        this.yearMonth = yearMonth;
+    }
+
+    public Year getYear() {
+        return year;
+    }
+
+    public void setYear(Year year) {
+        this.year = year;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ElisaInternership.dto;
+
+import com.example.ElisaInternership.model.User;
+
+import java.time.LocalDateTime;
+
+public class UserSummary {
+    private Long id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private User.Role role;
+    private Boolean active;
+    private LabRef assignedLab;
+    private LocalDateTime createdAt;
+
+    public UserSummary() {
+    }
+
+    public UserSummary(Long id, String username, String email, String firstName, String lastName, User.Role role,
+                       Boolean active, Long labId, String labName, LocalDateTime createdAt) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.role = role;
+        this.active = active;
+        this.assignedLab = labId != null ? new LabRef(labId, labName) : null;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public User.Role getRole() {
+        return role;
+    }
+
+    public void setRole(User.Role role) {
+        this.role = role;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public LabRef getAssignedLab() {
+        return assignedLab;
+    }
+
+    public void setAssignedLab(LabRef assignedLab) {
+        this.assignedLab = assignedLab;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
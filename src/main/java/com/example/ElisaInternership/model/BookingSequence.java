@@ -0,0 +1,17 @@
+package com.example.ElisaInternership.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Booking ids taken from {@code bookings_seq} by {@link BookingSequenceGenerator}.
+ */
+@IdGeneratorType(BookingSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface BookingSequence {
+}
@@ -0,0 +1,70 @@
+package com.example.ElisaInternership.model;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out booking ids from blocks of {@link Booking#ID_ALLOCATION_SIZE} reserved in the
+ * one-row {@code bookings_seq} table, whose {@code next_val} is the first id not yet handed out.
+ * <p>
+ * Blocks are reserved over a connection of their own, opened outside the connection pool. The
+ * writer that runs out of ids is inside a transaction that already holds a pooled connection,
+ * and other writers wait for its block while holding theirs, so a block taken from the pool
+ * could wait for a connection that none of them releases.
+ */
+public class BookingSequenceGenerator implements IdentifierGenerator {
+    private DataSource blockSource;
+    private long next;
+    private long limit;
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        if (next == limit) {
+            next = reserveBlock(session);
+            limit = next + Booking.ID_ALLOCATION_SIZE;
+        }
+        return next++;
+    }
+
+    private long reserveBlock(SharedSessionContractImplementor session) {
+        try (Connection connection = blockSource(session).getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.executeUpdate("UPDATE bookings_seq SET next_val = next_val + " + Booking.ID_ALLOCATION_SIZE);
+            try (ResultSet rs = statement.executeQuery("SELECT next_val FROM bookings_seq")) {
+                if (!rs.next()) {
+                    throw new IdentifierGenerationException("bookings_seq has no row");
+                }
+                long end = rs.getLong(1);
+                connection.commit();
+                return end - Booking.ID_ALLOCATION_SIZE;
+            }
+        } catch (SQLException e) {
+            throw new IdentifierGenerationException("Could not reserve booking ids", e);
+        }
+    }
+
+    private DataSource blockSource(SharedSessionContractImplementor session) throws SQLException {
+        if (blockSource == null) {
+            HikariDataSource pool = session.getFactory().getServiceRegistry()
+                    .requireService(ConnectionProvider.class)
+                    .unwrap(DataSource.class)
+                    .unwrap(HikariDataSource.class);
+            DriverManagerDataSource dataSource =
+                    new DriverManagerDataSource(pool.getJdbcUrl(), pool.getUsername(), pool.getPassword());
+            dataSource.setDriverClassName(pool.getDriverClassName());
+            blockSource = dataSource;
+        }
+        return blockSource;
+    }
+}
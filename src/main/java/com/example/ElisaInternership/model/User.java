@@ -55,6 +55,12 @@ public class User implements UserDetails {
 
     private Boolean active = true;
 
+    // Tokens issued with an older version are refused, see TokenRevocations. Only ever bumped in
+    // SQL (UserRepository.incrementTokenVersion), so saving a stale user cannot undo a revocation
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false, updatable = false)
+    private long tokenVersion;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -168,6 +174,14 @@ public class User implements UserDetails {
         this.active = active;
     }
 
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(long tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
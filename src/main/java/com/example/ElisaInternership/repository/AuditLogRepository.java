@@ -1,21 +1,55 @@
 package com.example.ElisaInternership.repository;
 
+import com.example.ElisaInternership.dto.AuditLogSummary;
 import com.example.ElisaInternership.model.AuditLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByUserId(Long userId);
     List<AuditLog> findByEntityTypeAndEntityId(String entityType, Long entityId);
     List<AuditLog> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
-}
-
-
-
-
-
 
+    // Entries created in [start, end) for exports; needs an open transaction and useCursorFetch on MySQL
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.ElisaInternership.dto.AuditLogSummary(a.id, a.action, a.entityType, " +
+           "a.entityId, u.id, u.username, a.description, a.ipAddress, a.createdAt) " +
+           "FROM AuditLog a LEFT JOIN a.user u WHERE a.createdAt >= :start AND a.createdAt < :end " +
+           "ORDER BY a.createdAt, a.id")
+    Stream<AuditLogSummary> streamCreatedInRange(@Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+
+    // Keyset page, newest first, ordered by (createdAt, id) descending; the seek is written as a range on
+    // createdAt plus a tie-break so the (filter, created_at, id) indexes can serve it. The entity
+    // join keeps the user filter on audit_logs.user_id instead of the joined users row
+    @Query("SELECT new com.example.ElisaInternership.dto.AuditLogSummary(a.id, a.action, a.entityType, " +
+           "a.entityId, u.id, u.username, a.description, a.ipAddress, a.createdAt) " +
+           "FROM AuditLog a LEFT JOIN User u ON u.id = a.user.id WHERE " +
+           "(:userId IS NULL OR a.user.id = :userId) AND (:action IS NULL OR a.action = :action) " +
+           "AND (:entityType IS NULL OR a.entityType = :entityType) " +
+           "AND (:entityId IS NULL OR a.entityId = :entityId) " +
+           "AND (:from IS NULL OR a.createdAt >= :from) AND (:to IS NULL OR a.createdAt < :to) " +
+           "AND (:beforeTime IS NULL OR (a.createdAt <= :beforeTime " +
+           "AND (a.createdAt < :beforeTime OR a.id < :beforeId))) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLogSummary> findPage(@Param("userId") Long userId,
+                                   @Param("action") String action,
+                                   @Param("entityType") String entityType,
+                                   @Param("entityId") Long entityId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("beforeTime") LocalDateTime beforeTime,
+                                   @Param("beforeId") Long beforeId,
+                                   Limit limit);
+}
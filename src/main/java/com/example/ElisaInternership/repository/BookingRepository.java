@@ -1,30 +1,107 @@
 package com.example.ElisaInternership.repository;
 
+import com.example.ElisaInternership.dto.BookingInterval;
+import com.example.ElisaInternership.dto.BookingSummary;
 import com.example.ElisaInternership.model.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUserId(Long userId);
     List<Booking> findByLabId(Long labId);
-    
+
     @Query("SELECT b FROM Booking b WHERE b.lab.id = :labId AND b.status = 'APPROVED' " +
-           "AND ((b.startTime <= :endTime AND b.endTime >= :startTime))")
-    List<Booking> findOverlappingBookings(@Param("labId") Long labId, 
-                                          @Param("startTime") LocalDateTime startTime, 
+           "AND b.startTime < :endTime AND b.endTime > :startTime")
+    List<Booking> findOverlappingBookings(@Param("labId") Long labId,
+                                          @Param("startTime") LocalDateTime startTime,
                                           @Param("endTime") LocalDateTime endTime);
-    
+
+    @Query("SELECT b.lab.id FROM Booking b WHERE b.id = :id")
+    Optional<Long> findLabIdById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT b.lab.id FROM Booking b WHERE b.user.id = :userId")
+    List<Long> findLabIdsByUserId(@Param("userId") Long userId);
+
     List<Booking> findByLabIdAndStartTimeBetween(Long labId, LocalDateTime start, LocalDateTime end);
-}
 
+    @Query("SELECT b.id AS id, b.lab.id AS labId, b.startTime AS startTime, b.endTime AS endTime " +
+           "FROM Booking b WHERE b.status = 'APPROVED'")
+    List<BookingInterval> findApprovedIntervals();
+
+    @Query("SELECT b.id AS id, b.lab.id AS labId, b.startTime AS startTime, b.endTime AS endTime " +
+           "FROM Booking b WHERE b.lab.id = :labId AND b.status = 'APPROVED' " +
+           "AND b.startTime < :endTime AND b.endTime > :startTime ORDER BY b.startTime")
+    List<BookingInterval> findApprovedIntervalsInRange(@Param("labId") Long labId,
+                                                       @Param("startTime") LocalDateTime startTime,
+                                                       @Param("endTime") LocalDateTime endTime);
 
+    @Query("SELECT b.id AS id, b.lab.id AS labId, b.startTime AS startTime, b.endTime AS endTime " +
+           "FROM Booking b WHERE b.id IN :ids")
+    List<BookingInterval> findIntervalsByIdIn(@Param("ids") Collection<Long> ids);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.lab JOIN FETCH b.user WHERE b.id IN :ids")
+    List<Booking> findAllWithLabAndUserByIdIn(@Param("ids") Collection<Long> ids);
 
+    @Query("SELECT b FROM Booking b WHERE b.lab.id = :labId AND b.status = 'PENDING' " +
+           "AND b.startTime < :endTime AND b.endTime > :startTime ORDER BY b.startTime, b.id")
+    List<Booking> findPendingInRange(@Param("labId") Long labId,
+                                     @Param("startTime") LocalDateTime startTime,
+                                     @Param("endTime") LocalDateTime endTime);
 
+    // Keyset page ordered by (startTime, id); the seek is written as a range on
+    // startTime plus a tie-break so the index on start_time can serve it. Lab and user
+    // are entity joins so that b.lab.id and b.user.id stay on the booking's own columns, which
+    // lead the (filter, start_time, id) indexes; behind an association join they become l.id and u.id
+    @Query("SELECT new com.example.ElisaInternership.dto.BookingSummary(b.id, l.id, l.name, u.id, " +
+           "u.username, u.firstName, u.lastName, b.startTime, b.endTime, b.purpose, b.status, b.createdAt) " +
+           "FROM Booking b JOIN Lab l ON l.id = b.lab.id JOIN User u ON u.id = b.user.id WHERE " +
+           "(:labId IS NULL OR b.lab.id = :labId) AND (:userId IS NULL OR b.user.id = :userId) " +
+           "AND (:status IS NULL OR b.status = :status) " +
+           "AND (:from IS NULL OR b.endTime > :from) AND (:to IS NULL OR b.startTime < :to) " +
+           "AND (:afterTime IS NULL OR (b.startTime >= :afterTime " +
+           "AND (b.startTime > :afterTime OR b.id > :afterId))) " +
+           "ORDER BY b.startTime, b.id")
+    List<BookingSummary> findPage(@Param("labId") Long labId,
+                                  @Param("userId") Long userId,
+                                  @Param("status") Booking.BookingStatus status,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  @Param("afterTime") LocalDateTime afterTime,
+                                  @Param("afterId") Long afterId,
+                                  Limit limit);
 
+    // Bookings starting in [start, end), the rows behind the lab usage report
+    @Query("SELECT new com.example.ElisaInternership.dto.BookingSummary(b.id, l.id, l.name, u.id, " +
+           "u.username, u.firstName, u.lastName, b.startTime, b.endTime, b.purpose, b.status, b.createdAt) " +
+           "FROM Booking b JOIN b.lab l JOIN b.user u WHERE b.startTime >= :start AND b.startTime < :end " +
+           "AND (:afterTime IS NULL OR (b.startTime >= :afterTime " +
+           "AND (b.startTime > :afterTime OR b.id > :afterId))) " +
+           "ORDER BY b.startTime, b.id")
+    List<BookingSummary> findStartingInRangePage(@Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end,
+                                                 @Param("afterTime") LocalDateTime afterTime,
+                                                 @Param("afterId") Long afterId,
+                                                 Limit limit);
+
+    // The same rows as a stream for exports; needs an open transaction and useCursorFetch on MySQL
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.ElisaInternership.dto.BookingSummary(b.id, l.id, l.name, u.id, " +
+           "u.username, u.firstName, u.lastName, b.startTime, b.endTime, b.purpose, b.status, b.createdAt) " +
+           "FROM Booking b JOIN b.lab l JOIN b.user u WHERE b.startTime >= :start AND b.startTime < :end " +
+           "ORDER BY b.startTime, b.id")
+    Stream<BookingSummary> streamStartingInRange(@Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+}
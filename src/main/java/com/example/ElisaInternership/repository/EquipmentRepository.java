@@ -1,8 +1,12 @@
 package com.example.ElisaInternership.repository;
 
+import com.example.ElisaInternership.dto.EquipmentStatusCount;
+import com.example.ElisaInternership.dto.EquipmentSummary;
 import com.example.ElisaInternership.model.Equipment;
 import com.example.ElisaInternership.model.Equipment.EquipmentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,7 +15,19 @@ import java.util.List;
 public interface EquipmentRepository extends JpaRepository<Equipment, Long> {
     List<Equipment> findByLabId(Long labId);
     List<Equipment> findByStatus(EquipmentStatus status);
-    List<Equipment> findByLabIdAndStatus(Long labId, EquipmentStatus status);
+
+    // A derived query would outer join labs and filter on labs.id, away from idx_equipment_lab_status
+    @Query("SELECT e FROM Equipment e WHERE e.lab.id = :labId AND e.status = :status")
+    List<Equipment> findByLabIdAndStatus(@Param("labId") Long labId, @Param("status") EquipmentStatus status);
+
+    @Query("SELECT new com.example.ElisaInternership.dto.EquipmentSummary(e.id, e.name, e.description, " +
+           "e.serialNumber, l.id, l.name, e.status, e.purchaseDate, e.lastMaintenanceDate) " +
+           "FROM Equipment e JOIN e.lab l ORDER BY e.id")
+    List<EquipmentSummary> findAllSummaries();
+
+    @Query("SELECT new com.example.ElisaInternership.dto.EquipmentStatusCount(l.id, l.name, e.status, COUNT(e)) " +
+           "FROM Equipment e JOIN e.lab l GROUP BY l.id, l.name, e.status")
+    List<EquipmentStatusCount> countByLabAndStatus();
 }
 
 
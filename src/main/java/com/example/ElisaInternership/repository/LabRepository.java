@@ -1,7 +1,9 @@
 package com.example.ElisaInternership.repository;
 
+import com.example.ElisaInternership.dto.LabSummary;
 import com.example.ElisaInternership.model.Lab;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +12,14 @@ import java.util.List;
 public interface LabRepository extends JpaRepository<Lab, Long> {
     List<Lab> findByActiveTrue();
     List<Lab> findByLabManagerId(Long labManagerId);
+
+    @Query("SELECT new com.example.ElisaInternership.dto.LabSummary(l.id, l.name, l.location, l.capacity, " +
+           "l.type, l.active, m.id, m.username, m.firstName, m.lastName) " +
+           "FROM Lab l LEFT JOIN l.labManager m ORDER BY l.id")
+    List<LabSummary> findAllSummaries();
+
+    @Query("SELECT l.id FROM Lab l ORDER BY l.id")
+    List<Long> findAllIds();
 }
 
 
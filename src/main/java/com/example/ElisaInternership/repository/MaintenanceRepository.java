@@ -1,10 +1,15 @@
 package com.example.ElisaInternership.repository;
 
+import com.example.ElisaInternership.dto.MaintenanceStatusCost;
+import com.example.ElisaInternership.dto.MaintenanceSummary;
 import com.example.ElisaInternership.model.Maintenance;
 import com.example.ElisaInternership.model.Maintenance.MaintenanceStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,10 +18,26 @@ public interface MaintenanceRepository extends JpaRepository<Maintenance, Long>
     List<Maintenance> findByStatus(MaintenanceStatus status);
     List<Maintenance> findByAssignedTechnicianId(Long technicianId);
     List<Maintenance> findByRequestedById(Long userId);
-}
-
-
-
-
-
 
+    @Query("SELECT new com.example.ElisaInternership.dto.MaintenanceSummary(m.id, e.id, e.name, " +
+           "r.id, r.username, r.firstName, r.lastName, t.id, t.username, t.firstName, t.lastName, " +
+           "m.description, m.status, m.requestDate, m.assignedDate, m.completionDate, m.cost, m.notes) " +
+           "FROM Maintenance m JOIN m.equipment e JOIN m.requestedBy r LEFT JOIN m.assignedTechnician t " +
+           "ORDER BY m.id")
+    List<MaintenanceSummary> findAllSummaries();
+
+    // COUNT(m.cost) skips requests without a cost, so averages can divide by it
+    @Query("SELECT new com.example.ElisaInternership.dto.MaintenanceStatusCost(l.id, l.name, m.status, COUNT(m), " +
+           "COUNT(m.cost), SUM(m.cost)) FROM Maintenance m JOIN m.equipment e JOIN e.lab l " +
+           "GROUP BY l.id, l.name, m.status")
+    List<MaintenanceStatusCost> sumCostByLabAndStatus();
+
+    @Query("SELECT COUNT(m) FROM Maintenance m WHERE m.requestDate >= :from AND m.requestDate < :to")
+    long countRequestedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Null when no request in the range has a cost
+    @Query("SELECT SUM(m.cost) FROM Maintenance m WHERE m.status = :status " +
+           "AND m.completionDate >= :from AND m.completionDate < :to")
+    Double sumCostByStatusBetween(@Param("status") MaintenanceStatus status, @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+}
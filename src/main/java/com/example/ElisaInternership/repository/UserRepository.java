@@ -1,9 +1,14 @@
 package com.example.ElisaInternership.repository;
 
+import com.example.ElisaInternership.dto.UserSummary;
 import com.example.ElisaInternership.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,6 +17,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("SELECT new com.example.ElisaInternership.dto.UserSummary(u.id, u.username, u.email, u.firstName, " +
+           "u.lastName, u.role, u.active, l.id, l.name, u.createdAt) " +
+           "FROM User u LEFT JOIN u.assignedLab l ORDER BY u.id")
+    List<UserSummary> findAllSummaries();
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+
+    // Leaves updated_at alone, unlike saving the entity
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
 }
 
 
@@ -1,14 +1,18 @@
 package com.example.ElisaInternership.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,27 +27,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    // "stateless" builds the principal from the token's claims instead of loading the user
+    @Value("${auth.principal-mode:cache}")
+    private String principalMode;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                // Token is invalid
+                claims = jwtUtil.extractAllClaims(authorizationHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Token is invalid or expired
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (claims != null && claims.getSubject() != null && !jwtUtil.isRevoked(claims)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = loadPrincipal(claims);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            // A deactivated user is refused even with an unexpired token: a loaded user is
+            // disabled, and deactivation revokes the tokens a stateless principal comes from
+            if (userDetails != null && userDetails.isEnabled()) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -52,10 +61,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
-}
-
-
-
-
-
 
+    private UserDetails loadPrincipal(Claims claims) {
+        if (principalMode.equals("stateless") && jwtUtil.userId(claims) != null) {
+            return jwtUtil.principal(claims);
+        }
+        try {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+}
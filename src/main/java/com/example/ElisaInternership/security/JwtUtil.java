@@ -1,8 +1,13 @@
 package com.example.ElisaInternership.security;
 
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -21,8 +26,16 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     public String extractUsername(String token) {
@@ -38,12 +51,9 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Verifies the signature and rejects expired tokens
+    public Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -61,13 +71,25 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername());
     }
 
+    // Carries everything the stateless principal needs, and the user's current token version
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("uid", user.getId());
+        claims.put("role", user.getRole().name());
+        if (user.getAssignedLab() != null) {
+            claims.put("labId", user.getAssignedLab().getId());
+        }
+        claims.put("ver", user.getTokenVersion());
+        return createToken(claims, user.getUsername());
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -75,5 +97,35 @@ public class JwtUtil {
         final String username = extractUsername(token);
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
-}
 
+    // Null for tokens issued before user IDs were added to them
+    public Long userId(Claims claims) {
+        return claims.get("uid", Long.class);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        Long userId = userId(claims);
+        Long version = claims.get("ver", Long.class);
+        return userId != null && tokenRevocations.isRevoked(userId, version != null ? version : 0);
+    }
+
+    /**
+     * The user a token was issued to, from its claims alone: ID, username,
+     * role and the ID of the assigned lab. Tokens of deactivated users are
+     * revoked, so it is always active.
+     */
+    public User principal(Claims claims) {
+        User user = new User();
+        user.setId(userId(claims));
+        user.setUsername(claims.getSubject());
+        user.setRole(User.Role.valueOf(claims.get("role", String.class)));
+        user.setActive(true);
+        Long labId = claims.get("labId", Long.class);
+        if (labId != null) {
+            Lab lab = new Lab();
+            lab.setId(labId);
+            user.setAssignedLab(lab);
+        }
+        return user;
+    }
+}
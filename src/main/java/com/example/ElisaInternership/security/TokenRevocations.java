@@ -0,0 +1,45 @@
+package com.example.ElisaInternership.security;
+
+import com.example.ElisaInternership.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The token version accepted for each user. Tokens carry the user's
+ * {@code token_version} from when they were issued, and moving the column on
+ * refuses every token issued before. A user's version is read from the
+ * database on first use and then follows {@link TokensRevoked}; a token whose
+ * user no longer exists is refused.
+ */
+@Component
+public class TokenRevocations {
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    // Versions only move forward, so a load racing a revocation cannot bring back the old one
+    public long currentVersion(Long userId) {
+        Long version = versions.get(userId);
+        if (version == null) {
+            long stored = userRepository.findTokenVersionById(userId)
+                    .orElse(TokensRevoked.deleted(userId).version());
+            version = versions.merge(userId, stored, Math::max);
+        }
+        return version;
+    }
+
+    // Runs after commit, or straight away when published outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokensRevoked(TokensRevoked event) {
+        versions.merge(event.userId(), event.version(), Math::max);
+    }
+
+    public boolean isRevoked(Long userId, long version) {
+        return version < currentVersion(userId);
+    }
+}
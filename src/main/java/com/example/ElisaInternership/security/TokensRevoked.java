@@ -0,0 +1,14 @@
+package com.example.ElisaInternership.security;
+
+/**
+ * Published when a user's {@code token_version} moves on, or the user is
+ * deleted, so that {@link TokenRevocations} refuses the older tokens once the
+ * write commits.
+ */
+public record TokensRevoked(Long userId, long version) {
+
+    // No token version reaches it
+    public static TokensRevoked deleted(Long userId) {
+        return new TokensRevoked(userId, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.AuditLogSummary;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Audit retention: entries older than {@code audit.retention.days} are moved
+ * out of {@code audit_logs} into one gzip-compressed NDJSON file per day in
+ * {@code audit.retention.directory}, each with a small JSON index next to it
+ * (entry count, oldest and newest entry, entity types and actions). A day's
+ * file is complete before any of its rows are deleted, which then happens
+ * {@code audit.retention.delete-batch-size} rows per statement so no single
+ * delete holds locks for long. Archiving a day again, because entries for it
+ * were written late or a run stopped halfway, merges into its file.
+ * <p>
+ * The audit log search reads archived days through {@link #findPage}, using
+ * the indexes to skip days outside the range or without the entity type or
+ * action asked for.
+ */
+@Component
+public class AuditArchive {
+    private static final Logger log = LoggerFactory.getLogger(AuditArchive.class);
+
+    public static final Comparator<AuditLogSummary> NEWEST_FIRST = Comparator
+            .comparing(AuditLogSummary::getCreatedAt)
+            .thenComparing(AuditLogSummary::getId)
+            .reversed();
+
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".index.json";
+
+    // What the index next to each day's file holds
+    public record Day(LocalDate day, int entries, LocalDateTime oldest, LocalDateTime newest,
+                      Set<String> entityTypes, Set<String> actions) {
+    }
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.retention.days:365}")
+    private int retentionDays;
+
+    @Value("${audit.retention.directory:audit-archive}")
+    private String directoryName;
+
+    @Value("${audit.retention.delete-batch-size:1000}")
+    private int deleteBatchSize;
+
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final ConcurrentSkipListMap<LocalDate, Day> days = new ConcurrentSkipListMap<>();
+
+    private Path directory;
+    private Counter archived;
+
+    @PostConstruct
+    void load() throws IOException {
+        directory = Path.of(directoryName);
+        if (archived == null) {
+            archived = Counter.builder("audit.entries.archived")
+                    .description("Audit entries moved from audit_logs to the archive")
+                    .register(meterRegistry);
+        }
+        days.clear();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.delete(file);
+                } else if (name.endsWith(DATA_SUFFIX)) {
+                    LocalDate day = LocalDate.parse(name.substring("audit-".length(),
+                            name.length() - DATA_SUFFIX.length()));
+                    Path index = indexFile(day);
+                    // A missing index means a run stopped between moving the two files into place
+                    days.put(day, Files.exists(index) ? mapper.readValue(index.toFile(), Day.class) : writeIndex(day));
+                }
+            }
+        }
+    }
+
+    public List<Day> getDays() {
+        return List.copyOf(days.values());
+    }
+
+    // Creation time of the newest archived entry, or null if nothing is archived
+    public LocalDateTime newestEntry() {
+        var last = days.lastEntry();
+        return last != null ? last.getValue().newest() : null;
+    }
+
+    /**
+     * Archives every day that ended more than {@code audit.retention.days}
+     * ago and still has entries in {@code audit_logs}. Returns the number of
+     * entries moved.
+     */
+    @Scheduled(cron = "${audit.retention.cron:0 0 3 * * *}")
+    public synchronized int archive() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        int total = 0;
+        LocalDateTime oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM audit_logs WHERE created_at < ?", LocalDateTime.class, cutoff);
+        while (oldest != null) {
+            LocalDate day = oldest.toLocalDate();
+            try {
+                total += archive(day);
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not archive the audit entries of {}", day, e);
+                break;
+            }
+            oldest = jdbcTemplate.queryForObject(
+                    "SELECT MIN(created_at) FROM audit_logs WHERE created_at >= ? AND created_at < ?",
+                    LocalDateTime.class, day.plusDays(1).atStartOfDay(), cutoff);
+        }
+        if (total > 0) {
+            log.info("Archived {} audit entries older than {}", total, cutoff.toLocalDate());
+        }
+        return total;
+    }
+
+    private int archive(LocalDate day) throws IOException {
+        Files.createDirectories(directory);
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = start.plusDays(1);
+        Path data = dataFile(day);
+        Path temporary = data.resolveSibling(data.getFileName() + ".tmp");
+
+        long[] maxId = {0};
+        Set<Long> ids = Files.exists(data) ? new HashSet<>() : null;
+        try (Writer out = writer(temporary)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<AuditLogSummary> rows = auditLogRepository.streamCreatedInRange(start, end)) {
+                    rows.forEach(row -> {
+                        write(out, row);
+                        maxId[0] = Math.max(maxId[0], row.getId());
+                        if (ids != null) {
+                            ids.add(row.getId());
+                        }
+                    });
+                }
+            });
+            if (ids != null) {
+                // Keep what an earlier run archived, unless it is still in the table
+                scan(data, row -> {
+                    if (!ids.contains(row.getId())) {
+                        write(out, row);
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(temporary, data, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Day index = writeIndex(day);
+        days.put(day, index);
+
+        // Only rows that were in the file; later ones wait for the next run
+        int deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update("DELETE FROM audit_logs WHERE created_at >= ? AND created_at < ? " +
+                    "AND id <= ? LIMIT " + deleteBatchSize, start, end, maxId[0]);
+            deleted += batch;
+        } while (batch == deleteBatchSize);
+        archived.increment(deleted);
+        return deleted;
+    }
+
+    // Reads a day's file back to build its index, and writes the index next to it
+    private Day writeIndex(LocalDate day) throws IOException {
+        int[] entries = {0};
+        LocalDateTime[] range = new LocalDateTime[2];
+        Set<String> entityTypes = new TreeSet<>();
+        Set<String> actions = new TreeSet<>();
+        scan(dataFile(day), row -> {
+            entries[0]++;
+            if (range[0] == null || row.getCreatedAt().isBefore(range[0])) {
+                range[0] = row.getCreatedAt();
+            }
+            if (range[1] == null || row.getCreatedAt().isAfter(range[1])) {
+                range[1] = row.getCreatedAt();
+            }
+            entityTypes.add(row.getEntityType());
+            actions.add(row.getAction());
+        });
+        Day index = new Day(day, entries[0], range[0], range[1], entityTypes, actions);
+        Path file = indexFile(day);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        mapper.writeValue(temporary.toFile(), index);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return index;
+    }
+
+    /**
+     * The archived counterpart of {@code AuditLogRepository.findPage}: up to
+     * {@code limit} matching entries, newest first, older than the
+     * {@code (beforeTime, beforeId)} position when one is given.
+     */
+    public List<AuditLogSummary> findPage(Long userId, String action, String entityType, Long entityId,
+                                          LocalDateTime from, LocalDateTime to,
+                                          LocalDateTime beforeTime, Long beforeId, int limit) {
+        Predicate<AuditLogSummary> matches = row -> (userId == null || userId.equals(row.getUserId()))
+                && (action == null || action.equals(row.getAction()))
+                && (entityType == null || entityType.equals(row.getEntityType()))
+                && (entityId == null || entityId.equals(row.getEntityId()))
+                && (from == null || !row.getCreatedAt().isBefore(from))
+                && (to == null || row.getCreatedAt().isBefore(to))
+                && (beforeTime == null || row.getCreatedAt().isBefore(beforeTime)
+                    || row.getCreatedAt().equals(beforeTime) && row.getId() < beforeId);
+
+        List<AuditLogSummary> page = new ArrayList<>();
+        // Days do not overlap, so each day's entries sorted on their own are in order overall
+        for (Day day : days.descendingMap().values()) {
+            if (day.entries() == 0) {
+                continue;
+            }
+            if (page.size() >= limit || from != null && day.newest().isBefore(from)) {
+                break;
+            }
+            boolean newer = to != null && !day.oldest().isBefore(to)
+                    || beforeTime != null && day.oldest().isAfter(beforeTime);
+            if (newer || entityType != null && !day.entityTypes().contains(entityType)
+                    || action != null && !day.actions().contains(action)) {
+                continue;
+            }
+            List<AuditLogSummary> rows = new ArrayList<>();
+            try {
+                scan(dataFile(day.day()), row -> {
+                    if (matches.test(row)) {
+                        rows.add(row);
+                    }
+                });
+            } catch (NoSuchFileException e) {
+                continue;
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read the audit archive of " + day.day());
+            }
+            rows.sort(NEWEST_FIRST);
+            page.addAll(rows.subList(0, Math.min(rows.size(), limit - page.size())));
+        }
+        return page;
+    }
+
+    private void scan(Path file, Consumer<AuditLogSummary> consumer) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    consumer.accept(mapper.readValue(line, AuditLogSummary.class));
+                }
+            }
+        }
+    }
+
+    private static Writer writer(Path file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)),
+                StandardCharsets.UTF_8));
+    }
+
+    private void write(Writer out, AuditLogSummary row) {
+        try {
+            out.write(mapper.writeValueAsString(row));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path dataFile(LocalDate day) {
+        return directory.resolve("audit-" + day + DATA_SUFFIX);
+    }
+
+    private Path indexFile(LocalDate day) {
+        return directory.resolve("audit-" + day + INDEX_SUFFIX);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ElisaInternership.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * An audit entry as captured by {@link AuditService}, waiting to be written
+ * by {@link AuditLogWriter}. The request IP and time are taken when the
+ * action happens, not when the row is inserted.
+ */
+public record AuditEvent(String action, String entityType, Long entityId, Long userId, String description,
+                         String ipAddress, LocalDateTime createdAt) {
+}
@@ -0,0 +1,586 @@
+package com.example.ElisaInternership.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Audit sink that keeps the database off the request path: entries are
+ * appended to memory-mapped segment files in {@code audit.journal.directory}
+ * and copied into {@code audit_logs} later, in bulk.
+ * <p>
+ * A segment is {@code audit.journal.segment-size} bytes: a 32 byte header
+ * (magic, record count, oldest and newest entry time) followed by records
+ * of the form {@code [length][crc32c][body]}, where the body holds the time,
+ * ids and length-prefixed strings of one entry. A zero length marks the end;
+ * a bad checksum marks a write torn by a crash. The open segment is forced to
+ * disk every {@code audit.journal.force-interval-ms} or after
+ * {@code audit.journal.force-records} appends, whichever comes first, so a
+ * crash of the machine loses at most that window. When a record does not fit,
+ * the segment is sealed and a new one started.
+ * <p>
+ * Compaction ({@code audit.journal.compaction-cron}, off-peak by default)
+ * seals the open segment and ships each sealed one in a single transaction,
+ * recorded in {@code audit_journal_segments}, then deletes it. Entries are
+ * only visible to the audit log search once shipped; {@link #read} scans the
+ * journal itself. Entries the journal cannot take fall back to
+ * {@link AuditLogWriter}.
+ */
+@Component
+@ConditionalOnProperty(name = "audit.sink", havingValue = "journal")
+public class AuditJournal implements AuditSink {
+    private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+
+    private static final int MAGIC = 0x41554A31;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_PREFIX = 8;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.(open|sealed)");
+
+    // user_id is looked up so entries of users deleted in the meantime are kept, without the user
+    private static final String INSERT = "INSERT INTO audit_logs (action, entity_type, entity_id, user_id, " +
+            "description, ip_address, created_at) VALUES (?, ?, ?, (SELECT id FROM users WHERE id = ?), ?, ?, ?)";
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.journal.directory:audit-journal}")
+    private String directoryName;
+
+    @Value("${audit.journal.segment-size:16777216}")
+    private int segmentSize;
+
+    @Value("${audit.journal.force-interval-ms:50}")
+    private long forceIntervalMs;
+
+    @Value("${audit.journal.force-records:256}")
+    private int forceRecords;
+
+    @Value("${audit.journal.compaction-batch-size:1000}")
+    private int compactionBatchSize;
+
+    private final Object lock = new Object();
+    private final Object compactionLock = new Object();
+    private final AtomicInteger sealedSegments = new AtomicInteger();
+
+    private Path directory;
+    private TransactionTemplate shipTransaction;
+    private Segment active;
+    private long nextSequence;
+    private int unforced;
+    private Thread forcer;
+    private volatile boolean running;
+
+    private Timer forceTimer;
+    private Counter appended;
+    private Counter shipped;
+    private Counter rejected;
+
+    private static final class Segment {
+        final long sequence;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int position = HEADER_SIZE;
+        int forced;
+        int records;
+        long oldest = Long.MAX_VALUE;
+        long newest = Long.MIN_VALUE;
+
+        Segment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        directory = Path.of(directoryName);
+        Files.createDirectories(directory);
+        // Plain JDBC, which unlike the JPA transaction manager supports the savepoints a refused row needs
+        shipTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        shipTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (forceTimer == null) {
+            registerMetrics();
+        }
+
+        Long lastShipped = jdbcTemplate.queryForObject("SELECT MAX(segment) FROM audit_journal_segments", Long.class);
+        long last = lastShipped != null ? lastShipped : 0;
+        for (var entry : segmentFiles().entrySet()) {
+            last = Math.max(last, entry.getKey());
+            if (entry.getValue().getFileName().toString().endsWith(".open")) {
+                // Left by a crash or an unclean stop; keep the intact records and start a new segment
+                recover(entry.getValue());
+            }
+        }
+        nextSequence = last + 1;
+        sealedSegments.set(segmentFiles().size());
+        active = openSegment(nextSequence++);
+        running = true;
+        forcer = Thread.ofPlatform().name("audit-journal-force").daemon().start(this::run);
+    }
+
+    private void registerMetrics() {
+        Gauge.builder("audit.journal.segments", sealedSegments, AtomicInteger::get)
+                .description("Sealed audit journal segments waiting to be shipped")
+                .register(meterRegistry);
+        forceTimer = Timer.builder("audit.journal.force.duration")
+                .description("Time taken to force the open audit journal segment to disk")
+                .register(meterRegistry);
+        appended = Counter.builder("audit.journal.appended")
+                .description("Audit entries appended to the journal")
+                .register(meterRegistry);
+        shipped = Counter.builder("audit.journal.shipped")
+                .description("Audit entries copied from the journal into audit_logs")
+                .register(meterRegistry);
+        rejected = Counter.builder("audit.entries.dropped").tag("reason", "rejected")
+                .description("Audit entries lost").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        forcer.join(SHUTDOWN_TIMEOUT_MS);
+        synchronized (lock) {
+            if (active.records > 0) {
+                seal(active);
+            } else {
+                active.channel.close();
+                Files.delete(active.path);
+            }
+            active = null;
+        }
+    }
+
+    @Override
+    public void submit(List<AuditEvent> events) {
+        List<AuditEvent> fallback = new ArrayList<>();
+        for (AuditEvent event : events) {
+            byte[] record = encode(event);
+            try {
+                synchronized (lock) {
+                    append(record, epochSecond(event.createdAt()));
+                }
+                appended.increment();
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not append audit entry {} to the journal", event, e);
+                fallback.add(event);
+            }
+        }
+        if (!fallback.isEmpty()) {
+            auditLogWriter.submit(fallback);
+        }
+    }
+
+    private void append(byte[] record, long createdAt) throws IOException {
+        if (record.length > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Audit entry of " + record.length + " bytes exceeds the segment size");
+        }
+        if (!running) {
+            throw new IllegalStateException("Audit journal is stopped");
+        }
+        if (active.position + record.length > segmentSize) {
+            rotate();
+        }
+        Segment segment = active;
+        segment.buffer.put(segment.position, record);
+        segment.position += record.length;
+        segment.records++;
+        segment.oldest = Math.min(segment.oldest, createdAt);
+        segment.newest = Math.max(segment.newest, createdAt);
+        writeHeader(segment);
+        if (++unforced >= forceRecords) {
+            lock.notifyAll();
+        }
+    }
+
+    // Forces everything appended so far to disk
+    @Override
+    public void flush() {
+        force();
+        auditLogWriter.flush();
+    }
+
+    private void run() {
+        while (true) {
+            synchronized (lock) {
+                if (running && unforced < forceRecords) {
+                    try {
+                        lock.wait(forceIntervalMs);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+            }
+            force();
+        }
+    }
+
+    private void force() {
+        Segment segment;
+        int end;
+        synchronized (lock) {
+            segment = active;
+            if (segment == null) {
+                return;
+            }
+            end = segment.position;
+            unforced = 0;
+        }
+        if (end > segment.forced) {
+            forceTimer.record(() -> segment.buffer.force(0, end));
+            synchronized (lock) {
+                segment.forced = Math.max(segment.forced, end);
+            }
+        }
+    }
+
+    private void rotate() throws IOException {
+        Segment next = openSegment(nextSequence++);
+        seal(active);
+        active = next;
+        unforced = 0;
+    }
+
+    private void seal(Segment segment) throws IOException {
+        segment.buffer.force();
+        segment.channel.close();
+        Files.move(segment.path, sealedPath(segment.sequence), StandardCopyOption.ATOMIC_MOVE);
+        sealedSegments.incrementAndGet();
+    }
+
+    private Segment openSegment(long sequence) throws IOException {
+        Path path = directory.resolve(String.format("segment-%016d.open", sequence));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Segment segment = new Segment(sequence, path, channel,
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        writeHeader(segment);
+        return segment;
+    }
+
+    private void recover(Path path) throws IOException {
+        Matcher name = SEGMENT_NAME.matcher(path.getFileName().toString());
+        if (!name.matches()) {
+            return;
+        }
+        long sequence = Long.parseLong(name.group(1));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Segment segment = new Segment(sequence, path, channel,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+            segment.position = scan(segment.buffer, (int) channel.size(), event -> {
+                long createdAt = epochSecond(event.createdAt());
+                segment.records++;
+                segment.oldest = Math.min(segment.oldest, createdAt);
+                segment.newest = Math.max(segment.newest, createdAt);
+            });
+            writeHeader(segment);
+            segment.buffer.force();
+            log.info("Recovered {} audit entries from journal segment {}", segment.records, path);
+        }
+        Files.move(path, sealedPath(sequence), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeHeader(Segment segment) {
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, segment.records);
+        segment.buffer.putLong(8, segment.oldest);
+        segment.buffer.putLong(16, segment.newest);
+    }
+
+    /**
+     * Entries created in {@code [from, to)} that are still in the journal,
+     * in the order they were appended, up to {@code limit} of them.
+     */
+    public List<AuditEvent> read(LocalDateTime from, LocalDateTime to, int limit) {
+        List<AuditEvent> events = new ArrayList<>();
+        long fromSecond = epochSecond(from);
+        long toSecond = epochSecond(to);
+        Consumer<AuditEvent> collect = event -> {
+            if (events.size() < limit && !event.createdAt().isBefore(from) && event.createdAt().isBefore(to)) {
+                events.add(event);
+            }
+        };
+        for (Path path : segmentFiles().values()) {
+            if (events.size() >= limit) {
+                return events;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (overlaps(buffer, fromSecond, toSecond)) {
+                    scan(buffer, (int) channel.size(), collect);
+                }
+            } catch (NoSuchFileException e) {
+                // Shipped and deleted meanwhile
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read audit journal segment " + path.getFileName());
+            }
+        }
+
+        // The open segment is read up to what had been appended when the read started
+        ByteBuffer buffer;
+        int end;
+        synchronized (lock) {
+            if (active == null) {
+                return events;
+            }
+            buffer = active.buffer.duplicate();
+            end = active.position;
+        }
+        if (events.size() < limit && overlaps(buffer, fromSecond, toSecond)) {
+            scan(buffer, end, collect);
+        }
+        return events;
+    }
+
+    private static boolean overlaps(ByteBuffer segment, long fromSecond, long toSecond) {
+        return segment.getInt(0) == MAGIC && segment.getInt(4) > 0
+                && segment.getLong(8) <= toSecond && segment.getLong(16) >= fromSecond;
+    }
+
+    /**
+     * Copies every entry in the journal into {@code audit_logs}: the open
+     * segment is sealed, then each sealed segment is shipped in one
+     * transaction and deleted. Returns the number of entries shipped.
+     */
+    @Scheduled(cron = "${audit.journal.compaction-cron:0 30 2 * * *}")
+    public int compact() {
+        synchronized (compactionLock) {
+            synchronized (lock) {
+                if (running && active.records > 0) {
+                    try {
+                        rotate();
+                    } catch (IOException e) {
+                        log.error("Could not seal audit journal segment {}", active.path, e);
+                    }
+                }
+            }
+            int total = 0;
+            for (var entry : segmentFiles().entrySet()) {
+                try {
+                    total += ship(entry.getKey(), entry.getValue());
+                } catch (RuntimeException | IOException e) {
+                    log.error("Could not ship audit journal segment {}", entry.getValue(), e);
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.info("Shipped {} audit entries from the journal", total);
+            }
+            return total;
+        }
+    }
+
+    private int ship(long sequence, Path path) throws IOException {
+        List<AuditEvent> events = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), (int) channel.size(), events::add);
+        }
+        Integer inserted = shipTransaction.execute(status -> {
+            Integer done = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM audit_journal_segments WHERE segment = ?", Integer.class, sequence);
+            if (done != null && done > 0) {
+                // Shipped by an earlier run that stopped before deleting the file
+                return 0;
+            }
+            int refused = 0;
+            for (int from = 0; from < events.size(); from += compactionBatchSize) {
+                refused += insert(status, events.subList(from, Math.min(from + compactionBatchSize, events.size())));
+            }
+            jdbcTemplate.update("INSERT INTO audit_journal_segments (segment, entries, shipped_at) VALUES (?, ?, ?)",
+                    sequence, events.size() - refused, LocalDateTime.now());
+            rejected.increment(refused);
+            return events.size() - refused;
+        });
+        Files.delete(path);
+        sealedSegments.decrementAndGet();
+        shipped.increment(inserted);
+        return inserted;
+    }
+
+    // One batch; if the database refuses it, row by row. Returns the number of rows refused.
+    private int insert(TransactionStatus status, List<AuditEvent> batch) {
+        Object savepoint = status.createSavepoint();
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, event) -> {
+                statement.setString(1, event.action());
+                statement.setString(2, event.entityType());
+                statement.setObject(3, event.entityId());
+                statement.setObject(4, event.userId());
+                statement.setString(5, event.description());
+                statement.setString(6, event.ipAddress());
+                statement.setObject(7, event.createdAt());
+            });
+            status.releaseSavepoint(savepoint);
+            return 0;
+        } catch (DataAccessException e) {
+            status.rollbackToSavepoint(savepoint);
+            if (batch.size() == 1) {
+                log.warn("Journalled audit entry {} was refused: {}", batch.get(0), e.getMessage());
+                return 1;
+            }
+        }
+        int refused = 0;
+        for (AuditEvent event : batch) {
+            refused += insert(status, List.of(event));
+        }
+        return refused;
+    }
+
+    // Sealed (and crashed open) segments by sequence; the active segment is not listed
+    private TreeMap<Long, Path> segmentFiles() {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                Matcher name = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (name.matches() && (name.group(2).equals("sealed") || active == null)) {
+                    segments.put(Long.parseLong(name.group(1)), path);
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list audit journal " + directory);
+        }
+        return segments;
+    }
+
+    private Path sealedPath(long sequence) {
+        return directory.resolve(String.format("segment-%016d.sealed", sequence));
+    }
+
+    // Calls the consumer for each intact record from the header up to end; returns where they stop
+    private static int scan(ByteBuffer segment, int end, Consumer<AuditEvent> consumer) {
+        if (end < HEADER_SIZE || segment.getInt(0) != MAGIC) {
+            return HEADER_SIZE;
+        }
+        int position = HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        while (position + RECORD_PREFIX <= end) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + RECORD_PREFIX + length > end) {
+                break;
+            }
+            crc.reset();
+            crc.update(segment.slice(position + RECORD_PREFIX, length));
+            if ((int) crc.getValue() != segment.getInt(position + 4)) {
+                break;
+            }
+            consumer.accept(decode(segment.slice(position + RECORD_PREFIX, length)));
+            position += RECORD_PREFIX + length;
+        }
+        return position;
+    }
+
+    private static byte[] encode(AuditEvent event) {
+        byte[][] strings = {utf8(event.action()), utf8(event.entityType()), utf8(event.description()),
+                utf8(event.ipAddress())};
+        int length = Long.BYTES + Integer.BYTES + 2 * Long.BYTES + 1;
+        for (byte[] string : strings) {
+            length += Integer.BYTES + (string != null ? string.length : 0);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_PREFIX + length);
+        record.putInt(length).putInt(0);
+        record.putLong(epochSecond(event.createdAt())).putInt(event.createdAt().getNano());
+        record.putLong(event.entityId() != null ? event.entityId() : 0);
+        record.putLong(event.userId() != null ? event.userId() : 0);
+        record.put((byte) ((event.entityId() != null ? 1 : 0) | (event.userId() != null ? 2 : 0)));
+        for (byte[] string : strings) {
+            record.putInt(string != null ? string.length : -1);
+            if (string != null) {
+                record.put(string);
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), RECORD_PREFIX, length);
+        record.putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    private static AuditEvent decode(ByteBuffer body) {
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(body.getLong(), body.getInt(), ZoneOffset.UTC);
+        long entityId = body.getLong();
+        long userId = body.getLong();
+        byte present = body.get();
+        String action = string(body);
+        String entityType = string(body);
+        String description = string(body);
+        String ipAddress = string(body);
+        return new AuditEvent(action, entityType, (present & 1) != 0 ? entityId : null,
+                (present & 2) != 0 ? userId : null, description, ipAddress, createdAt);
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String string(ByteBuffer body) {
+        int length = body.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.ElisaInternership.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inserts audit entries in the background. Entries wait in a bounded queue
+ * ({@code audit.writer.queue-capacity}) and one writer thread inserts them
+ * as a single JDBC batch once {@code audit.writer.batch-size} are waiting or
+ * {@code audit.writer.flush-interval-ms} after the first one arrived. When
+ * the queue is full, {@code audit.writer.overflow-policy} decides: BLOCK
+ * waits up to {@code audit.writer.block-timeout-ms} and then drops, DROP
+ * drops straight away and SPILL appends the entry to
+ * {@code audit.writer.spill-file}. Rows the database refuses are spilled as
+ * well; the spill file is loaded back once the application has started.
+ * The queue is drained on shutdown.
+ */
+@Component
+public class AuditLogWriter implements AuditSink {
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT = "INSERT INTO audit_logs (action, entity_type, entity_id, user_id, " +
+            "description, ip_address, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    public enum OverflowPolicy {
+        BLOCK, DROP, SPILL
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${audit.writer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.writer.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${audit.writer.block-timeout-ms:1000}")
+    private long blockTimeoutMs;
+
+    @Value("${audit.writer.spill-file:audit-spill.ndjson}")
+    private String spillFileName;
+
+    private final ObjectMapper spillMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final Object spillLock = new Object();
+
+    // Entries queued or taken by a writer but not yet inserted, spilled or dropped
+    private final AtomicLong pending = new AtomicLong();
+
+    private BlockingQueue<AuditEvent> queue;
+    private Path spillFile;
+    private TransactionTemplate writeTransaction;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    private Timer flushTimer;
+    private Counter written;
+    private Counter spilled;
+    private Counter droppedOverflow;
+    private Counter droppedRejected;
+    private Counter droppedUnspillable;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        spillFile = Path.of(spillFileName);
+        // Never join the caller's transaction, so a flush cannot be rolled back with it
+        writeTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        registerMetrics();
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::run);
+    }
+
+    private void registerMetrics() {
+        Gauge.builder("audit.queue.depth", this, AuditLogWriter::queueDepth)
+                .description("Audit entries waiting to be written")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("audit.flush.duration")
+                .description("Time taken to insert one batch of audit entries")
+                .register(meterRegistry);
+        written = Counter.builder("audit.entries.written")
+                .description("Audit entries inserted")
+                .register(meterRegistry);
+        spilled = Counter.builder("audit.entries.spilled")
+                .description("Audit entries appended to the spill file")
+                .register(meterRegistry);
+        droppedOverflow = dropped("overflow");
+        droppedRejected = dropped("rejected");
+        droppedUnspillable = dropped("spill-failed");
+    }
+
+    private Counter dropped(String reason) {
+        return Counter.builder("audit.entries.dropped").tag("reason", reason)
+                .description("Audit entries lost").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(SHUTDOWN_TIMEOUT_MS);
+        flush();
+    }
+
+    @Override
+    public void submit(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            pending.incrementAndGet();
+            if (!queue.offer(event) && !overflow(event)) {
+                pending.decrementAndGet();
+            }
+        }
+        if (!running) {
+            // Late entries after shutdown has drained the queue
+            flush();
+        }
+    }
+
+    // True if the entry made it into the queue after all
+    private boolean overflow(AuditEvent event) {
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    if (queue.offer(event, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                droppedOverflow.increment();
+            }
+            case DROP -> droppedOverflow.increment();
+            case SPILL -> spill(List.of(event));
+        }
+        return false;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Writes every entry submitted so far before returning, including a
+     * batch the writer thread is in the middle of.
+     */
+    @Override
+    public void flush() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MS);
+        while (pending.get() > 0 && deadline - System.nanoTime() > 0) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<AuditEvent> batch = new ArrayList<>(batchSize);
+            try {
+                AuditEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0 || !running) {
+                        break;
+                    }
+                    AuditEvent next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            List<AuditEvent> refused = flushTimer.record(() -> insert(batch));
+            written.increment(batch.size() - refused.size());
+            if (!refused.isEmpty()) {
+                spill(refused);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not write {} audit entries", batch.size(), e);
+            spill(batch);
+        } finally {
+            pending.addAndGet(-batch.size());
+        }
+    }
+
+    // One batch in its own transaction; if the database refuses it, row by row. Returns the rows refused.
+    private List<AuditEvent> insert(List<AuditEvent> batch) {
+        try {
+            writeTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, batch, batch.size(),
+                    (statement, event) -> {
+                        statement.setString(1, event.action());
+                        statement.setString(2, event.entityType());
+                        statement.setObject(3, event.entityId());
+                        statement.setObject(4, event.userId());
+                        statement.setString(5, event.description());
+                        statement.setString(6, event.ipAddress());
+                        statement.setObject(7, event.createdAt());
+                    }));
+            return List.of();
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                log.warn("Audit entry {} was refused: {}", batch.get(0), e.getMessage());
+                return batch;
+            }
+        }
+        List<AuditEvent> refused = new ArrayList<>();
+        for (AuditEvent event : batch) {
+            refused.addAll(insert(List.of(event)));
+        }
+        return refused;
+    }
+
+    private void spill(List<AuditEvent> events) {
+        synchronized (spillLock) {
+            try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AuditEvent event : events) {
+                    out.write(spillMapper.writeValueAsString(event));
+                    out.write('\n');
+                }
+                spilled.increment(events.size());
+            } catch (IOException e) {
+                log.error("Could not spill {} audit entries to {}", events.size(), spillFile, e);
+                droppedUnspillable.increment(events.size());
+            }
+        }
+    }
+
+    /**
+     * Loads a spill file left by an earlier run. Rows refused again are
+     * dropped, so a bad row cannot come back on every start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replaySpillFile() {
+        Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+        List<AuditEvent> events = new ArrayList<>();
+        synchronized (spillLock) {
+            if (!Files.exists(spillFile)) {
+                return;
+            }
+            try {
+                Files.move(spillFile, replaying, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                log.error("Could not replay audit spill file {}", spillFile, e);
+                return;
+            }
+        }
+        try (BufferedReader in = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    events.add(spillMapper.readValue(line, AuditEvent.class));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not read audit spill file {}", replaying, e);
+            return;
+        }
+
+        int refused = 0;
+        for (int from = 0; from < events.size(); from += batchSize) {
+            List<AuditEvent> batch = events.subList(from, Math.min(from + batchSize, events.size()));
+            int batchRefused = insert(batch).size();
+            written.increment(batch.size() - batchRefused);
+            refused += batchRefused;
+        }
+        droppedRejected.increment(refused);
+        log.info("Replayed {} spilled audit entries ({} refused)", events.size(), refused);
+        try {
+            Files.delete(replaying);
+        } catch (IOException e) {
+            log.error("Could not delete replayed audit spill file {}", replaying, e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.ElisaInternership.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How much of each action {@link AuditService} writes, from
+ * {@code audit.policies}: a comma-separated list of {@code ACTION=FULL},
+ * {@code ACTION=SAMPLED:N} (every Nth entry is written) or
+ * {@code ACTION=AGGREGATED}. Aggregated entries are only counted, per
+ * action, entity type, user and hour, and written as one summary entry per
+ * counter once its hour is over. Unlisted actions are written in full.
+ */
+class AuditPolicies {
+    enum Policy {
+        FULL, SAMPLED, AGGREGATED
+    }
+
+    // Late entries are still counted in the hour they happened in until this long after it ends
+    static final Duration GRACE = Duration.ofMinutes(1);
+
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private record Rule(Policy policy, int every) {
+    }
+
+    private record Window(String action, String entityType, Long userId, LocalDateTime start) {
+    }
+
+    private final Map<String, Rule> rules;
+    private final Map<String, AtomicLong> seen = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Window, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Counter sampledOut;
+    private final Counter aggregated;
+
+    AuditPolicies(String policies, MeterRegistry meterRegistry) {
+        rules = parse(policies);
+        sampledOut = summarised(meterRegistry, "sampled");
+        aggregated = summarised(meterRegistry, "aggregated");
+    }
+
+    private static Counter summarised(MeterRegistry meterRegistry, String policy) {
+        return Counter.builder("audit.entries.summarised").tag("policy", policy)
+                .description("Audit entries not written one by one because of their action's policy")
+                .register(meterRegistry);
+    }
+
+    private static Map<String, Rule> parse(String policies) {
+        Map<String, Rule> rules = new HashMap<>();
+        for (String entry : policies.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid audit policy '" + entry + "' (use ACTION=POLICY)");
+            }
+            String[] policy = parts[1].trim().split(":", 2);
+            Policy type = Policy.valueOf(policy[0].trim().toUpperCase(Locale.ROOT));
+            int every = 1;
+            if (type == Policy.SAMPLED) {
+                every = policy.length == 2 ? Integer.parseInt(policy[1].trim()) : 0;
+                if (every < 1) {
+                    throw new IllegalArgumentException("Sampled audit policy needs a rate, e.g. SAMPLED:10");
+                }
+            }
+            rules.put(parts[0].trim(), new Rule(type, every));
+        }
+        return rules;
+    }
+
+    // The entries to write now; the rest are counted or left out
+    List<AuditEvent> admit(List<AuditEvent> events) {
+        List<AuditEvent> admitted = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            Rule rule = rules.get(event.action());
+            if (rule == null || rule.policy() == Policy.FULL) {
+                admitted.add(event);
+            } else if (rule.policy() == Policy.SAMPLED) {
+                if (seen.computeIfAbsent(event.action(), action -> new AtomicLong())
+                        .getAndIncrement() % rule.every() == 0) {
+                    admitted.add(new AuditEvent(event.action(), event.entityType(), event.entityId(),
+                            event.userId(), sampled(event.description(), rule.every()),
+                            event.ipAddress(), event.createdAt()));
+                } else {
+                    sampledOut.increment();
+                }
+            } else {
+                Window window = new Window(event.action(), event.entityType(), event.userId(),
+                        event.createdAt().truncatedTo(ChronoUnit.HOURS));
+                counters.computeIfAbsent(window, key -> new LongAdder()).increment();
+                aggregated.increment();
+            }
+        }
+        return admitted;
+    }
+
+    private static String sampled(String description, int every) {
+        String note = "(1 in " + every + " sampled)";
+        return description != null ? description + " " + note : note;
+    }
+
+    /**
+     * Summary entries for the counters of hours that ended before
+     * {@code now} (less {@link #GRACE}); with {@code all}, for the current
+     * hour too, whose counter then starts again from zero.
+     */
+    synchronized List<AuditEvent> drain(LocalDateTime now, boolean all) {
+        List<AuditEvent> summaries = new ArrayList<>();
+        for (Map.Entry<Window, LongAdder> entry : counters.entrySet()) {
+            Window window = entry.getKey();
+            boolean over = !window.start().plusHours(1).plus(GRACE).isAfter(now);
+            long count;
+            if (over) {
+                counters.remove(window);
+                count = entry.getValue().sum();
+            } else if (all) {
+                count = entry.getValue().sumThenReset();
+            } else {
+                continue;
+            }
+            if (count > 0) {
+                summaries.add(new AuditEvent(window.action(), window.entityType(), null, window.userId(),
+                        count + " x " + window.action() + " from " + window.start().format(HOUR) + " to "
+                                + window.start().plusHours(1).format(HOUR) + " (aggregated)",
+                        null, window.start()));
+            }
+        }
+        return summaries;
+    }
+}
@@ -1,43 +1,214 @@
 package com.example.ElisaInternership.service;
 
+import com.example.ElisaInternership.dto.AuditLogFilter;
+import com.example.ElisaInternership.dto.AuditLogSummary;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.dto.PageCursor;
 import com.example.ElisaInternership.model.AuditLog;
 import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.repository.AuditLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Captures audit entries, with the request IP and time, and hands them to
+ * the {@link AuditSink} once the caller's transaction commits: the
+ * {@link AuditLogWriter} by default, or the {@link AuditJournal} when
+ * {@code audit.sink=journal}. A rolled back change leaves no entry, and the
+ * business transaction no longer pays for the insert. High-volume actions
+ * can be sampled or aggregated instead of written one by one, see
+ * {@link AuditPolicies}.
+ */
 @Service
 public class AuditService {
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private ObjectProvider<AuditJournal> auditJournal;
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AuditArchive auditArchive;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.policies:}")
+    private String policies;
+
+    private AuditSink sink;
+    private AuditPolicies auditPolicies;
+
+    @PostConstruct
+    void init() {
+        AuditJournal journal = auditJournal.getIfAvailable();
+        sink = journal != null ? journal : auditLogWriter;
+        auditPolicies = new AuditPolicies(policies, meterRegistry);
+    }
+
+    // Counts of aggregated actions are written before the sink shuts down
+    @PreDestroy
+    void stop() {
+        write(auditPolicies.drain(LocalDateTime.now(), true));
+    }
+
     public void logAction(String action, String entityType, Long entityId, User user, String description) {
+        submit(List.of(new AuditEvent(action, entityType, entityId, user != null ? user.getId() : null, description,
+                currentIpAddress(), LocalDateTime.now())));
+    }
+
+    public void logActions(List<AuditLog> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return;
+        }
+        String ipAddress = currentIpAddress();
+        LocalDateTime now = LocalDateTime.now();
+        submit(auditLogs.stream()
+                .map(auditLog -> new AuditEvent(auditLog.getAction(), auditLog.getEntityType(),
+                        auditLog.getEntityId(), auditLog.getUser() != null ? auditLog.getUser().getId() : null,
+                        auditLog.getDescription(), ipAddress, now))
+                .toList());
+    }
+
+    // Waits until every entry captured so far is in audit_logs, or on disk in the journal
+    public void flush() {
+        write(auditPolicies.drain(LocalDateTime.now(), true));
+        sink.flush();
+    }
+
+    // Writes the summaries of aggregated actions whose hour is over
+    @Scheduled(fixedDelayString = "${audit.aggregate.flush-interval-ms:60000}")
+    public void flushAggregates() {
+        write(auditPolicies.drain(LocalDateTime.now(), false));
+    }
+
+    // Entries created in [from, to) that the journal has not shipped to audit_logs yet
+    public List<AuditEvent> readJournal(LocalDateTime from, LocalDateTime to, Integer limit) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("Search range must end after it starts");
+        }
+        return journal().read(from, to, CursorPage.size(limit));
+    }
+
+    public int compactJournal() {
+        return journal().compact();
+    }
+
+    private AuditJournal journal() {
+        AuditJournal journal = auditJournal.getIfAvailable();
+        if (journal == null) {
+            throw new RuntimeException("Audit journal is not enabled");
+        }
+        return journal;
+    }
+
+    // Newest entries first, carrying on into archived days; every filter is optional
+    @Transactional(readOnly = true)
+    public CursorPage<AuditLogSummary> searchAuditLogs(AuditLogFilter filter, String cursor, Integer limit) {
+        int size = CursorPage.size(limit);
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new RuntimeException("Search range must end after it starts");
+        }
+        PageCursor before = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor) : null;
+        String action = blankToNull(filter.getAction());
+        String entityType = blankToNull(filter.getEntityType());
+        LocalDateTime beforeTime = before != null ? before.getTime() : null;
+        Long beforeId = before != null ? before.getId() : null;
+        List<AuditLogSummary> entries = auditLogRepository.findPage(filter.getUserId(), action, entityType,
+                filter.getEntityId(), filter.getFrom(), filter.getTo(), beforeTime, beforeId, Limit.of(size + 1));
+
+        // The archive only matters once the page reaches back to its newest entry
+        LocalDateTime newestArchived = auditArchive.newestEntry();
+        if (newestArchived != null
+                && (entries.size() <= size || !entries.get(size).getCreatedAt().isAfter(newestArchived))) {
+            List<AuditLogSummary> archived = auditArchive.findPage(filter.getUserId(), action, entityType,
+                    filter.getEntityId(), filter.getFrom(), filter.getTo(), beforeTime, beforeId, size + 1);
+            entries = merge(entries, archived, size + 1);
+        }
+        return CursorPage.of(entries, size, last -> new PageCursor(last.getCreatedAt(), last.getId()));
+    }
+
+    // A day being archived is briefly in both places, so entries are matched by id
+    private static List<AuditLogSummary> merge(List<AuditLogSummary> entries, List<AuditLogSummary> archived,
+                                               int limit) {
+        Map<Long, AuditLogSummary> byId = new HashMap<>();
+        entries.forEach(entry -> byId.put(entry.getId(), entry));
+        archived.forEach(entry -> byId.putIfAbsent(entry.getId(), entry));
+        return byId.values().stream().sorted(AuditArchive.NEWEST_FIRST).limit(limit).toList();
+    }
+
+    public List<AuditArchive.Day> getArchivedDays() {
+        return auditArchive.getDays();
+    }
+
+    public int archiveAuditLogs() {
+        return auditArchive.archive();
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+
+    public static AuditLog entry(String action, String entityType, Long entityId, User user, String description) {
         AuditLog auditLog = new AuditLog();
         auditLog.setAction(action);
         auditLog.setEntityType(entityType);
         auditLog.setEntityId(entityId);
         auditLog.setUser(user);
         auditLog.setDescription(description);
+        return auditLog;
+    }
+
+    private void submit(List<AuditEvent> events) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(auditPolicies.admit(events));
+                }
+            });
+        } else {
+            write(auditPolicies.admit(events));
+        }
+    }
+
+    private void write(List<AuditEvent> events) {
+        if (!events.isEmpty()) {
+            sink.submit(events);
+        }
+    }
 
+    private String currentIpAddress() {
         try {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (attributes != null) {
                 HttpServletRequest request = attributes.getRequest();
-                auditLog.setIpAddress(request.getRemoteAddr());
+                return request.getRemoteAddr();
             }
         } catch (Exception e) {
             // Ignore if unable to get IP
         }
-
-        auditLogRepository.save(auditLog);
+        return null;
     }
 }
-
-
-
-
-
-
@@ -0,0 +1,15 @@
+package com.example.ElisaInternership.service;
+
+import java.util.List;
+
+/**
+ * Where {@link AuditService} sends committed audit entries: the database
+ * ({@link AuditLogWriter}) or the file journal ({@link AuditJournal}),
+ * chosen by {@code audit.sink}.
+ */
+public interface AuditSink {
+    void submit(List<AuditEvent> events);
+
+    // Returns once every entry submitted so far is durable
+    void flush();
+}
@@ -8,10 +8,11 @@ import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.repository.LabRepository;
 import com.example.ElisaInternership.repository.UserRepository;
 import com.example.ElisaInternership.security.JwtUtil;
+import com.example.ElisaInternership.security.TokensRevoked;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,7 +36,7 @@ public class AuthService {
     private AuthenticationManager authenticationManager;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
     private AuditService auditService;
@@ -68,8 +69,7 @@ public class AuthService {
         user = userRepository.save(user);
         auditService.logAction("USER_CREATED", "User", user.getId(), user, "New user registered");
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
-        String token = jwtUtil.generateToken(userDetails, user.getRole().name());
+        String token = jwtUtil.generateToken(user);
 
         return new AuthResponse(token, user.getId(), user.getUsername(), user.getEmail(),
                 user.getFirstName(), user.getLastName(), user.getRole().name());
@@ -84,7 +84,6 @@ public class AuthService {
             throw new RuntimeException("Invalid username or password");
         }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -92,12 +91,21 @@ public class AuthService {
             throw new RuntimeException("Account is deactivated");
         }
 
-        String token = jwtUtil.generateToken(userDetails, user.getRole().name());
+        String token = jwtUtil.generateToken(user);
         auditService.logAction("USER_LOGIN", "User", user.getId(), user, "User logged in");
 
         return new AuthResponse(token, user.getId(), user.getUsername(), user.getEmail(),
                 user.getFirstName(), user.getLastName(), user.getRole().name());
     }
+
+    // Revokes every token issued to the user so far, not only the one used for the request
+    public void logout(User currentUser) {
+        userRepository.incrementTokenVersion(currentUser.getId());
+        long version = userRepository.findTokenVersionById(currentUser.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        eventPublisher.publishEvent(new TokensRevoked(currentUser.getId(), version));
+        auditService.logAction("USER_LOGOUT", "User", currentUser.getId(), currentUser, "User logged out");
+    }
 }
 
 
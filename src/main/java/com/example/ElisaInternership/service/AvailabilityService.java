@@ -0,0 +1,199 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.BookingInterval;
+import com.example.ElisaInternership.dto.LabSummary;
+import com.example.ElisaInternership.dto.TimeSlot;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+public class AvailabilityService {
+    private static final int MAX_RANGE_DAYS = 31;
+    private static final int MAX_SEARCH_DAYS = 7;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private LabSlotBitmap labSlotBitmap;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Value("${booking.opening-hours.start:08:00}")
+    private String openingTime;
+
+    @Value("${booking.opening-hours.end:20:00}")
+    private String closingTime;
+
+    @Value("${booking.slot-minutes:30}")
+    private int defaultSlotMinutes;
+
+    /**
+     * Free intervals of a lab within {@code [start, end)}, clipped to opening
+     * hours and aligned to the slot grid. Adjacent free slots are returned as
+     * one interval.
+     */
+    public List<TimeSlot> getFreeSlots(Long labId, LocalDateTime start, LocalDateTime end, Integer slotMinutes) {
+        int slot = slotMinutes != null ? slotMinutes : defaultSlotMinutes;
+        if (slot < 5 || slot > 240) {
+            throw new RuntimeException("Slot length must be between 5 and 240 minutes");
+        }
+        if (!start.isBefore(end)) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+        if (Duration.between(start, end).toDays() > MAX_RANGE_DAYS) {
+            throw new RuntimeException("Range cannot be longer than " + MAX_RANGE_DAYS + " days");
+        }
+        if (!labRepository.existsById(labId)) {
+            throw new RuntimeException("Lab not found");
+        }
+
+        LocalTime open = LocalTime.parse(openingTime);
+        LocalTime close = LocalTime.parse(closingTime);
+
+        // Includes bookings that start before the window but run into it
+        List<TimeSlot> busy = merge(bookingRepository.findApprovedIntervalsInRange(labId, start, end));
+
+        List<TimeSlot> free = new ArrayList<>();
+        int next = 0;
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(end.toLocalDate()); day = day.plusDays(1)) {
+            LocalDateTime windowStart = max(start, day.atTime(open));
+            LocalDateTime windowEnd = min(end, day.atTime(close));
+            if (!windowStart.isBefore(windowEnd)) {
+                continue;
+            }
+
+            while (next < busy.size() && !busy.get(next).getEnd().isAfter(windowStart)) {
+                next++;
+            }
+            LocalDateTime cursor = windowStart;
+            for (int i = next; i < busy.size() && busy.get(i).getStart().isBefore(windowEnd); i++) {
+                addAligned(free, cursor, busy.get(i).getStart(), slot);
+                cursor = max(cursor, busy.get(i).getEnd());
+            }
+            addAligned(free, cursor, windowEnd, slot);
+        }
+        return free;
+    }
+
+    /**
+     * Active labs of the given type (any type when null) with at least
+     * {@code minCapacity} seats that are free for the whole window, smallest
+     * sufficient lab first. The {@value LabSlotBitmap#SLOT_MINUTES}-minute
+     * slot bitsets only rule labs in: a slot is busy when any booking touches
+     * it, so a lab whose slots clash is checked again against the exact
+     * intervals before it is left out.
+     */
+    public List<LabSummary> findAvailableLabs(Lab.LabType type, Integer minCapacity,
+                                              LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+        if (Duration.between(start, end).toDays() >= MAX_SEARCH_DAYS) {
+            throw new RuntimeException("Search window must be shorter than " + MAX_SEARCH_DAYS + " days");
+        }
+
+        // The requested window as one slot mask per day it touches
+        List<LocalDate> days = new ArrayList<>();
+        List<BitSet> masks = new ArrayList<>();
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            LocalDateTime from = max(start, day.atStartOfDay());
+            LocalDateTime to = min(end, day.plusDays(1).atStartOfDay());
+            long fromMinute = Duration.between(day.atStartOfDay(), from).toMinutes();
+            long toMinute = (Duration.between(day.atStartOfDay(), to).getSeconds() + 59) / 60;
+            BitSet mask = new BitSet(LabSlotBitmap.SLOTS_PER_DAY);
+            mask.set((int) (fromMinute / LabSlotBitmap.SLOT_MINUTES),
+                    (int) ((toMinute + LabSlotBitmap.SLOT_MINUTES - 1) / LabSlotBitmap.SLOT_MINUTES));
+            days.add(day);
+            masks.add(mask);
+        }
+
+        int capacity = minCapacity != null ? minCapacity : 1;
+        List<Lab> candidates = new ArrayList<>();
+        for (Lab lab : labRepository.findByActiveTrue()) {
+            if ((type == null || lab.getType() == type) && lab.getCapacity() != null
+                    && lab.getCapacity() >= capacity && isFree(lab.getId(), days, masks, start, end)) {
+                candidates.add(lab);
+            }
+        }
+
+        // Best fit: the fewest spare seats first
+        candidates.sort(Comparator.comparing(Lab::getCapacity).thenComparing(Lab::getName));
+        return candidates.stream()
+                .map(lab -> new LabSummary(lab.getId(), lab.getName(), lab.getLocation(), lab.getCapacity(),
+                        lab.getType(), lab.getActive()))
+                .toList();
+    }
+
+    private boolean isFree(Long labId, List<LocalDate> days, List<BitSet> masks,
+                           LocalDateTime start, LocalDateTime end) {
+        for (int i = 0; i < days.size(); i++) {
+            BitSet occupied = labSlotBitmap.occupiedSlots(labId, days.get(i));
+            // Index still loading, or a clash that may only be a partly covered edge slot
+            if (occupied == null || occupied.intersects(masks.get(i))) {
+                return !bookingIntervalIndex.hasOverlap(labId, start, end, null);
+            }
+        }
+        return true;
+    }
+
+    // Sorted, possibly overlapping bookings -> disjoint busy intervals in one pass
+    private List<TimeSlot> merge(List<BookingInterval> bookings) {
+        List<TimeSlot> merged = new ArrayList<>();
+        for (BookingInterval booking : bookings) {
+            TimeSlot last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && !booking.getStartTime().isAfter(last.getEnd())) {
+                last.setEnd(max(last.getEnd(), booking.getEndTime()));
+            } else {
+                merged.add(new TimeSlot(booking.getStartTime(), booking.getEndTime()));
+            }
+        }
+        return merged;
+    }
+
+    private void addAligned(List<TimeSlot> free, LocalDateTime from, LocalDateTime to, int slotMinutes) {
+        LocalDateTime alignedFrom = align(from, slotMinutes, true);
+        LocalDateTime alignedTo = align(to, slotMinutes, false);
+        if (Duration.between(alignedFrom, alignedTo).toMinutes() >= slotMinutes) {
+            free.add(new TimeSlot(alignedFrom, alignedTo));
+        }
+    }
+
+    // Slot boundaries are counted from midnight of the same day
+    private LocalDateTime align(LocalDateTime time, int slotMinutes, boolean up) {
+        LocalDateTime midnight = time.toLocalDate().atStartOfDay();
+        long seconds = Duration.between(midnight, time).getSeconds();
+        long slotSeconds = slotMinutes * 60L;
+        long aligned = up
+                ? (seconds + (time.getNano() > 0 ? 1 : 0) + slotSeconds - 1) / slotSeconds * slotSeconds
+                : seconds / slotSeconds * slotSeconds;
+        return midnight.plusSeconds(aligned);
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
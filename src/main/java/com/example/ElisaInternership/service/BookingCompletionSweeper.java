@@ -0,0 +1,158 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.model.Booking;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically moves APPROVED bookings whose end time has passed to
+ * COMPLETED. Rows are updated in place in chunks of
+ * {@code booking.completion.batch-size}, each chunk committing on its own so
+ * a large backlog never holds row locks for long. A chunk takes the lab locks
+ * of the bookings it is about to complete, like any booking write, and its
+ * rows are locked and read first so the usage rollup can be moved along in the
+ * same transaction.
+ */
+@Component
+public class BookingCompletionSweeper {
+    private static final Logger log = LoggerFactory.getLogger(BookingCompletionSweeper.class);
+
+    private static final String SELECT_ENDED_LABS =
+            "SELECT DISTINCT lab_id FROM (SELECT lab_id FROM bookings " +
+            "WHERE status = 'APPROVED' AND end_time < ? ORDER BY end_time LIMIT ?) ended";
+
+    private static final String SELECT_ENDED =
+            "SELECT id, lab_id, start_time, end_time FROM bookings " +
+            "WHERE status = 'APPROVED' AND end_time < ? ORDER BY end_time LIMIT ? FOR UPDATE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private LabUsageRollup labUsageRollup;
+
+    @Autowired
+    private LabLockStripes labLockStripes;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${booking.completion.batch-size:500}")
+    private int batchSize;
+
+    private Timer sweepTimer;
+    private Counter completedCounter;
+    private final AtomicLong lastCompleted = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        sweepTimer = Timer.builder("booking.completion.sweep.duration")
+                .description("Time taken by one completion sweep")
+                .register(meterRegistry);
+        completedCounter = Counter.builder("booking.completion.sweep.completed")
+                .description("Bookings moved from APPROVED to COMPLETED")
+                .register(meterRegistry);
+        Gauge.builder("booking.completion.sweep.last.completed", lastCompleted, AtomicLong::get)
+                .description("Bookings completed by the most recent sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.completion.interval-ms:300000}",
+            initialDelayString = "${booking.completion.initial-delay-ms:60000}")
+    public void sweep() {
+        try {
+            completeEndedBookings(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Booking completion sweep failed", e);
+        }
+    }
+
+    /**
+     * Completes every APPROVED booking that ended before {@code cutoff} and
+     * returns how many were completed. Writes one audit entry per run that
+     * completed anything.
+     */
+    public int completeEndedBookings(LocalDateTime cutoff) {
+        long startedAt = System.nanoTime();
+        int total = 0;
+        int batches = 0;
+        int updated;
+        do {
+            List<Long> labIds = jdbcTemplate.queryForList(SELECT_ENDED_LABS, Long.class, cutoff, batchSize);
+            updated = labIds.isEmpty() ? 0 : labLockStripes.withLocks(labIds,
+                    () -> transactionTemplate.execute(status -> completeChunk(cutoff, labIds)));
+            total += updated;
+            batches++;
+        } while (updated == batchSize);
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        sweepTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        completedCounter.increment(total);
+        lastCompleted.set(total);
+
+        if (total > 0) {
+            bookingIntervalIndex.evictEndedBefore(cutoff);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            auditService.logAction("BOOKINGS_COMPLETED", "Booking", null, null,
+                    "Completed " + total + " bookings ended before " + cutoff +
+                    " in " + batches + " batches (" + elapsedMillis + " ms)");
+            log.info("Completed {} ended bookings in {} batches ({} ms)", total, batches, elapsedMillis);
+        }
+        return total;
+    }
+
+    // A booking that ended in a lab approved since the labs were read is not locked; it is left
+    // to the next sweep, as the short chunk ends this one
+    private int completeChunk(LocalDateTime cutoff, List<Long> lockedLabIds) {
+        List<Long> ids = new ArrayList<>();
+        LabUsageRollup.Changes usage = labUsageRollup.changes();
+        jdbcTemplate.query(SELECT_ENDED, (RowCallbackHandler) rs -> {
+            if (!lockedLabIds.contains(rs.getLong("lab_id"))) {
+                return;
+            }
+            ids.add(rs.getLong("id"));
+            usage.statusChanged(rs.getLong("lab_id"), rs.getObject("start_time", LocalDateTime.class),
+                    rs.getObject("end_time", LocalDateTime.class),
+                    Booking.BookingStatus.APPROVED, Booking.BookingStatus.COMPLETED);
+        }, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> args = new ArrayList<>();
+        args.add(LocalDateTime.now());
+        args.addAll(ids);
+        int updated = jdbcTemplate.update("UPDATE bookings SET status = 'COMPLETED', updated_at = ? WHERE id IN (" +
+                String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", args.toArray());
+        labUsageRollup.apply(usage);
+        return updated;
+    }
+}
@@ -0,0 +1,411 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.BookingInterval;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory index of APPROVED booking intervals per lab, used in place of
+ * {@link BookingRepository#findOverlappingBookings} on the booking write path.
+ * Intervals are half-open {@code [start, end)} in epoch minutes; starts are
+ * floored and ends ceiled, so sub-minute bookings are treated conservatively.
+ * Changes made inside a transaction are only applied once it commits.
+ */
+@Component
+public class BookingIntervalIndex {
+    private static final Logger log = LoggerFactory.getLogger(BookingIntervalIndex.class);
+
+    private static final int MAX_WARM_UP_ATTEMPTS = 5;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final Map<Long, LabIntervals> labs = new ConcurrentHashMap<>();
+    private final Map<Long, Long> labByBooking = new ConcurrentHashMap<>();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private long modCount;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread loader = new Thread(this::rebuild, "booking-index-warm-up");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Reloads every APPROVED interval from the bookings table. Writes that land
+     * while the snapshot is being read force another attempt, so the published
+     * index never misses a committed change.
+     */
+    public void rebuild() {
+        for (int attempt = 1; attempt <= MAX_WARM_UP_ATTEMPTS; attempt++) {
+            long seen;
+            synchronized (this) {
+                seen = modCount;
+            }
+
+            Map<Long, List<BookingInterval>> byLab = new HashMap<>();
+            for (BookingInterval interval : bookingRepository.findApprovedIntervals()) {
+                byLab.computeIfAbsent(interval.getLabId(), id -> new ArrayList<>()).add(interval);
+            }
+
+            synchronized (this) {
+                if (modCount != seen) {
+                    continue;
+                }
+                labs.clear();
+                labByBooking.clear();
+                byLab.forEach((labId, intervals) -> {
+                    labs.put(labId, LabIntervals.of(intervals));
+                    intervals.forEach(interval -> labByBooking.put(interval.getId(), labId));
+                });
+                ready = true;
+                listeners.forEach(ChangeListener::indexRebuilt);
+            }
+            log.info("Booking interval index loaded {} approved bookings across {} labs",
+                    labByBooking.size(), labs.size());
+            return;
+        }
+        log.warn("Booking interval index did not settle after {} attempts; overlap checks stay on SQL",
+                MAX_WARM_UP_ATTEMPTS);
+    }
+
+    /**
+     * Returns true when an APPROVED booking other than {@code excludeBookingId}
+     * overlaps {@code [start, end)} in the given lab. Falls back to the SQL
+     * query while the index is still loading.
+     */
+    public boolean hasOverlap(Long labId, LocalDateTime start, LocalDateTime end, Long excludeBookingId) {
+        if (!ready) {
+            List<Booking> overlapping = bookingRepository.findOverlappingBookings(labId, start, end);
+            return overlapping.stream().anyMatch(b -> !b.getId().equals(excludeBookingId));
+        }
+        LabIntervals intervals = labs.get(labId);
+        return intervals != null
+                && intervals.anyOverlap(floorMinutes(start), ceilMinutes(end), excludeBookingId);
+    }
+
+    /**
+     * Returns the ids of APPROVED bookings overlapping {@code [start, end)} in
+     * the given lab, or falls back to the SQL query while loading.
+     */
+    public List<Long> findOverlapping(Long labId, LocalDateTime start, LocalDateTime end) {
+        if (!ready) {
+            return bookingRepository.findOverlappingBookings(labId, start, end).stream()
+                    .map(Booking::getId)
+                    .toList();
+        }
+        LabIntervals intervals = labs.get(labId);
+        if (intervals == null) {
+            return List.of();
+        }
+        return intervals.overlapping(floorMinutes(start), ceilMinutes(end));
+    }
+
+    /**
+     * Flat {@code [start0, end0, start1, end1, ...]} epoch-minute pairs of the
+     * APPROVED intervals overlapping {@code [fromMinute, toMinute)}, or null
+     * while the index is still loading.
+     */
+    public long[] overlappingIntervals(Long labId, long fromMinute, long toMinute) {
+        if (!ready) {
+            return null;
+        }
+        LabIntervals intervals = labs.get(labId);
+        return intervals != null ? intervals.overlappingIntervals(fromMinute, toMinute) : new long[0];
+    }
+
+    /**
+     * Records the current state of a saved booking: APPROVED bookings are
+     * (re)indexed, any other status removes the booking from the index.
+     */
+    public void bookingSaved(Booking booking) {
+        Long id = booking.getId();
+        Long labId = booking.getLab().getId();
+        long start = floorMinutes(booking.getStartTime());
+        long end = ceilMinutes(booking.getEndTime());
+        boolean approved = booking.getStatus() == Booking.BookingStatus.APPROVED;
+        afterCommit(() -> {
+            removeInternal(id);
+            if (approved) {
+                labs.computeIfAbsent(labId, lab -> new LabIntervals()).insert(id, start, end);
+                labByBooking.put(id, labId);
+                listeners.forEach(listener -> listener.intervalsChanged(labId, start, end));
+            }
+        });
+    }
+
+    public void bookingDeleted(Long bookingId) {
+        afterCommit(() -> removeInternal(bookingId));
+    }
+
+    public void labDeleted(Long labId) {
+        afterCommit(() -> {
+            labs.remove(labId);
+            labByBooking.values().removeIf(labId::equals);
+            listeners.forEach(listener -> listener.labRemoved(labId));
+        });
+    }
+
+    /**
+     * Drops the intervals that ended before {@code cutoff}, once the completion
+     * sweep has moved those bookings out of APPROVED. Only intervals whose
+     * ceiled end is below the floored cutoff go, so nothing still APPROVED in
+     * the table is dropped; the last minute is picked up by the next sweep.
+     */
+    public void evictEndedBefore(LocalDateTime cutoff) {
+        long limit = floorMinutes(cutoff);
+        afterCommit(() -> labs.forEach((labId, intervals) -> {
+            List<Long> removedIds = new ArrayList<>();
+            long from = intervals.removeEndedBefore(limit, removedIds);
+            if (!removedIds.isEmpty()) {
+                removedIds.forEach(labByBooking::remove);
+                listeners.forEach(listener -> listener.intervalsChanged(labId, from, limit));
+            }
+        }));
+    }
+
+    private void removeInternal(Long bookingId) {
+        Long labId = labByBooking.remove(bookingId);
+        if (labId != null) {
+            LabIntervals intervals = labs.get(labId);
+            long[] removed = intervals != null ? intervals.remove(bookingId) : null;
+            if (removed != null) {
+                listeners.forEach(listener -> listener.intervalsChanged(labId, removed[0], removed[1]));
+            }
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Runnable change) {
+        modCount++;
+        if (ready) {
+            change.run();
+        }
+    }
+
+    static long floorMinutes(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    static long ceilMinutes(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        long minutes = Math.floorDiv(seconds, 60);
+        return (Math.floorMod(seconds, 60) == 0 && time.getNano() == 0) ? minutes : minutes + 1;
+    }
+
+    /**
+     * Notified, in commit order, whenever the indexed intervals of a lab change.
+     * Callbacks run while the index is locked for writing and must stay cheap.
+     */
+    public interface ChangeListener {
+        void intervalsChanged(Long labId, long fromMinute, long toMinute);
+
+        void labRemoved(Long labId);
+
+        void indexRebuilt();
+    }
+
+    /**
+     * Intervals of one lab kept sorted by start, with a running maximum of the
+     * end times so overlap queries can stop scanning as soon as no earlier
+     * interval can still reach the queried start.
+     */
+    static final class LabIntervals {
+        private long[] ids = new long[8];
+        private long[] starts = new long[8];
+        private long[] ends = new long[8];
+        private long[] maxEnds = new long[8];
+        private int size;
+
+        static LabIntervals of(List<BookingInterval> intervals) {
+            List<BookingInterval> sorted = new ArrayList<>(intervals);
+            sorted.sort(Comparator.comparing(BookingInterval::getStartTime)
+                    .thenComparing(BookingInterval::getId));
+            LabIntervals lab = new LabIntervals();
+            lab.ensureCapacity(sorted.size());
+            for (BookingInterval interval : sorted) {
+                int i = lab.size++;
+                lab.ids[i] = interval.getId();
+                lab.starts[i] = floorMinutes(interval.getStartTime());
+                lab.ends[i] = ceilMinutes(interval.getEndTime());
+            }
+            lab.recomputeMaxEnds(0);
+            return lab;
+        }
+
+        synchronized void insert(long id, long start, long end) {
+            ensureCapacity(size + 1);
+            int pos = upperBound(start);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(starts, pos, starts, pos + 1, size - pos);
+            System.arraycopy(ends, pos, ends, pos + 1, size - pos);
+            ids[pos] = id;
+            starts[pos] = start;
+            ends[pos] = end;
+            size++;
+            recomputeMaxEnds(pos);
+        }
+
+        synchronized long[] remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    long[] removed = {starts[i], ends[i]};
+                    int tail = size - i - 1;
+                    System.arraycopy(ids, i + 1, ids, i, tail);
+                    System.arraycopy(starts, i + 1, starts, i, tail);
+                    System.arraycopy(ends, i + 1, ends, i, tail);
+                    size--;
+                    recomputeMaxEnds(i);
+                    return removed;
+                }
+            }
+            return null;
+        }
+
+        // Removes every interval ending before the limit, collecting their ids;
+        // returns the earliest removed start, or the limit when none matched.
+        synchronized long removeEndedBefore(long limit, List<Long> removedIds) {
+            long from = limit;
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (ends[i] < limit) {
+                    removedIds.add(ids[i]);
+                    from = Math.min(from, starts[i]);
+                } else {
+                    ids[kept] = ids[i];
+                    starts[kept] = starts[i];
+                    ends[kept] = ends[i];
+                    kept++;
+                }
+            }
+            if (kept < size) {
+                size = kept;
+                recomputeMaxEnds(0);
+            }
+            return from;
+        }
+
+        synchronized boolean anyOverlap(long start, long end, Long excludeId) {
+            for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+                if (ends[i] > start && (excludeId == null || ids[i] != excludeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized List<Long> overlapping(long start, long end) {
+            List<Long> result = new ArrayList<>();
+            for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+                if (ends[i] > start) {
+                    result.add(ids[i]);
+                }
+            }
+            return result;
+        }
+
+        synchronized long[] overlappingIntervals(long start, long end) {
+            long[] result = new long[8];
+            int count = 0;
+            for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+                if (ends[i] > start) {
+                    if (count + 2 > result.length) {
+                        result = Arrays.copyOf(result, result.length * 2);
+                    }
+                    result[count++] = starts[i];
+                    result[count++] = ends[i];
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        // First index whose start is >= the given value.
+        private int lowerBound(long value) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // First index whose start is > the given value.
+        private int upperBound(long value) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] <= value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private void recomputeMaxEnds(int from) {
+            long max = from > 0 ? maxEnds[from - 1] : Long.MIN_VALUE;
+            for (int i = from; i < size; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > ids.length) {
+                int newLength = Math.max(capacity, ids.length * 2);
+                ids = Arrays.copyOf(ids, newLength);
+                starts = Arrays.copyOf(starts, newLength);
+                ends = Arrays.copyOf(ends, newLength);
+                maxEnds = Arrays.copyOf(maxEnds, newLength);
+            }
+        }
+    }
+}
@@ -1,21 +1,46 @@
 package com.example.ElisaInternership.service;
 
+import com.example.ElisaInternership.dto.BookingDecision;
+import com.example.ElisaInternership.dto.BookingFilter;
+import com.example.ElisaInternership.dto.BookingInterval;
+import com.example.ElisaInternership.dto.BookingOccurrence;
 import com.example.ElisaInternership.dto.BookingRequest;
+import com.example.ElisaInternership.dto.BookingSummary;
+import com.example.ElisaInternership.dto.BulkDecisionResponse;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.dto.PageCursor;
+import com.example.ElisaInternership.dto.RecurringBookingRequest;
+import com.example.ElisaInternership.dto.RecurringBookingResponse;
+import com.example.ElisaInternership.model.AuditLog;
 import com.example.ElisaInternership.model.Booking;
 import com.example.ElisaInternership.model.Lab;
 import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.repository.BookingRepository;
 import com.example.ElisaInternership.repository.LabRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
 public class BookingService {
+    private static final int MAX_OCCURRENCES = 200;
+
     @Autowired
     private BookingRepository bookingRepository;
 
@@ -25,8 +50,92 @@ public class BookingService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private LabLockStripes labLockStripes;
+
+    @Autowired
+    private LabUsageRollup labUsageRollup;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Overlap check and write run under the lab's lock, and the transaction commits
+    // before the lock is released, so concurrent requests for one slot cannot both win
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Booking createBooking(BookingRequest request, User user) {
-        if (request.getStartTime().isAfter(request.getEndTime())) {
+        return labLockStripes.withLock(request.getLabId(),
+                () -> transactionTemplate.execute(status -> createBookingLocked(request, user)));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RecurringBookingResponse createRecurringBooking(RecurringBookingRequest request, User user) {
+        List<BookingOccurrence> occurrences = expandOccurrences(request);
+        return labLockStripes.withLock(request.getLabId(),
+                () -> transactionTemplate.execute(status -> createRecurringBookingLocked(request, occurrences, user)));
+    }
+
+    // Both the lab the booking leaves and the one it moves to are locked
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking updateBooking(Long id, BookingRequest request, User currentUser) {
+        Set<Long> labIds = Set.copyOf(List.of(findLabId(id), request.getLabId()));
+        return labLockStripes.withLocks(labIds,
+                () -> transactionTemplate.execute(status -> updateBookingLocked(id, labIds, request, currentUser)));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking approveBooking(Long id, User currentUser) {
+        Long labId = findLabId(id);
+        return labLockStripes.withLock(labId,
+                () -> transactionTemplate.execute(status -> approveBookingLocked(id, labId, currentUser)));
+    }
+
+    // Status changes and deletes are locked like every other write that moves the usage
+    // rollup, so none of them can interleave with LabUsageRollup.rebuild of the lab
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking rejectBooking(Long id, User currentUser) {
+        Long labId = findLabId(id);
+        return labLockStripes.withLock(labId, () -> transactionTemplate.execute(status ->
+                changeStatusLocked(id, labId, Booking.BookingStatus.REJECTED, "BOOKING_REJECTED",
+                        "Booking rejected", currentUser)));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void cancelBooking(Long id, User currentUser) {
+        Long labId = findLabId(id);
+        labLockStripes.withLock(labId, () -> transactionTemplate.execute(status ->
+                changeStatusLocked(id, labId, Booking.BookingStatus.CANCELLED, "BOOKING_CANCELLED",
+                        "Booking cancelled", currentUser)));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deleteBooking(Long id, User currentUser) {
+        Long labId = findLabId(id);
+        labLockStripes.withLock(labId, () -> transactionTemplate.execute(status -> {
+            deleteBookingLocked(id, labId, currentUser);
+            return null;
+        }));
+    }
+
+    // Every lab touched by the batch is locked before the transaction starts, as for single approvals
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkDecisionResponse decideBookings(List<BookingDecision> decisions, User currentUser) {
+        Map<Long, BookingDecision.Decision> requested = new LinkedHashMap<>();
+        for (BookingDecision decision : decisions) {
+            if (requested.put(decision.getBookingId(), decision.getDecision()) != null) {
+                throw new RuntimeException("Booking " + decision.getBookingId() + " appears more than once");
+            }
+        }
+        Set<Long> labIds = new HashSet<>();
+        bookingRepository.findIntervalsByIdIn(requested.keySet()).forEach(b -> labIds.add(b.getLabId()));
+        return labLockStripes.withLocks(labIds,
+                () -> transactionTemplate.execute(status -> decideBookingsLocked(requested, labIds, currentUser)));
+    }
+
+    private Booking createBookingLocked(BookingRequest request, User user) {
+        if (!request.getStartTime().isBefore(request.getEndTime())) {
             throw new RuntimeException("Start time must be before end time");
         }
 
@@ -42,9 +151,7 @@ public class BookingService {
                 .orElseThrow(() -> new RuntimeException("Lab not found"));
 
         // Check for overlapping bookings
-        List<Booking> overlapping = bookingRepository.findOverlappingBookings(
-                lab.getId(), request.getStartTime(), request.getEndTime());
-        if (!overlapping.isEmpty()) {
+        if (bookingIntervalIndex.hasOverlap(lab.getId(), request.getStartTime(), request.getEndTime(), null)) {
             throw new RuntimeException("Lab is already booked for this time slot");
         }
 
@@ -58,16 +165,121 @@ public class BookingService {
                 : Booking.BookingStatus.PENDING);
 
         booking = bookingRepository.save(booking);
+        bookingIntervalIndex.bookingSaved(booking);
+        labUsageRollup.bookingAdded(booking);
         auditService.logAction("BOOKING_CREATED", "Booking", booking.getId(), user,
                 "Booking created for lab: " + lab.getName());
         return booking;
     }
 
-    public Booking updateBooking(Long id, BookingRequest request, User currentUser) {
+    private RecurringBookingResponse createRecurringBookingLocked(RecurringBookingRequest request,
+                                                                  List<BookingOccurrence> occurrences, User user) {
+        Lab lab = labRepository.findById(request.getLabId())
+                .orElseThrow(() -> new RuntimeException("Lab not found"));
+
+        // One query for the whole span, then a single sweep over both sorted lists. Occurrences
+        // never overlap each other, so a booking that ends before the current occurrence starts
+        // cannot conflict with any later one and leaves the active set for good.
+        List<BookingInterval> existing = bookingRepository.findApprovedIntervalsInRange(lab.getId(),
+                occurrences.get(0).getStartTime(), occurrences.get(occurrences.size() - 1).getEndTime());
+        List<BookingInterval> active = new ArrayList<>();
+        int next = 0;
+        int conflictCount = 0;
+        for (BookingOccurrence occurrence : occurrences) {
+            while (next < existing.size() && existing.get(next).getStartTime().isBefore(occurrence.getEndTime())) {
+                active.add(existing.get(next++));
+            }
+            active.removeIf(b -> !b.getEndTime().isAfter(occurrence.getStartTime()));
+            active.forEach(b -> occurrence.getConflictingBookingIds().add(b.getId()));
+            if (occurrence.hasConflicts()) {
+                conflictCount++;
+            }
+        }
+
+        if (conflictCount > 0 && !request.isSkipConflicts()) {
+            return new RecurringBookingResponse(0, conflictCount, occurrences);
+        }
+
+        Booking.BookingStatus status = user.getRole() == User.Role.INSTRUCTOR ? Booking.BookingStatus.APPROVED
+                : Booking.BookingStatus.PENDING;
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingOccurrence occurrence : occurrences) {
+            if (!occurrence.hasConflicts()) {
+                Booking booking = new Booking();
+                booking.setLab(lab);
+                booking.setUser(user);
+                booking.setStartTime(occurrence.getStartTime());
+                booking.setEndTime(occurrence.getEndTime());
+                booking.setPurpose(request.getPurpose());
+                booking.setStatus(status);
+                bookings.add(booking);
+            }
+        }
+        if (bookings.isEmpty()) {
+            return new RecurringBookingResponse(0, conflictCount, occurrences);
+        }
+
+        // Sequence ids are assigned on persist; the rows themselves go out as one JDBC batch on flush
+        bookings = bookingRepository.saveAll(bookings);
+        Iterator<Booking> saved = bookings.iterator();
+        LabUsageRollup.Changes usage = labUsageRollup.changes();
+        for (BookingOccurrence occurrence : occurrences) {
+            if (!occurrence.hasConflicts()) {
+                Booking booking = saved.next();
+                occurrence.setBookingId(booking.getId());
+                bookingIntervalIndex.bookingSaved(booking);
+                usage.add(booking);
+            }
+        }
+        labUsageRollup.apply(usage);
+
+        auditService.logAction("BOOKING_SERIES_CREATED", "Booking", bookings.get(0).getId(), user,
+                "Recurring booking created for lab: " + lab.getName() + " (" + bookings.size() + " occurrences, "
+                        + request.getFrequency() + " until " + request.getUntil() + ")");
+        return new RecurringBookingResponse(bookings.size(), conflictCount, occurrences);
+    }
+
+    private List<BookingOccurrence> expandOccurrences(RecurringBookingRequest request) {
+        if (!request.getStartTime().isBefore(request.getEndTime())) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+        if (request.getStartTime().isBefore(LocalDateTime.now().withMinute(0).withSecond(0).withNano(0))) {
+            throw new RuntimeException("Cannot book in the past");
+        }
+        if (request.getUntil().isBefore(request.getStartTime().toLocalDate())) {
+            throw new RuntimeException("Until date must not be before the first occurrence");
+        }
+
+        Period step = request.getFrequency() == RecurringBookingRequest.Frequency.DAILY
+                ? Period.ofDays(request.getInterval())
+                : Period.ofWeeks(request.getInterval());
+        if (request.getEndTime().isAfter(request.getStartTime().plus(step))) {
+            throw new RuntimeException("Each occurrence must end before the next one starts");
+        }
+
+        List<BookingOccurrence> occurrences = new ArrayList<>();
+        LocalDateTime start = request.getStartTime();
+        LocalDateTime end = request.getEndTime();
+        while (!start.toLocalDate().isAfter(request.getUntil())) {
+            if (occurrences.size() == MAX_OCCURRENCES) {
+                throw new RuntimeException("A recurring booking cannot have more than " + MAX_OCCURRENCES
+                        + " occurrences");
+            }
+            occurrences.add(new BookingOccurrence(start, end));
+            start = start.plus(step);
+            end = end.plus(step);
+        }
+        return occurrences;
+    }
+
+    private Booking updateBookingLocked(Long id, Set<Long> lockedLabIds, BookingRequest request, User currentUser) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
+        if (!lockedLabIds.contains(booking.getLab().getId())) {
+            throw new RuntimeException("Booking was moved to another lab, please retry");
+        }
 
-        if (request.getStartTime().isAfter(request.getEndTime())) {
+        if (!request.getStartTime().isBefore(request.getEndTime())) {
             throw new RuntimeException("Start time must be before end time");
         }
 
@@ -75,76 +287,199 @@ public class BookingService {
                 .orElseThrow(() -> new RuntimeException("Lab not found"));
 
         // Check for overlapping bookings (excluding current booking)
-        List<Booking> overlapping = bookingRepository.findOverlappingBookings(
-                lab.getId(), request.getStartTime(), request.getEndTime());
-        overlapping.removeIf(b -> b.getId().equals(id));
-        if (!overlapping.isEmpty()) {
+        if (bookingIntervalIndex.hasOverlap(lab.getId(), request.getStartTime(), request.getEndTime(), id)) {
             throw new RuntimeException("Lab is already booked for this time slot");
         }
 
+        LabUsageRollup.Changes usage = labUsageRollup.changes().remove(booking);
         booking.setLab(lab);
         booking.setStartTime(request.getStartTime());
         booking.setEndTime(request.getEndTime());
         booking.setPurpose(request.getPurpose());
 
         booking = bookingRepository.save(booking);
+        bookingIntervalIndex.bookingSaved(booking);
+        labUsageRollup.apply(usage.add(booking));
         auditService.logAction("BOOKING_UPDATED", "Booking", booking.getId(), currentUser,
                 "Booking updated");
         return booking;
     }
 
-    public Booking approveBooking(Long id, User currentUser) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
+    private Booking approveBookingLocked(Long id, Long labId, User currentUser) {
+        Booking booking = findInLab(id, labId);
+
+        // Two overlapping PENDING requests must not both end up approved
+        if (booking.getStatus() != Booking.BookingStatus.APPROVED
+                && bookingIntervalIndex.hasOverlap(labId, booking.getStartTime(), booking.getEndTime(), id)) {
+            throw new RuntimeException("Lab is already booked for this time slot");
+        }
+
+        LabUsageRollup.Changes usage = labUsageRollup.changes().remove(booking);
         booking.setStatus(Booking.BookingStatus.APPROVED);
         booking = bookingRepository.save(booking);
+        bookingIntervalIndex.bookingSaved(booking);
+        labUsageRollup.apply(usage.add(booking));
         auditService.logAction("BOOKING_APPROVED", "Booking", booking.getId(), currentUser,
                 "Booking approved");
         return booking;
     }
 
-    public Booking rejectBooking(Long id, User currentUser) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
-        booking.setStatus(Booking.BookingStatus.REJECTED);
-        booking = bookingRepository.save(booking);
-        auditService.logAction("BOOKING_REJECTED", "Booking", booking.getId(), currentUser,
-                "Booking rejected");
-        return booking;
+    private BulkDecisionResponse decideBookingsLocked(Map<Long, BookingDecision.Decision> requested,
+                                                      Set<Long> lockedLabIds, User currentUser) {
+        Map<Long, Booking> bookings = new HashMap<>();
+        bookingRepository.findAllWithLabAndUserByIdIn(requested.keySet()).forEach(b -> bookings.put(b.getId(), b));
+
+        BulkDecisionResponse response = new BulkDecisionResponse();
+        LabUsageRollup.Changes usage = labUsageRollup.changes();
+        List<Booking> changed = new ArrayList<>();
+        List<AuditLog> auditLogs = new ArrayList<>();
+        Map<Long, List<Booking>> toApprove = new HashMap<>();
+        for (Map.Entry<Long, BookingDecision.Decision> entry : requested.entrySet()) {
+            Booking booking = bookings.get(entry.getKey());
+            if (booking == null) {
+                response.getSkipped().put(entry.getKey(), "Booking not found");
+            } else if (!lockedLabIds.contains(booking.getLab().getId())) {
+                response.getSkipped().put(booking.getId(), "Booking was moved to another lab, please retry");
+            } else if (entry.getValue() == BookingDecision.Decision.REJECT
+                    && (booking.getStatus() == Booking.BookingStatus.PENDING
+                    || booking.getStatus() == Booking.BookingStatus.APPROVED)) {
+                usage.remove(booking);
+                booking.setStatus(Booking.BookingStatus.REJECTED);
+                changed.add(booking);
+                response.getRejected().add(booking.getId());
+                auditLogs.add(AuditService.entry("BOOKING_REJECTED", "Booking", booking.getId(), currentUser,
+                        "Booking rejected"));
+            } else if (entry.getValue() == BookingDecision.Decision.APPROVE
+                    && booking.getStatus() == Booking.BookingStatus.PENDING) {
+                toApprove.computeIfAbsent(booking.getLab().getId(), id -> new ArrayList<>()).add(booking);
+            } else {
+                response.getSkipped().put(booking.getId(), "Booking is " + booking.getStatus());
+            }
+        }
+
+        // Rejections are applied first (the queries below flush them), so they can free slots for approvals
+        toApprove.forEach((labId, candidates) ->
+                approveSweep(labId, candidates, response, usage, changed, auditLogs, currentUser));
+
+        bookingRepository.saveAll(changed);
+        changed.forEach(bookingIntervalIndex::bookingSaved);
+        changed.forEach(usage::add);
+        labUsageRollup.apply(usage);
+        auditService.logActions(auditLogs);
+        return response;
     }
 
-    public void cancelBooking(Long id, User currentUser) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
-        booking.setStatus(Booking.BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
-        auditService.logAction("BOOKING_CANCELLED", "Booking", booking.getId(), currentUser,
-                "Booking cancelled");
+    // Approves a lab's candidates in start order, skipping those that clash with an already approved
+    // booking, then rejects every PENDING request that overlaps one of the newly approved bookings
+    private void approveSweep(Long labId, List<Booking> candidates, BulkDecisionResponse response,
+                              LabUsageRollup.Changes usage, List<Booking> changed, List<AuditLog> auditLogs,
+                              User currentUser) {
+        candidates.sort(Comparator.comparing(Booking::getStartTime).thenComparing(Booking::getId));
+        LocalDateTime rangeEnd = candidates.stream().map(Booking::getEndTime).max(Comparator.naturalOrder()).get();
+        List<BookingInterval> existing = bookingRepository.findApprovedIntervalsInRange(labId,
+                candidates.get(0).getStartTime(), rangeEnd);
+
+        List<BookingInterval> active = new ArrayList<>();
+        List<Booking> approved = new ArrayList<>();
+        int next = 0;
+        for (Booking candidate : candidates) {
+            while (next < existing.size() && existing.get(next).getStartTime().isBefore(candidate.getEndTime())) {
+                active.add(existing.get(next++));
+            }
+            active.removeIf(b -> !b.getEndTime().isAfter(candidate.getStartTime()));
+            // Candidates start in order but may end earlier than the previous one, so check starts too
+            BookingInterval clash = active.stream()
+                    .filter(b -> b.getStartTime().isBefore(candidate.getEndTime()))
+                    .findFirst().orElse(null);
+            if (clash != null) {
+                response.getSkipped().put(candidate.getId(), "Overlaps approved booking " + clash.getId());
+                continue;
+            }
+            // Newly approved bookings are disjoint and sorted, so the last one ends latest
+            if (!approved.isEmpty() && approved.get(approved.size() - 1).getEndTime().isAfter(candidate.getStartTime())) {
+                continue;
+            }
+            usage.remove(candidate);
+            candidate.setStatus(Booking.BookingStatus.APPROVED);
+            approved.add(candidate);
+            changed.add(candidate);
+            response.getApproved().add(candidate.getId());
+            auditLogs.add(AuditService.entry("BOOKING_APPROVED", "Booking", candidate.getId(), currentUser,
+                    "Booking approved"));
+        }
+        if (approved.isEmpty()) {
+            return;
+        }
+
+        List<Booking> pending = bookingRepository.findPendingInRange(labId, approved.get(0).getStartTime(),
+                approved.get(approved.size() - 1).getEndTime());
+        int current = 0;
+        for (Booking booking : pending) {
+            while (current < approved.size() && !approved.get(current).getEndTime().isAfter(booking.getStartTime())) {
+                current++;
+            }
+            if (current < approved.size() && approved.get(current).getStartTime().isBefore(booking.getEndTime())) {
+                Booking winner = approved.get(current);
+                usage.remove(booking);
+                booking.setStatus(Booking.BookingStatus.REJECTED);
+                changed.add(booking);
+                response.getSkipped().remove(booking.getId());
+                response.getAutoRejected().add(booking.getId());
+                auditLogs.add(AuditService.entry("BOOKING_AUTO_REJECTED", "Booking", booking.getId(), currentUser,
+                        "Booking rejected: overlaps booking " + winner.getId() + " approved in bulk"));
+            }
+        }
     }
 
-    public void deleteBooking(Long id, User currentUser) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
+    private Booking changeStatusLocked(Long id, Long labId, Booking.BookingStatus newStatus, String action,
+                                       String description, User currentUser) {
+        Booking booking = findInLab(id, labId);
+        LabUsageRollup.Changes usage = labUsageRollup.changes().remove(booking);
+        booking.setStatus(newStatus);
+        booking = bookingRepository.save(booking);
+        bookingIntervalIndex.bookingSaved(booking);
+        labUsageRollup.apply(usage.add(booking));
+        auditService.logAction(action, "Booking", booking.getId(), currentUser, description);
+        return booking;
+    }
+
+    private void deleteBookingLocked(Long id, Long labId, User currentUser) {
+        Booking booking = findInLab(id, labId);
         auditService.logAction("BOOKING_DELETED", "Booking", booking.getId(), currentUser,
                 "Booking deleted");
         bookingRepository.delete(booking);
+        bookingIntervalIndex.bookingDeleted(booking.getId());
+        labUsageRollup.apply(labUsageRollup.changes().remove(booking));
     }
 
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    private Long findLabId(Long id) {
+        return bookingRepository.findLabIdById(id)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
     }
 
-    public Booking getBookingById(Long id) {
-        return bookingRepository.findById(id)
+    // Reads the booking once its lab is locked; it may have been moved in between
+    private Booking findInLab(Long id, Long labId) {
+        Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
+        if (!booking.getLab().getId().equals(labId)) {
+            throw new RuntimeException("Booking was moved to another lab, please retry");
+        }
+        return booking;
     }
 
-    public List<Booking> getBookingsByUser(Long userId) {
-        return bookingRepository.findByUserId(userId);
+    public CursorPage<BookingSummary> getBookings(BookingFilter filter, String cursor, Integer limit) {
+        int size = CursorPage.size(limit);
+        PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor) : null;
+        List<BookingSummary> bookings = bookingRepository.findPage(filter.getLabId(), filter.getUserId(),
+                filter.getStatus(), filter.getFrom(), filter.getTo(),
+                after != null ? after.getTime() : null, after != null ? after.getId() : null,
+                Limit.of(size + 1));
+        return CursorPage.of(bookings, size, last -> new PageCursor(last.getStartTime(), last.getId()));
     }
 
-    public List<Booking> getBookingsByLab(Long labId) {
-        return bookingRepository.findByLabId(labId);
+    public Booking getBookingById(Long id) {
+        return bookingRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
     }
 
     public List<Booking> getBookingsByLabAndDateRange(Long labId, LocalDateTime start, LocalDateTime end) {
@@ -2,27 +2,134 @@ package com.example.ElisaInternership.service;
 
 import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the principal of every authenticated request. Users are cached by
+ * username for {@code auth.principal-cache.ttl-seconds}, and the least
+ * recently used one is dropped once {@code auth.principal-cache.max-entries}
+ * are held. {@link UserService} publishes {@link PrincipalChanged} so that
+ * role, lab and active changes apply from the next request.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
+    private record Entry(User user, long expiresAt) {
+    }
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${auth.principal-cache.max-entries:10000}")
+    private int maxEntries;
+
+    // Access ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Bumped by every eviction; a user loaded across one is not stored
+    private long version;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter expired;
+    private Counter evictedForSize;
+    private Counter invalidated;
+    private Timer loads;
+
+    @PostConstruct
+    void registerMetrics() {
+        hits = Counter.builder("auth.principal.cache.hits")
+                .description("Principals answered from the cache").register(meterRegistry);
+        misses = Counter.builder("auth.principal.cache.misses")
+                .description("Principals loaded from the database").register(meterRegistry);
+        expired = eviction("expired");
+        evictedForSize = eviction("size");
+        invalidated = eviction("invalidated");
+        loads = Timer.builder("auth.principal.load")
+                .description("Time to load a principal from the database").register(meterRegistry);
+        Gauge.builder("auth.principal.cache.size", this, CustomUserDetailsService::size)
+                .description("Principals currently cached")
+                .register(meterRegistry);
+        Gauge.builder("auth.principal.cache.hit.ratio", this, CustomUserDetailsService::hitRatio)
+                .description("Share of principal lookups answered from the cache")
+                .register(meterRegistry);
+    }
+
+    private Counter eviction(String cause) {
+        return Counter.builder("auth.principal.cache.evictions").tag("cause", cause)
+                .description("Principals dropped from the cache").register(meterRegistry);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        long loadedAt;
+        synchronized (this) {
+            Entry entry = entries.get(username);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return entry.user();
+                }
+                entries.remove(username);
+                expired.increment();
+            }
+            loadedAt = version;
+        }
+        misses.increment();
+
+        User user = loads.record(() -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        synchronized (this) {
+            if (version == loadedAt && maxEntries > 0) {
+                entries.put(username, new Entry(user, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+                Iterator<String> eldest = entries.keySet().iterator();
+                while (entries.size() > maxEntries) {
+                    eldest.next();
+                    eldest.remove();
+                    evictedForSize.increment();
+                }
+            }
+        }
         return user;
     }
-}
-
-
-
 
+    // Runs after commit, or straight away when published outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPrincipalChanged(PrincipalChanged event) {
+        version++;
+        for (String username : event.usernames()) {
+            if (entries.remove(username) != null) {
+                invalidated.increment();
+            }
+        }
+    }
 
+    public synchronized int size() {
+        return entries.size();
+    }
 
+    private double hitRatio() {
+        double lookups = hits.count() + misses.count();
+        return lookups == 0 ? 0 : hits.count() / lookups;
+    }
+}
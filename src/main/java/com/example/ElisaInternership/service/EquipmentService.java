@@ -1,12 +1,14 @@
 package com.example.ElisaInternership.service;
 
 import com.example.ElisaInternership.dto.EquipmentRequest;
+import com.example.ElisaInternership.dto.EquipmentSummary;
 import com.example.ElisaInternership.model.Equipment;
 import com.example.ElisaInternership.model.Lab;
 import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.repository.EquipmentRepository;
 import com.example.ElisaInternership.repository.LabRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,9 @@ public class EquipmentService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Equipment createEquipment(EquipmentRequest request, User currentUser) {
         Lab lab = labRepository.findById(request.getLabId())
                 .orElseThrow(() -> new RuntimeException("Lab not found"));
@@ -36,6 +41,7 @@ public class EquipmentService {
         equipment.setStatus(request.getStatus() != null ? request.getStatus() : Equipment.EquipmentStatus.AVAILABLE);
 
         equipment = equipmentRepository.save(equipment);
+        eventPublisher.publishEvent(ReportDataChanged.of(ReportCache.Report.EQUIPMENT));
         auditService.logAction("EQUIPMENT_CREATED", "Equipment", equipment.getId(), currentUser, 
                 "Equipment created: " + equipment.getName());
         return equipment;
@@ -60,6 +66,8 @@ public class EquipmentService {
         }
 
         equipment = equipmentRepository.save(equipment);
+        // A lab move also moves the equipment's maintenance in the per-lab figures
+        eventPublisher.publishEvent(ReportDataChanged.equipmentAndMaintenance());
         auditService.logAction("EQUIPMENT_UPDATED", "Equipment", equipment.getId(), currentUser, 
                 "Equipment updated: " + equipment.getName());
         return equipment;
@@ -71,10 +79,11 @@ public class EquipmentService {
         auditService.logAction("EQUIPMENT_DELETED", "Equipment", equipment.getId(), currentUser, 
                 "Equipment deleted: " + equipment.getName());
         equipmentRepository.delete(equipment);
+        eventPublisher.publishEvent(ReportDataChanged.equipmentAndMaintenance());
     }
 
-    public List<Equipment> getAllEquipment() {
-        return equipmentRepository.findAll();
+    public List<EquipmentSummary> getAllEquipment() {
+        return equipmentRepository.findAllSummaries();
     }
 
     public Equipment getEquipmentById(Long id) {
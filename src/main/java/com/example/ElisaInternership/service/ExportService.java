@@ -0,0 +1,213 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.AuditLogSummary;
+import com.example.ElisaInternership.dto.BookingSummary;
+import com.example.ElisaInternership.dto.LabUsage;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes bookings, audit entries and report rows as CSV or NDJSON. Rows are
+ * streamed from the database and written one at a time through a small
+ * buffer, so an export runs in constant memory whatever its size. Exports
+ * run inside a read-only transaction that stays open while the rows are
+ * written.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        CSV("text/csv", "csv"), NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported export format: " + format + " (use csv or ndjson)");
+            }
+        }
+    }
+
+    private record Column<T>(String name, Function<T, Object> getter) {
+
+        // Times always carry their seconds, unlike LocalDateTime.toString()
+        Object value(T row) {
+            Object value = getter.apply(row);
+            return value instanceof LocalDateTime time ? time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : value;
+        }
+    }
+
+    private static final List<Column<BookingSummary>> BOOKING_COLUMNS = List.of(
+            new Column<>("id", BookingSummary::getId),
+            new Column<>("labId", b -> b.getLab().getId()),
+            new Column<>("labName", b -> b.getLab().getName()),
+            new Column<>("userId", b -> b.getUser().getId()),
+            new Column<>("username", b -> b.getUser().getUsername()),
+            new Column<>("startTime", BookingSummary::getStartTime),
+            new Column<>("endTime", BookingSummary::getEndTime),
+            new Column<>("purpose", BookingSummary::getPurpose),
+            new Column<>("status", BookingSummary::getStatus),
+            new Column<>("createdAt", BookingSummary::getCreatedAt));
+
+    private static final List<Column<AuditLogSummary>> AUDIT_COLUMNS = List.of(
+            new Column<>("id", AuditLogSummary::getId),
+            new Column<>("createdAt", AuditLogSummary::getCreatedAt),
+            new Column<>("action", AuditLogSummary::getAction),
+            new Column<>("entityType", AuditLogSummary::getEntityType),
+            new Column<>("entityId", AuditLogSummary::getEntityId),
+            new Column<>("userId", AuditLogSummary::getUserId),
+            new Column<>("username", AuditLogSummary::getUsername),
+            new Column<>("ipAddress", AuditLogSummary::getIpAddress),
+            new Column<>("description", AuditLogSummary::getDescription));
+
+    private static final List<Column<LabUsage>> LAB_USAGE_COLUMNS = labUsageColumns();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Bookings starting on the days [from, to)
+    public void exportBookings(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        requireRange(from, to);
+        try (Stream<BookingSummary> rows = bookingRepository.streamStartingInRange(from.atStartOfDay(),
+                to.atStartOfDay())) {
+            write(rows.iterator(), BOOKING_COLUMNS, format, out);
+        }
+    }
+
+    // Audit entries created on the days [from, to)
+    public void exportAuditLogs(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        requireRange(from, to);
+        try (Stream<AuditLogSummary> rows = auditLogRepository.streamCreatedInRange(from.atStartOfDay(),
+                to.atStartOfDay())) {
+            write(rows.iterator(), AUDIT_COLUMNS, format, out);
+        }
+    }
+
+    // The per-lab rows of the monthly lab usage report
+    public void exportMonthlyLabUsage(YearMonth yearMonth, Format format, OutputStream out) throws IOException {
+        @SuppressWarnings("unchecked")
+        List<LabUsage> labs = (List<LabUsage>) reportService.getMonthlyLabUsageReport(yearMonth, false).get("labs");
+        write(labs.iterator(), LAB_USAGE_COLUMNS, format, out);
+    }
+
+    public static void requireRange(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("Export range must end after it starts");
+        }
+    }
+
+    private <T> void write(Iterator<T> rows, List<Column<T>> columns, Format format, OutputStream out)
+            throws IOException {
+        // Not closed here: the caller owns the stream (and may still have to finish a gzip trailer)
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.CSV) {
+            writeCsvRow(writer, columns.stream().map(Column::name).toList());
+        }
+        while (rows.hasNext()) {
+            T row = rows.next();
+            if (format == Format.CSV) {
+                List<Object> values = new ArrayList<>(columns.size());
+                columns.forEach(column -> values.add(column.value(row)));
+                writeCsvRow(writer, values);
+            } else {
+                Map<String, Object> values = new LinkedHashMap<>();
+                columns.forEach(column -> values.put(column.name(), column.value(row)));
+                writer.write(objectMapper.writeValueAsString(values));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(csvField(value));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvField(Object value) {
+        if (!(value instanceof String text)) {
+            return value.toString();
+        }
+        // Keep spreadsheet apps from evaluating user-entered text as a formula
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static List<Column<LabUsage>> labUsageColumns() {
+        List<Column<LabUsage>> columns = new ArrayList<>(List.of(
+                new Column<>("labId", LabUsage::getLabId),
+                new Column<>("labName", LabUsage::getLabName),
+                new Column<>("totalBookings", LabUsage::getTotalBookings),
+                new Column<>("bookedHours", LabUsage::getBookedHours),
+                new Column<>("uniqueUsers", LabUsage::getUniqueUsers)));
+        for (Booking.BookingStatus status : Booking.BookingStatus.values()) {
+            columns.add(new Column<>(status.name().toLowerCase(Locale.ROOT),
+                    lab -> lab.getStatusCounts().getOrDefault(status, 0L)));
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ElisaInternership.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed table of locks that labs hash onto, so booking writes for one lab are
+ * serialized while writes for other labs proceed in parallel. The table size
+ * is bounded no matter how many labs exist.
+ */
+@Component
+public class LabLockStripes {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public LabLockStripes(@Value("${booking.lock-stripes:64}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public <T> T withLock(Long labId, Supplier<T> action) {
+        ReentrantLock lock = locks[stripe(labId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks every stripe used by the given labs, always in ascending stripe
+     * order so that two multi-lab callers can never deadlock each other.
+     */
+    public <T> T withLocks(Collection<Long> labIds, Supplier<T> action) {
+        int[] stripes = labIds.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    int stripeCount() {
+        return locks.length;
+    }
+
+    private int stripe(Long labId) {
+        long h = labId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.LabOccupancy;
+import com.example.ElisaInternership.dto.LabSummary;
+import com.example.ElisaInternership.repository.LabRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Weekday x hour occupancy of each lab. A lab's APPROVED and COMPLETED
+ * bookings overlapping the range are streamed once, split at hour
+ * boundaries and added into a flat {@code int[7 * 24]} of occupied seconds.
+ * Labs are processed in parallel on a dedicated fork-join pool
+ * ({@code reports.heatmap.parallelism}), each holding one connection while
+ * its bookings stream.
+ */
+@Component
+public class LabOccupancyHeatmap {
+    private static final int HOURS = 24;
+    private static final int CELLS = 7 * HOURS;
+    private static final int SECONDS_PER_HOUR = 3600;
+
+    // Served by idx_bookings_lab_status_time, which also covers both times
+    private static final String SELECT_OCCUPIED =
+            "SELECT start_time, end_time FROM bookings WHERE lab_id = ? AND status IN ('APPROVED', 'COMPLETED') " +
+            "AND start_time < ? AND end_time > ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Value("${reports.heatmap.parallelism:4}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void start() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Per-lab matrices plus the occupancy of all labs together, each lab
+     * weighted by its capacity.
+     */
+    public record Heatmap(List<LabOccupancy> labs, double[][] occupancy) {
+    }
+
+    // Occupancy over the days [from, to)
+    public Heatmap compute(LocalDate from, LocalDate to) {
+        List<LabSummary> labs = labRepository.findAllSummaries();
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atStartOfDay();
+        List<int[]> occupied;
+        try {
+            // A parallel stream started inside the pool runs all of its tasks there
+            occupied = pool.submit(() -> labs.parallelStream()
+                    .map(lab -> occupiedSeconds(lab.getId(), start, end))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Occupancy report was interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Occupancy report failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        int[] slotSeconds = slotSeconds(from, to);
+        long[] seatSeconds = new long[CELLS];
+        long[] availableSeatSeconds = new long[CELLS];
+        List<LabOccupancy> result = new ArrayList<>(labs.size());
+        for (int i = 0; i < labs.size(); i++) {
+            LabSummary lab = labs.get(i);
+            int[] seconds = occupied.get(i);
+            int capacity = lab.getCapacity() != null ? lab.getCapacity() : 0;
+            int[][] minutes = new int[7][HOURS];
+            double[][] occupancy = new double[7][HOURS];
+            for (int cell = 0; cell < CELLS; cell++) {
+                minutes[cell / HOURS][cell % HOURS] = seconds[cell] / 60;
+                occupancy[cell / HOURS][cell % HOURS] = ratio(seconds[cell], slotSeconds[cell]);
+                seatSeconds[cell] += (long) seconds[cell] * capacity;
+                availableSeatSeconds[cell] += (long) slotSeconds[cell] * capacity;
+            }
+            LabOccupancy labOccupancy = new LabOccupancy(lab.getId(), lab.getName(), lab.getCapacity());
+            labOccupancy.setOccupiedMinutes(minutes);
+            labOccupancy.setOccupancy(occupancy);
+            result.add(labOccupancy);
+        }
+
+        double[][] overall = new double[7][HOURS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            overall[cell / HOURS][cell % HOURS] = ratio(seatSeconds[cell], availableSeatSeconds[cell]);
+        }
+        return new Heatmap(result, overall);
+    }
+
+    private int[] occupiedSeconds(Long labId, LocalDateTime from, LocalDateTime to) {
+        long rangeStart = epochSecond(from);
+        long rangeEnd = epochSecond(to);
+        int[] seconds = new int[CELLS];
+        jdbcTemplate.query(SELECT_OCCUPIED, (RowCallbackHandler) rs -> {
+            long start = Math.max(epochSecond(rs.getObject(1, LocalDateTime.class)), rangeStart);
+            long end = Math.min(epochSecond(rs.getObject(2, LocalDateTime.class)), rangeEnd);
+            while (start < end) {
+                long hourEnd = Math.min((Math.floorDiv(start, SECONDS_PER_HOUR) + 1) * SECONDS_PER_HOUR, end);
+                seconds[cell(start)] += (int) (hourEnd - start);
+                start = hourEnd;
+            }
+        }, labId, to, from);
+        return seconds;
+    }
+
+    // Seconds each weekday-hour cell occurs in the days [from, to)
+    private static int[] slotSeconds(LocalDate from, LocalDate to) {
+        int[] seconds = new int[CELLS];
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            int row = (day.getDayOfWeek().getValue() - 1) * HOURS;
+            for (int hour = 0; hour < HOURS; hour++) {
+                seconds[row + hour] += SECONDS_PER_HOUR;
+            }
+        }
+        return seconds;
+    }
+
+    // Wall-clock times counted as UTC seconds, only to do the hour arithmetic on longs
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Monday is row 0; 1970-01-01 was a Thursday
+    private static int cell(long epochSecond) {
+        long hour = Math.floorDiv(epochSecond, SECONDS_PER_HOUR);
+        int weekday = (int) Math.floorMod(Math.floorDiv(hour, HOURS) + 3, 7);
+        return weekday * HOURS + (int) Math.floorMod(hour, HOURS);
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole > 0 ? Math.round(part * 10000.0 / whole) / 10000.0 : 0;
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.ElisaInternership.service;
 
 import com.example.ElisaInternership.dto.LabRequest;
+import com.example.ElisaInternership.dto.LabSummary;
 import com.example.ElisaInternership.model.Lab;
 import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.repository.LabRepository;
 import com.example.ElisaInternership.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,12 @@ public class LabService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Lab createLab(LabRequest request, User currentUser) {
         Lab lab = new Lab();
         lab.setName(request.getName());
@@ -49,6 +57,7 @@ public class LabService {
     public Lab updateLab(Long id, LabRequest request, User currentUser) {
         Lab lab = labRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Lab not found"));
+        boolean renamed = !lab.getName().equals(request.getName());
 
         lab.setName(request.getName());
         lab.setLocation(request.getLocation());
@@ -67,6 +76,10 @@ public class LabService {
         }
 
         lab = labRepository.save(lab);
+        if (renamed) {
+            // Every report lists labs by name
+            eventPublisher.publishEvent(ReportDataChanged.all());
+        }
         auditService.logAction("LAB_UPDATED", "Lab", lab.getId(), currentUser, 
                 "Lab updated: " + lab.getName());
         return lab;
@@ -78,10 +91,12 @@ public class LabService {
         auditService.logAction("LAB_DELETED", "Lab", lab.getId(), currentUser, 
                 "Lab deleted: " + lab.getName());
         labRepository.delete(lab);
+        bookingIntervalIndex.labDeleted(lab.getId());
+        eventPublisher.publishEvent(ReportDataChanged.all());
     }
 
-    public List<Lab> getAllLabs() {
-        return labRepository.findAll();
+    public List<LabSummary> getAllLabs() {
+        return labRepository.findAllSummaries();
     }
 
     public List<Lab> getActiveLabs() {
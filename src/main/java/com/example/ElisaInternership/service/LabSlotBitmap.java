@@ -0,0 +1,100 @@
+package com.example.ElisaInternership.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-lab, per-day occupancy bitsets of {@value #SLOT_MINUTES}-minute slots,
+ * derived from {@link BookingIntervalIndex} and kept current through its
+ * change notifications. A slot is set when any APPROVED booking touches it.
+ * Published bitsets are never mutated; a change swaps in a recomputed copy.
+ */
+@Component
+public class LabSlotBitmap implements BookingIntervalIndex.ChangeListener {
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private final Map<Long, Map<Long, BitSet>> labs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void register() {
+        bookingIntervalIndex.addListener(this);
+    }
+
+    /**
+     * Occupied slots of the lab on the given day, or null while the interval
+     * index is still loading. Callers must not modify the returned bitset.
+     */
+    public BitSet occupiedSlots(Long labId, LocalDate day) {
+        long epochDay = day.toEpochDay();
+        Map<Long, BitSet> days = labs.get(labId);
+        BitSet slots = days != null ? days.get(epochDay) : null;
+        if (slots != null) {
+            return slots;
+        }
+        synchronized (this) {
+            slots = compute(labId, epochDay);
+            // Past days are no longer booked against, so only upcoming ones stay cached
+            if (slots != null && epochDay >= LocalDate.now().toEpochDay() - 1) {
+                labs.computeIfAbsent(labId, id -> new ConcurrentHashMap<>()).put(epochDay, slots);
+            }
+            return slots;
+        }
+    }
+
+    @Override
+    public synchronized void intervalsChanged(Long labId, long fromMinute, long toMinute) {
+        Map<Long, BitSet> days = labs.get(labId);
+        if (days == null) {
+            return;
+        }
+        long lastDay = Math.floorDiv(toMinute - 1, MINUTES_PER_DAY);
+        for (long day = Math.floorDiv(fromMinute, MINUTES_PER_DAY); day <= lastDay; day++) {
+            if (days.containsKey(day)) {
+                BitSet slots = compute(labId, day);
+                if (slots != null) {
+                    days.put(day, slots);
+                } else {
+                    days.remove(day);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void labRemoved(Long labId) {
+        labs.remove(labId);
+    }
+
+    @Override
+    public synchronized void indexRebuilt() {
+        labs.clear();
+    }
+
+    private BitSet compute(Long labId, long epochDay) {
+        long dayStart = epochDay * MINUTES_PER_DAY;
+        long dayEnd = dayStart + MINUTES_PER_DAY;
+        long[] intervals = bookingIntervalIndex.overlappingIntervals(labId, dayStart, dayEnd);
+        if (intervals == null) {
+            return null;
+        }
+        BitSet slots = new BitSet(SLOTS_PER_DAY);
+        for (int i = 0; i < intervals.length; i += 2) {
+            long from = Math.max(intervals[i], dayStart) - dayStart;
+            long to = Math.min(intervals[i + 1], dayEnd) - dayStart;
+            slots.set((int) (from / SLOT_MINUTES), (int) ((to + SLOT_MINUTES - 1) / SLOT_MINUTES));
+        }
+        return slots;
+    }
+}
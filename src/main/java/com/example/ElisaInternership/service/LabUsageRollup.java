@@ -0,0 +1,252 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.LabStatusUsage;
+import com.example.ElisaInternership.dto.MonthStatusUsage;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.repository.LabRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Report rollups kept next to the bookings table: {@code lab_usage_daily}
+ * holds bookings and booked seconds per day, lab and status, and
+ * {@code lab_user_monthly} bookings per month, lab and user. A booking counts
+ * towards the day its start falls in. Writers collect their changes in a
+ * {@link Changes} and apply them in the same transaction as the booking write.
+ */
+@Component
+public class LabUsageRollup {
+    private static final Logger log = LoggerFactory.getLogger(LabUsageRollup.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private LabLockStripes labLockStripes;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${reports.rollup.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    public Changes changes() {
+        return new Changes();
+    }
+
+    public void bookingAdded(Booking booking) {
+        apply(changes().add(booking));
+    }
+
+    public void apply(Changes changes) {
+        List<Object[]> daily = new ArrayList<>();
+        List<Object[]> emptiedDays = new ArrayList<>();
+        Set<YearMonth> months = new HashSet<>();
+        changes.daily.forEach((key, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                months.add(YearMonth.from(key.day()));
+                daily.add(new Object[]{key.day(), key.labId(), key.status().name(), delta[0], delta[1]});
+                if (delta[0] < 0) {
+                    emptiedDays.add(new Object[]{key.day(), key.labId(), key.status().name()});
+                }
+            }
+        });
+        List<Object[]> monthly = new ArrayList<>();
+        List<Object[]> emptiedMonths = new ArrayList<>();
+        changes.monthly.forEach((key, delta) -> {
+            if (delta != 0) {
+                months.add(YearMonth.of(key.month() / 100, key.month() % 100));
+                monthly.add(new Object[]{key.month(), key.labId(), key.userId(), delta});
+                if (delta < 0) {
+                    emptiedMonths.add(new Object[]{key.month(), key.labId(), key.userId()});
+                }
+            }
+        });
+
+        if (!daily.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO lab_usage_daily (usage_day, lab_id, status, bookings, booked_seconds) " +
+                    "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE bookings = bookings + VALUES(bookings), " +
+                    "booked_seconds = booked_seconds + VALUES(booked_seconds)", daily);
+        }
+        if (!emptiedDays.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM lab_usage_daily WHERE usage_day = ? AND lab_id = ? AND status = ? " +
+                    "AND bookings <= 0", emptiedDays);
+        }
+        if (!monthly.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO lab_user_monthly (usage_month, lab_id, user_id, bookings) " +
+                    "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE bookings = bookings + VALUES(bookings)", monthly);
+        }
+        if (!emptiedMonths.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM lab_user_monthly WHERE usage_month = ? AND lab_id = ? " +
+                    "AND user_id = ? AND bookings <= 0", emptiedMonths);
+        }
+        if (!months.isEmpty()) {
+            eventPublisher.publishEvent(ReportDataChanged.bookings(months));
+        }
+    }
+
+    /**
+     * Recomputes both rollups from the bookings table, one lab per task on a
+     * small pool. Each lab is rebuilt in one transaction under its lab lock.
+     * Every caller of {@link #apply} holds the locks of the labs it changes
+     * (booking writes in BookingService, UserService.deleteUser and the
+     * completion sweep), so no delta can be counted both by the recount and on
+     * top of it. Returns the number of labs rebuilt.
+     */
+    public int rebuild() {
+        List<Long> labIds = labRepository.findAllIds();
+        long startedAt = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads))) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Long labId : labIds) {
+                tasks.add(executor.submit(() -> labLockStripes.withLock(labId,
+                        () -> transactionTemplate.execute(status -> rebuildLab(labId)))));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Rollup rebuild was interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Rollup rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        eventPublisher.publishEvent(ReportDataChanged.bookings(null));
+        log.info("Rebuilt lab usage rollups for {} labs in {} ms", labIds.size(),
+                Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+        return labIds.size();
+    }
+
+    private int rebuildLab(Long labId) {
+        jdbcTemplate.update("DELETE FROM lab_usage_daily WHERE lab_id = ?", labId);
+        jdbcTemplate.update("DELETE FROM lab_user_monthly WHERE lab_id = ?", labId);
+        int days = jdbcTemplate.update("INSERT INTO lab_usage_daily (usage_day, lab_id, status, bookings, booked_seconds) " +
+                "SELECT CAST(start_time AS DATE), lab_id, status, COUNT(*), " +
+                "SUM(TIMESTAMPDIFF(SECOND, start_time, end_time)) FROM bookings WHERE lab_id = ? " +
+                "GROUP BY CAST(start_time AS DATE), lab_id, status", labId);
+        jdbcTemplate.update("INSERT INTO lab_user_monthly (usage_month, lab_id, user_id, bookings) " +
+                "SELECT YEAR(start_time) * 100 + MONTH(start_time), lab_id, user_id, COUNT(*) FROM bookings " +
+                "WHERE lab_id = ? GROUP BY YEAR(start_time) * 100 + MONTH(start_time), lab_id, user_id", labId);
+        return days;
+    }
+
+    // Bookings and booked seconds per lab and status for the days in [from, to)
+    public List<LabStatusUsage> usageByLabAndStatus(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT d.lab_id, l.name, d.status, SUM(d.bookings), SUM(d.booked_seconds) " +
+                        "FROM lab_usage_daily d JOIN labs l ON l.id = d.lab_id WHERE d.usage_day >= ? AND d.usage_day < ? " +
+                        "GROUP BY d.lab_id, l.name, d.status",
+                (rs, rowNum) -> new LabStatusUsage(rs.getLong(1), rs.getString(2),
+                        Booking.BookingStatus.valueOf(rs.getString(3)), rs.getLong(4), rs.getLong(5)),
+                from, to);
+    }
+
+    // Bookings and booked seconds per month and status for the months in [from, to)
+    public List<MonthStatusUsage> usageByMonthAndStatus(YearMonth from, YearMonth to) {
+        return jdbcTemplate.query("SELECT YEAR(usage_day) * 100 + MONTH(usage_day), status, SUM(bookings), " +
+                        "SUM(booked_seconds) FROM lab_usage_daily WHERE usage_day >= ? AND usage_day < ? " +
+                        "GROUP BY YEAR(usage_day) * 100 + MONTH(usage_day), status",
+                (rs, rowNum) -> new MonthStatusUsage(YearMonth.of(rs.getInt(1) / 100, rs.getInt(1) % 100),
+                        Booking.BookingStatus.valueOf(rs.getString(2)), rs.getLong(3), rs.getLong(4)),
+                from.atDay(1), to.atDay(1));
+    }
+
+    // Distinct users per lab with a booking starting in the months [from, to)
+    public Map<Long, Long> usersByLab(YearMonth from, YearMonth to) {
+        Map<Long, Long> users = new HashMap<>();
+        jdbcTemplate.query("SELECT lab_id, COUNT(DISTINCT user_id) FROM lab_user_monthly " +
+                        "WHERE usage_month >= ? AND usage_month < ? GROUP BY lab_id",
+                (RowCallbackHandler) rs -> users.put(rs.getLong(1), rs.getLong(2)),
+                monthKey(from), monthKey(to));
+        return users;
+    }
+
+    public long countUsers(YearMonth from, YearMonth to) {
+        Long users = jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT user_id) FROM lab_user_monthly " +
+                "WHERE usage_month >= ? AND usage_month < ?", Long.class, monthKey(from), monthKey(to));
+        return users != null ? users : 0;
+    }
+
+    private static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    private static int monthKey(LocalDateTime time) {
+        return time.getYear() * 100 + time.getMonthValue();
+    }
+
+    private record DayKey(LocalDate day, long labId, Booking.BookingStatus status) {
+    }
+
+    private record MonthKey(int month, long labId, long userId) {
+    }
+
+    /**
+     * Net rollup changes of one unit of work. {@link #remove} a booking's
+     * current state before modifying it and {@link #add} the new state after;
+     * changes that cancel out are never written.
+     */
+    public static final class Changes {
+        private final Map<DayKey, long[]> daily = new LinkedHashMap<>();
+        private final Map<MonthKey, Long> monthly = new LinkedHashMap<>();
+
+        public Changes add(Booking booking) {
+            return record(booking, 1);
+        }
+
+        public Changes remove(Booking booking) {
+            return record(booking, -1);
+        }
+
+        // A status change that leaves lab, user and times alone, as the completion sweep makes
+        public Changes statusChanged(Long labId, LocalDateTime start, LocalDateTime end,
+                                     Booking.BookingStatus from, Booking.BookingStatus to) {
+            day(labId, start, end, from, -1);
+            day(labId, start, end, to, 1);
+            return this;
+        }
+
+        private Changes record(Booking booking, int sign) {
+            Long labId = booking.getLab().getId();
+            day(labId, booking.getStartTime(), booking.getEndTime(), booking.getStatus(), sign);
+            monthly.merge(new MonthKey(monthKey(booking.getStartTime()), labId, booking.getUser().getId()),
+                    (long) sign, Long::sum);
+            return this;
+        }
+
+        private void day(Long labId, LocalDateTime start, LocalDateTime end, Booking.BookingStatus status,
+                         int sign) {
+            long[] delta = daily.computeIfAbsent(new DayKey(start.toLocalDate(), labId, status), key -> new long[2]);
+            delta[0] += sign;
+            delta[1] += sign * Duration.between(start, end).getSeconds();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ElisaInternership.service;
 
 import com.example.ElisaInternership.dto.MaintenanceRequest;
+import com.example.ElisaInternership.dto.MaintenanceSummary;
 import com.example.ElisaInternership.model.Equipment;
 import com.example.ElisaInternership.model.Maintenance;
 import com.example.ElisaInternership.model.User;
@@ -8,6 +9,7 @@ import com.example.ElisaInternership.repository.EquipmentRepository;
 import com.example.ElisaInternership.repository.MaintenanceRepository;
 import com.example.ElisaInternership.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +31,9 @@ public class MaintenanceService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Maintenance createMaintenanceRequest(MaintenanceRequest request, User currentUser) {
         Equipment equipment = equipmentRepository.findById(request.getEquipmentId())
                 .orElseThrow(() -> new RuntimeException("Equipment not found"));
@@ -56,6 +61,7 @@ public class MaintenanceService {
         equipment.setStatus(Equipment.EquipmentStatus.UNDER_MAINTENANCE);
         equipment.setLastMaintenanceDate(LocalDateTime.now());
         equipmentRepository.save(equipment);
+        eventPublisher.publishEvent(ReportDataChanged.equipmentAndMaintenance());
 
         auditService.logAction("MAINTENANCE_CREATED", "Maintenance", maintenance.getId(), currentUser, 
                 "Maintenance request created for equipment: " + equipment.getName());
@@ -74,6 +80,7 @@ public class MaintenanceService {
         maintenance.setStatus(Maintenance.MaintenanceStatus.IN_PROGRESS);
 
         maintenance = maintenanceRepository.save(maintenance);
+        eventPublisher.publishEvent(ReportDataChanged.maintenance());
         auditService.logAction("MAINTENANCE_ASSIGNED", "Maintenance", maintenance.getId(), currentUser, 
                 "Technician assigned to maintenance");
         return maintenance;
@@ -99,6 +106,7 @@ public class MaintenanceService {
         equipment.setStatus(Equipment.EquipmentStatus.AVAILABLE);
         equipment.setLastMaintenanceDate(LocalDateTime.now());
         equipmentRepository.save(equipment);
+        eventPublisher.publishEvent(ReportDataChanged.equipmentAndMaintenance());
 
         auditService.logAction("MAINTENANCE_COMPLETED", "Maintenance", maintenance.getId(), currentUser, 
                 "Maintenance completed");
@@ -118,6 +126,7 @@ public class MaintenanceService {
         }
 
         maintenance = maintenanceRepository.save(maintenance);
+        eventPublisher.publishEvent(ReportDataChanged.maintenance());
         auditService.logAction("MAINTENANCE_UPDATED", "Maintenance", maintenance.getId(), currentUser, 
                 "Maintenance updated");
         return maintenance;
@@ -134,13 +143,14 @@ public class MaintenanceService {
         Equipment equipment = maintenance.getEquipment();
         equipment.setStatus(Equipment.EquipmentStatus.AVAILABLE);
         equipmentRepository.save(equipment);
+        eventPublisher.publishEvent(ReportDataChanged.equipmentAndMaintenance());
 
         auditService.logAction("MAINTENANCE_CANCELLED", "Maintenance", maintenance.getId(), currentUser, 
                 "Maintenance cancelled");
     }
 
-    public List<Maintenance> getAllMaintenance() {
-        return maintenanceRepository.findAll();
+    public List<MaintenanceSummary> getAllMaintenance() {
+        return maintenanceRepository.findAllSummaries();
     }
 
     public Maintenance getMaintenanceById(Long id) {
@@ -0,0 +1,16 @@
+package com.example.ElisaInternership.service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published when a user's login details, role, lab or active flag change,
+ * or the user is deleted, so that {@link CustomUserDetailsService} drops the
+ * cached principals under those usernames once the write commits.
+ */
+public record PrincipalChanged(Set<String> usernames) {
+
+    public static PrincipalChanged of(String... usernames) {
+        return new PrincipalChanged(Set.copyOf(List.of(usernames)));
+    }
+}
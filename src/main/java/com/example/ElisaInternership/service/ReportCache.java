@@ -0,0 +1,147 @@
+package com.example.ElisaInternership.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Computed admin reports, keyed by report and period. Entries live for
+ * {@code reports.cache.ttl-seconds} and the least recently used one is
+ * dropped once {@code reports.cache.max-entries} are held. Writers publish
+ * {@link ReportDataChanged} and only the entries it covers are evicted, after
+ * the writing transaction commits. Callers get their own copy of the top
+ * level map.
+ */
+@Component
+public class ReportCache {
+
+    public enum Report {
+        MONTHLY_USAGE, YEARLY_USAGE, EQUIPMENT, MAINTENANCE, TREND_PERIOD
+    }
+
+    // Usage and trend reports cover the days [from, to); the others have no period
+    public record Key(Report report, LocalDate from, LocalDate to) {
+
+        public static Key of(Report report) {
+            return new Key(report, null, null);
+        }
+
+        public static Key of(Report report, YearMonth from, YearMonth to) {
+            return new Key(report, from.atDay(1), to.atDay(1));
+        }
+
+        boolean covers(YearMonth month) {
+            return from == null || (month.atDay(1).isBefore(to) && month.plusMonths(1).atDay(1).isAfter(from));
+        }
+    }
+
+    private record Entry(Map<String, Object> report, long expiresAt) {
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${reports.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${reports.cache.max-entries:128}")
+    private int maxEntries;
+
+    // Access ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Bumped by every invalidation; a report computed across one is not stored
+    private long version;
+
+    private final Map<Report, Counter> hits = new EnumMap<>(Report.class);
+    private final Map<Report, Counter> misses = new EnumMap<>(Report.class);
+    private Counter expired;
+    private Counter evictedForSize;
+    private Counter invalidated;
+
+    @PostConstruct
+    void registerMetrics() {
+        for (Report report : Report.values()) {
+            hits.put(report, Counter.builder("reports.cache.hits").tag("report", report.name())
+                    .description("Report requests answered from the cache").register(meterRegistry));
+            misses.put(report, Counter.builder("reports.cache.misses").tag("report", report.name())
+                    .description("Report requests that computed the report").register(meterRegistry));
+        }
+        expired = eviction("expired");
+        evictedForSize = eviction("size");
+        invalidated = eviction("invalidated");
+        Gauge.builder("reports.cache.size", this, ReportCache::size)
+                .description("Reports currently cached")
+                .register(meterRegistry);
+    }
+
+    private Counter eviction(String cause) {
+        return Counter.builder("reports.cache.evictions").tag("cause", cause)
+                .description("Reports dropped from the cache").register(meterRegistry);
+    }
+
+    public Map<String, Object> get(Key key, Supplier<Map<String, Object>> loader) {
+        long loadedAt;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    hits.get(key.report()).increment();
+                    return new HashMap<>(entry.report());
+                }
+                entries.remove(key);
+                expired.increment();
+            }
+            loadedAt = version;
+        }
+        misses.get(key.report()).increment();
+
+        Map<String, Object> report = loader.get();
+        synchronized (this) {
+            if (version == loadedAt && maxEntries > 0) {
+                entries.put(key, new Entry(report, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+                Iterator<Key> eldest = entries.keySet().iterator();
+                while (entries.size() > maxEntries) {
+                    eldest.next();
+                    eldest.remove();
+                    evictedForSize.increment();
+                }
+            }
+        }
+        return new HashMap<>(report);
+    }
+
+    // Runs after commit, or straight away when published outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReportDataChanged(ReportDataChanged event) {
+        version++;
+        Iterator<Key> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            Key key = keys.next();
+            if (event.reports().contains(key.report())
+                    && (event.months() == null || event.months().stream().anyMatch(key::covers))) {
+                keys.remove();
+                invalidated.increment();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
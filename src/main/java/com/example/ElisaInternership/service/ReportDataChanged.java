@@ -0,0 +1,37 @@
+package com.example.ElisaInternership.service;
+
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published by writers whose changes show up in the admin reports so that
+ * {@link ReportCache} can drop the affected entries once the write commits.
+ * {@code months} narrows the usage reports to the months whose bookings
+ * changed; null means every month.
+ */
+public record ReportDataChanged(Set<ReportCache.Report> reports, Set<YearMonth> months) {
+
+    public static ReportDataChanged of(ReportCache.Report... reports) {
+        return new ReportDataChanged(EnumSet.copyOf(List.of(reports)), null);
+    }
+
+    public static ReportDataChanged bookings(Set<YearMonth> months) {
+        return new ReportDataChanged(EnumSet.of(ReportCache.Report.MONTHLY_USAGE, ReportCache.Report.YEARLY_USAGE,
+                ReportCache.Report.TREND_PERIOD), months);
+    }
+
+    // Maintenance requests also feed every trend period
+    public static ReportDataChanged maintenance() {
+        return of(ReportCache.Report.MAINTENANCE, ReportCache.Report.TREND_PERIOD);
+    }
+
+    public static ReportDataChanged equipmentAndMaintenance() {
+        return of(ReportCache.Report.EQUIPMENT, ReportCache.Report.MAINTENANCE, ReportCache.Report.TREND_PERIOD);
+    }
+
+    public static ReportDataChanged all() {
+        return new ReportDataChanged(EnumSet.allOf(ReportCache.Report.class), null);
+    }
+}
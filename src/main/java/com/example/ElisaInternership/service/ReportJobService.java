@@ -0,0 +1,268 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.ReportJob;
+import com.example.ElisaInternership.dto.ReportJobRequest;
+import com.example.ElisaInternership.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the {@link ReportService} reports in the background so a slow report
+ * does not hold a request thread. Each job gets its own virtual thread, and a
+ * semaphore bounds how many compute at once
+ * ({@code reports.jobs.max-running}). Admission is limited per user and
+ * overall. Finished jobs keep their result for
+ * {@code reports.jobs.retention-minutes} and only their submitter can see
+ * them.
+ */
+@Service
+public class ReportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    @Autowired
+    private ReportService reportService;
+
+    @Value("${reports.jobs.max-running:4}")
+    private int maxRunning;
+
+    @Value("${reports.jobs.max-active:64}")
+    private int maxActive;
+
+    @Value("${reports.jobs.max-active-per-user:2}")
+    private int maxActivePerUser;
+
+    @Value("${reports.jobs.retention-minutes:30}")
+    private long retentionMinutes;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private Semaphore running;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("report-job-", 0).factory());
+        running = new Semaphore(maxRunning, true);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public ReportJob submit(ReportJobRequest request, User user) {
+        if (request.getType() == ReportJob.Type.MONTHLY_LAB_USAGE && request.getYearMonth() == null) {
+            throw new RuntimeException("yearMonth is required for " + request.getType());
+        }
+        if (request.getType() == ReportJob.Type.YEARLY_LAB_USAGE && request.getYear() == null) {
+            throw new RuntimeException("year is required for " + request.getType());
+        }
+        if ((request.getType() == ReportJob.Type.LAB_OCCUPANCY || request.getType() == ReportJob.Type.TRENDS)
+                && (request.getFrom() == null || request.getTo() == null)) {
+            throw new RuntimeException("from and to are required for " + request.getType());
+        }
+        if (request.getType() == ReportJob.Type.TRENDS) {
+            ReportService.TrendPeriod.parse(trendPeriod(request));
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), request, user.getId());
+        // Admission checks and registration happen together so concurrent submits cannot both squeeze in
+        synchronized (this) {
+            long active = 0;
+            long activeForUser = 0;
+            for (Job existing : jobs.values()) {
+                if (existing.isActive()) {
+                    active++;
+                    if (existing.userId.equals(user.getId())) {
+                        activeForUser++;
+                    }
+                }
+            }
+            if (activeForUser >= maxActivePerUser) {
+                throw new RuntimeException("You already have " + activeForUser +
+                        " report jobs queued or running; wait for one to finish or cancel it");
+            }
+            if (active >= maxActive) {
+                throw new RuntimeException("Too many report jobs are queued; try again later");
+            }
+            jobs.put(job.id, job);
+        }
+        job.future = executor.submit(() -> run(job));
+        return job.snapshot();
+    }
+
+    public List<ReportJob> getJobs(User user) {
+        return jobs.values().stream()
+                .filter(job -> job.userId.equals(user.getId()))
+                .sorted(Comparator.comparing((Job job) -> job.submittedAt).reversed())
+                .map(Job::snapshot)
+                .toList();
+    }
+
+    public ReportJob getJob(String id, User user) {
+        return find(id, user).snapshot();
+    }
+
+    public Map<String, Object> getResult(String id, User user) {
+        return find(id, user).result();
+    }
+
+    /**
+     * Cancels a queued or running job. A job that already finished is
+     * removed along with its result instead.
+     */
+    public ReportJob cancel(String id, User user) {
+        Job job = find(id, user);
+        if (job.finish(ReportJob.Status.CANCELLED, null, null)) {
+            Future<?> future = job.future;
+            if (future != null) {
+                future.cancel(true);
+            }
+        } else {
+            jobs.remove(job.id);
+        }
+        return job.snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${reports.jobs.cleanup-interval-ms:60000}")
+    public void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isExpired(cutoff));
+    }
+
+    private Job find(String id, User user) {
+        Job job = jobs.get(id);
+        if (job == null || !job.userId.equals(user.getId())) {
+            throw new RuntimeException("Report job not found");
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        try {
+            running.acquire();
+        } catch (InterruptedException e) {
+            // Cancelled while waiting for a slot
+            return;
+        }
+        try {
+            if (!job.begin()) {
+                return;
+            }
+            job.finish(ReportJob.Status.SUCCEEDED, compute(job.request), null);
+        } catch (RuntimeException e) {
+            if (job.finish(ReportJob.Status.FAILED, null, e.getMessage())) {
+                log.error("Report job {} ({}) failed", job.id, job.request.getType(), e);
+            }
+        } finally {
+            running.release();
+        }
+    }
+
+    private Map<String, Object> compute(ReportJobRequest request) {
+        return switch (request.getType()) {
+            case MONTHLY_LAB_USAGE -> reportService.getMonthlyLabUsageReport(request.getYearMonth(), false);
+            case YEARLY_LAB_USAGE -> reportService.getYearlyLabUsageReport(request.getYear());
+            case EQUIPMENT_UTILIZATION -> reportService.getEquipmentUtilizationReport();
+            case MAINTENANCE_STATISTICS -> reportService.getMaintenanceStatistics();
+            case LAB_OCCUPANCY -> reportService.getLabOccupancyReport(request.getFrom(), request.getTo());
+            case TRENDS -> reportService.getTrendReport(ReportService.TrendPeriod.parse(trendPeriod(request)),
+                    request.getFrom(), request.getTo());
+        };
+    }
+
+    private static String trendPeriod(ReportJobRequest request) {
+        return request.getPeriod() != null ? request.getPeriod() : "month";
+    }
+
+    private static final class Job {
+        private final String id;
+        private final ReportJobRequest request;
+        private final Long userId;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile Future<?> future;
+        private ReportJob.Status status = ReportJob.Status.QUEUED;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private Map<String, Object> result;
+        private String error;
+
+        private Job(String id, ReportJobRequest request, Long userId) {
+            this.id = id;
+            this.request = request;
+            this.userId = userId;
+        }
+
+        private synchronized boolean isActive() {
+            return status == ReportJob.Status.QUEUED || status == ReportJob.Status.RUNNING;
+        }
+
+        private synchronized boolean isExpired(LocalDateTime cutoff) {
+            return !isActive() && finishedAt.isBefore(cutoff);
+        }
+
+        private synchronized boolean begin() {
+            if (status != ReportJob.Status.QUEUED) {
+                return false;
+            }
+            status = ReportJob.Status.RUNNING;
+            startedAt = LocalDateTime.now();
+            return true;
+        }
+
+        // Any active job can be cancelled, only a running one can succeed or fail
+        private synchronized boolean finish(ReportJob.Status outcome, Map<String, Object> result, String error) {
+            if (status != ReportJob.Status.RUNNING
+                    && !(outcome == ReportJob.Status.CANCELLED && status == ReportJob.Status.QUEUED)) {
+                return false;
+            }
+            this.status = outcome;
+            this.result = result;
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            return true;
+        }
+
+        private synchronized Map<String, Object> result() {
+            if (status != ReportJob.Status.SUCCEEDED) {
+                throw new RuntimeException(status == ReportJob.Status.FAILED
+                        ? "Report job failed: " + error
+                        : "Report job is " + status);
+            }
+            return result;
+        }
+
+        private synchronized ReportJob snapshot() {
+            ReportJob job = new ReportJob();
+            job.setId(id);
+            job.setType(request.getType());
+            job.setYearMonth(request.getYearMonth());
+            job.setYear(request.getYear());
+            job.setFrom(request.getFrom());
+            job.setTo(request.getTo());
+            job.setPeriod(request.getPeriod());
+            job.setStatus(status);
+            job.setSubmittedAt(submittedAt);
+            job.setStartedAt(startedAt);
+            job.setFinishedAt(finishedAt);
+            job.setError(error);
+            return job;
+        }
+    }
+}
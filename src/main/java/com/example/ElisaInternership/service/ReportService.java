@@ -1,22 +1,84 @@
 package com.example.ElisaInternership.service;
 
+import com.example.ElisaInternership.dto.BookingSummary;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.dto.EquipmentStatusCount;
+import com.example.ElisaInternership.dto.LabEquipmentStats;
+import com.example.ElisaInternership.dto.LabMaintenanceStats;
+import com.example.ElisaInternership.dto.LabStatusUsage;
+import com.example.ElisaInternership.dto.LabUsage;
+import com.example.ElisaInternership.dto.MaintenanceStatusCost;
+import com.example.ElisaInternership.dto.MonthStatusUsage;
+import com.example.ElisaInternership.dto.MonthUsage;
+import com.example.ElisaInternership.dto.PageCursor;
 import com.example.ElisaInternership.model.Booking;
 import com.example.ElisaInternership.model.Equipment;
 import com.example.ElisaInternership.model.Maintenance;
+import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.repository.BookingRepository;
 import com.example.ElisaInternership.repository.EquipmentRepository;
 import com.example.ElisaInternership.repository.MaintenanceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
 import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 @Service
+@Transactional(readOnly = true)
 public class ReportService {
+    public enum TrendPeriod {
+        MONTH, WEEK;
+
+        public static TrendPeriod parse(String period) {
+            try {
+                return valueOf(period.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported trend period: " + period + " (use month or week)");
+            }
+        }
+
+        // Weeks are ISO weeks, starting on Monday
+        LocalDate startOf(LocalDate day) {
+            return this == MONTH ? day.withDayOfMonth(1) : day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        LocalDate next(LocalDate start) {
+            return this == MONTH ? start.plusMonths(1) : start.plusWeeks(1);
+        }
+
+        String label(LocalDate start) {
+            return this == MONTH
+                    ? YearMonth.from(start).toString()
+                    : String.format("%d-W%02d", start.get(IsoFields.WEEK_BASED_YEAR),
+                            start.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+        }
+    }
+
     @Autowired
     private BookingRepository bookingRepository;
 
@@ -26,88 +88,390 @@ public class ReportService {
     @Autowired
     private MaintenanceRepository maintenanceRepository;
 
-    public Map<String, Object> getMonthlyLabUsageReport(YearMonth yearMonth) {
-        LocalDateTime start = yearMonth.atDay(1).atStartOfDay();
-        LocalDateTime end = yearMonth.atEndOfMonth().atTime(23, 59, 59);
+    @Autowired
+    private LabUsageRollup labUsageRollup;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private LabOccupancyHeatmap labOccupancyHeatmap;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${reports.trends.parallelism:4}")
+    private int trendParallelism;
+
+    @Value("${reports.trends.max-periods:120}")
+    private int maxTrendPeriods;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private ExecutorService trendExecutor;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        trendExecutor = Executors.newFixedThreadPool(Math.max(1, trendParallelism));
+    }
+
+    @PreDestroy
+    void stop() {
+        trendExecutor.shutdownNow();
+    }
+
+    /**
+     * Booking counts, booked hours and distinct users for the bookings that
+     * start within the month, overall and per lab, read from the daily usage
+     * rollup. Booked hours count APPROVED and COMPLETED bookings only. With
+     * {@code includeBookings} the first page of the underlying bookings is
+     * attached as {@code bookings}. The figures are cached until a booking
+     * in that month changes.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, Object> getMonthlyLabUsageReport(YearMonth yearMonth, boolean includeBookings) {
+        YearMonth to = yearMonth.plusMonths(1);
+        ReportCache.Key key = ReportCache.Key.of(ReportCache.Report.MONTHLY_USAGE, yearMonth, to);
+        Map<String, Object> report = cached(key, () -> {
+            Map<String, Object> usage = getLabUsageReport(yearMonth, to);
+            usage.put("month", yearMonth.toString());
+            return usage;
+        });
+        if (includeBookings) {
+            report.put("bookings", getMonthlyBookings(yearMonth, null, null));
+        }
+        return report;
+    }
+
+    // The monthly report's figures for a whole year, plus a per-month breakdown
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, Object> getYearlyLabUsageReport(Year year) {
+        YearMonth from = year.atMonth(1);
+        YearMonth to = from.plusYears(1);
+        return cached(ReportCache.Key.of(ReportCache.Report.YEARLY_USAGE, from, to),
+                () -> computeYearlyLabUsageReport(year, from, to));
+    }
+
+    private Map<String, Object> computeYearlyLabUsageReport(Year year, YearMonth from, YearMonth to) {
+        Map<String, Object> report = getLabUsageReport(from, to);
+        report.put("year", year.getValue());
+
+        Map<YearMonth, MonthUsage> months = new LinkedHashMap<>();
+        Map<YearMonth, Long> monthSeconds = new HashMap<>();
+        for (YearMonth month = from; month.isBefore(to); month = month.plusMonths(1)) {
+            months.put(month, new MonthUsage(month.toString()));
+        }
+        for (MonthStatusUsage row : labUsageRollup.usageByMonthAndStatus(from, to)) {
+            MonthUsage month = months.get(row.getMonth());
+            month.setTotalBookings(month.getTotalBookings() + row.getBookings());
+            month.getStatusCounts().put(row.getStatus(), row.getBookings());
+            if (countsAsUsage(row.getStatus())) {
+                monthSeconds.merge(row.getMonth(), row.getBookedSeconds(), Long::sum);
+            }
+        }
+        monthSeconds.forEach((month, seconds) -> months.get(month).setBookedHours(toHours(seconds)));
+        report.put("months", new ArrayList<>(months.values()));
+        return report;
+    }
+
+    private Map<String, Object> getLabUsageReport(YearMonth from, YearMonth to) {
+        Map<Long, LabUsage> labs = new HashMap<>();
+        Map<Long, Long> labSeconds = new HashMap<>();
+        Map<Booking.BookingStatus, Long> statusCounts = new EnumMap<>(Booking.BookingStatus.class);
+        long totalBookings = 0;
+        long bookedSeconds = 0;
+        for (LabStatusUsage row : labUsageRollup.usageByLabAndStatus(from.atDay(1), to.atDay(1))) {
+            LabUsage lab = labs.computeIfAbsent(row.getLabId(), id -> new LabUsage(id, row.getLabName()));
+            lab.setTotalBookings(lab.getTotalBookings() + row.getBookings());
+            lab.getStatusCounts().put(row.getStatus(), row.getBookings());
+            statusCounts.merge(row.getStatus(), row.getBookings(), Long::sum);
+            totalBookings += row.getBookings();
+            if (countsAsUsage(row.getStatus())) {
+                labSeconds.merge(row.getLabId(), row.getBookedSeconds(), Long::sum);
+                bookedSeconds += row.getBookedSeconds();
+            }
+        }
+        labUsageRollup.usersByLab(from, to).forEach((labId, users) -> {
+            LabUsage lab = labs.get(labId);
+            if (lab != null) {
+                lab.setUniqueUsers(users);
+            }
+        });
+        labSeconds.forEach((labId, seconds) -> labs.get(labId).setBookedHours(toHours(seconds)));
+        List<LabUsage> labUsage = new ArrayList<>(labs.values());
+        labUsage.sort(Comparator.comparing(LabUsage::getLabName).thenComparing(LabUsage::getLabId));
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("totalBookings", totalBookings);
+        report.put("approvedBookings", statusCounts.getOrDefault(Booking.BookingStatus.APPROVED, 0L));
+        report.put("pendingBookings", statusCounts.getOrDefault(Booking.BookingStatus.PENDING, 0L));
+        report.put("statusCounts", statusCounts);
+        report.put("bookedHours", toHours(bookedSeconds));
+        report.put("uniqueUsers", totalBookings > 0 ? labUsageRollup.countUsers(from, to) : 0L);
+        report.put("labs", labUsage);
+        return report;
+    }
+
+    // Runs outside the class-level read-only transaction; each lab is rebuilt in its own
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> rebuildUsageRollup(User currentUser) {
+        long startedAt = System.currentTimeMillis();
+        int labs = labUsageRollup.rebuild();
+        long elapsed = System.currentTimeMillis() - startedAt;
+        auditService.logAction("USAGE_ROLLUP_REBUILT", "Lab", null, currentUser,
+                "Lab usage rollup rebuilt for " + labs + " labs in " + elapsed + " ms");
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("labs", labs);
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+
+    /**
+     * Occupied minutes and occupancy per weekday and hour for each lab over
+     * the days [from, to), counting APPROVED and COMPLETED bookings. The
+     * overall {@code occupancy} weights each lab by its capacity.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getLabOccupancyReport(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("Report range must end after it starts");
+        }
+        LabOccupancyHeatmap.Heatmap heatmap = labOccupancyHeatmap.compute(from, to);
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("from", from.toString());
+        report.put("to", to.toString());
+        report.put("weekdays", List.of(DayOfWeek.values()));
+        report.put("occupancy", heatmap.occupancy());
+        report.put("labs", heatmap.labs());
+        return report;
+    }
+
+    /**
+     * Booking and maintenance figures for every month or week from the one
+     * containing {@code from} through the one containing {@code to}, in
+     * period order. Periods are computed in parallel
+     * ({@code reports.trends.parallelism}) and cached one by one, so a range
+     * overlapping an earlier one only computes the periods not seen yet.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getTrendReport(TrendPeriod period, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Report range must end after it starts");
+        }
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate start = period.startOf(from); !start.isAfter(to); start = period.next(start)) {
+            if (starts.size() == maxTrendPeriods) {
+                throw new RuntimeException("A trend report covers at most " + maxTrendPeriods + " periods");
+            }
+            starts.add(start);
+        }
 
-        List<Booking> bookings = bookingRepository.findAll().stream()
-                .filter(b -> b.getStartTime().isAfter(start.minusDays(1)) && 
-                            b.getStartTime().isBefore(end.plusDays(1)))
-                .toList();
+        List<Future<Map<String, Object>>> periods = new ArrayList<>(starts.size());
+        for (LocalDate start : starts) {
+            LocalDate end = period.next(start);
+            ReportCache.Key key = new ReportCache.Key(ReportCache.Report.TREND_PERIOD, start, end);
+            periods.add(trendExecutor.submit(() -> cached(key, () -> computeTrendPeriod(start, end))));
+        }
+        List<Map<String, Object>> series = new ArrayList<>(starts.size());
+        try {
+            for (int i = 0; i < starts.size(); i++) {
+                Map<String, Object> point = periods.get(i).get();
+                point.put("period", period.label(starts.get(i)));
+                point.put("start", starts.get(i).toString());
+                series.add(point);
+            }
+        } catch (InterruptedException e) {
+            periods.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Trend report was interrupted");
+        } catch (ExecutionException e) {
+            periods.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Trend report failed: " + e.getCause().getMessage(), e.getCause());
+        }
 
         Map<String, Object> report = new HashMap<>();
-        report.put("month", yearMonth.toString());
-        report.put("totalBookings", bookings.size());
-        report.put("approvedBookings", bookings.stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.APPROVED)
-                .count());
-        report.put("pendingBookings", bookings.stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.PENDING)
-                .count());
-        report.put("bookings", bookings);
+        report.put("granularity", period.name());
+        report.put("from", starts.get(0).toString());
+        report.put("to", period.next(starts.get(starts.size() - 1)).toString());
+        report.put("series", series);
+        return report;
+    }
+
+    /**
+     * One trend period: bookings starting in it (from the usage rollup),
+     * the share of decided bookings that were approved, maintenance
+     * requested in it and the cost of maintenance completed in it.
+     */
+    private Map<String, Object> computeTrendPeriod(LocalDate start, LocalDate end) {
+        Map<Booking.BookingStatus, Long> statusCounts = new EnumMap<>(Booking.BookingStatus.class);
+        long totalBookings = 0;
+        long bookedSeconds = 0;
+        for (LabStatusUsage row : labUsageRollup.usageByLabAndStatus(start, end)) {
+            statusCounts.merge(row.getStatus(), row.getBookings(), Long::sum);
+            totalBookings += row.getBookings();
+            if (countsAsUsage(row.getStatus())) {
+                bookedSeconds += row.getBookedSeconds();
+            }
+        }
+        long approved = statusCounts.getOrDefault(Booking.BookingStatus.APPROVED, 0L)
+                + statusCounts.getOrDefault(Booking.BookingStatus.COMPLETED, 0L);
+        long decided = approved + statusCounts.getOrDefault(Booking.BookingStatus.REJECTED, 0L);
+        Double maintenanceCost = maintenanceRepository.sumCostByStatusBetween(
+                Maintenance.MaintenanceStatus.COMPLETED, start.atStartOfDay(), end.atStartOfDay());
 
+        Map<String, Object> report = new HashMap<>();
+        report.put("end", end.toString());
+        report.put("totalBookings", totalBookings);
+        report.put("statusCounts", statusCounts);
+        report.put("bookedHours", toHours(bookedSeconds));
+        report.put("approvalRate", decided > 0 ? Math.round(approved * 10000.0 / decided) / 100.0 : 0.0);
+        report.put("maintenanceRequests",
+                maintenanceRepository.countRequestedBetween(start.atStartOfDay(), end.atStartOfDay()));
+        report.put("maintenanceCost", maintenanceCost != null ? maintenanceCost : 0.0);
         return report;
     }
 
+    // The bookings behind the monthly report, in start time order
+    public CursorPage<BookingSummary> getMonthlyBookings(YearMonth yearMonth, String cursor, Integer limit) {
+        int size = CursorPage.size(limit);
+        PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor) : null;
+        List<BookingSummary> bookings = bookingRepository.findStartingInRangePage(
+                yearMonth.atDay(1).atStartOfDay(), yearMonth.plusMonths(1).atDay(1).atStartOfDay(),
+                after != null ? after.getTime() : null, after != null ? after.getId() : null,
+                Limit.of(size + 1));
+        return CursorPage.of(bookings, size, last -> new PageCursor(last.getStartTime(), last.getId()));
+    }
+
+    // Cache hits never open a transaction; misses compute in a read-only one (or the caller's)
+    private Map<String, Object> cached(ReportCache.Key key, Supplier<Map<String, Object>> report) {
+        return reportCache.get(key, () -> readOnlyTransaction.execute(status -> report.get()));
+    }
+
+    private static boolean countsAsUsage(Booking.BookingStatus status) {
+        return status == Booking.BookingStatus.APPROVED || status == Booking.BookingStatus.COMPLETED;
+    }
+
+    private static double toHours(long seconds) {
+        return Math.round(seconds / 36.0) / 100.0;
+    }
+
+    // Equipment counts per status, overall and per lab, from one GROUP BY query
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Map<String, Object> getEquipmentUtilizationReport() {
-        List<Equipment> allEquipment = equipmentRepository.findAll();
-        long total = allEquipment.size();
-        long available = allEquipment.stream()
-                .filter(e -> e.getStatus() == Equipment.EquipmentStatus.AVAILABLE)
-                .count();
-        long inUse = allEquipment.stream()
-                .filter(e -> e.getStatus() == Equipment.EquipmentStatus.IN_USE)
-                .count();
-        long underMaintenance = allEquipment.stream()
-                .filter(e -> e.getStatus() == Equipment.EquipmentStatus.UNDER_MAINTENANCE)
-                .count();
-        long broken = allEquipment.stream()
-                .filter(e -> e.getStatus() == Equipment.EquipmentStatus.BROKEN)
-                .count();
+        return cached(ReportCache.Key.of(ReportCache.Report.EQUIPMENT), this::computeEquipmentUtilizationReport);
+    }
+
+    private Map<String, Object> computeEquipmentUtilizationReport() {
+        Map<Long, LabEquipmentStats> labs = new HashMap<>();
+        LabEquipmentStats total = new LabEquipmentStats();
+        for (EquipmentStatusCount row : equipmentRepository.countByLabAndStatus()) {
+            LabEquipmentStats lab = labs.computeIfAbsent(row.getLabId(),
+                    id -> new LabEquipmentStats(id, row.getLabName()));
+            addEquipment(lab, row.getStatus(), row.getCount());
+            addEquipment(total, row.getStatus(), row.getCount());
+        }
+        List<LabEquipmentStats> labStats = new ArrayList<>(labs.values());
+        labStats.forEach(lab -> lab.setUtilizationRate(utilizationRate(lab)));
+        labStats.sort(Comparator.comparing(LabEquipmentStats::getLabName).thenComparing(LabEquipmentStats::getLabId));
 
         Map<String, Object> report = new HashMap<>();
-        report.put("totalEquipment", total);
-        report.put("available", available);
-        report.put("inUse", inUse);
-        report.put("underMaintenance", underMaintenance);
-        report.put("broken", broken);
-        report.put("utilizationRate", total > 0 ? (double)(inUse + underMaintenance) / total * 100 : 0);
+        report.put("totalEquipment", total.getTotalEquipment());
+        report.put("available", total.getAvailable());
+        report.put("inUse", total.getInUse());
+        report.put("underMaintenance", total.getUnderMaintenance());
+        report.put("broken", total.getBroken());
+        report.put("utilizationRate", utilizationRate(total));
+        report.put("labs", labStats);
 
         return report;
     }
 
+    /**
+     * Request counts per status and costs, overall and per lab, from one
+     * GROUP BY query. Averages only count requests that have a cost.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Map<String, Object> getMaintenanceStatistics() {
-        List<Maintenance> allMaintenance = maintenanceRepository.findAll();
-        long total = allMaintenance.size();
-        long pending = allMaintenance.stream()
-                .filter(m -> m.getStatus() == Maintenance.MaintenanceStatus.PENDING)
-                .count();
-        long inProgress = allMaintenance.stream()
-                .filter(m -> m.getStatus() == Maintenance.MaintenanceStatus.IN_PROGRESS)
-                .count();
-        long completed = allMaintenance.stream()
-                .filter(m -> m.getStatus() == Maintenance.MaintenanceStatus.COMPLETED)
-                .count();
-
-        double totalCost = allMaintenance.stream()
-                .filter(m -> m.getCost() != null)
-                .mapToDouble(Maintenance::getCost)
-                .sum();
+        return cached(ReportCache.Key.of(ReportCache.Report.MAINTENANCE), this::computeMaintenanceStatistics);
+    }
+
+    private Map<String, Object> computeMaintenanceStatistics() {
+        Map<Long, LabMaintenanceStats> labs = new HashMap<>();
+        Map<Long, Long> labCosted = new HashMap<>();
+        LabMaintenanceStats total = new LabMaintenanceStats();
+        long costed = 0;
+        long completedCosted = 0;
+        double completedCost = 0;
+        for (MaintenanceStatusCost row : maintenanceRepository.sumCostByLabAndStatus()) {
+            LabMaintenanceStats lab = labs.computeIfAbsent(row.getLabId(),
+                    id -> new LabMaintenanceStats(id, row.getLabName()));
+            addMaintenance(lab, row);
+            addMaintenance(total, row);
+            labCosted.merge(row.getLabId(), row.getCostedRequests(), Long::sum);
+            costed += row.getCostedRequests();
+            if (row.getStatus() == Maintenance.MaintenanceStatus.COMPLETED) {
+                completedCosted += row.getCostedRequests();
+                completedCost += row.getTotalCost();
+            }
+        }
+        List<LabMaintenanceStats> labStats = new ArrayList<>(labs.values());
+        labStats.forEach(lab -> lab.setAverageCost(average(lab.getTotalCost(), labCosted.get(lab.getLabId()))));
+        labStats.sort(Comparator.comparing(LabMaintenanceStats::getLabName)
+                .thenComparing(LabMaintenanceStats::getLabId));
 
         Map<String, Object> report = new HashMap<>();
-        report.put("totalRequests", total);
-        report.put("pending", pending);
-        report.put("inProgress", inProgress);
-        report.put("completed", completed);
-        report.put("totalCost", totalCost);
-        report.put("averageCost", completed > 0 ? totalCost / completed : 0);
+        report.put("totalRequests", total.getTotalRequests());
+        report.put("pending", total.getPending());
+        report.put("inProgress", total.getInProgress());
+        report.put("completed", total.getCompleted());
+        report.put("cancelled", total.getCancelled());
+        report.put("totalCost", total.getTotalCost());
+        report.put("averageCost", average(total.getTotalCost(), costed));
+        report.put("averageCompletedCost", average(completedCost, completedCosted));
+        report.put("labs", labStats);
 
         return report;
     }
-}
-
-
 
+    private static void addEquipment(LabEquipmentStats stats, Equipment.EquipmentStatus status, long count) {
+        stats.setTotalEquipment(stats.getTotalEquipment() + count);
+        switch (status) {
+            case AVAILABLE -> stats.setAvailable(stats.getAvailable() + count);
+            case IN_USE -> stats.setInUse(stats.getInUse() + count);
+            case UNDER_MAINTENANCE -> stats.setUnderMaintenance(stats.getUnderMaintenance() + count);
+            case BROKEN -> stats.setBroken(stats.getBroken() + count);
+        }
+    }
 
+    private static double utilizationRate(LabEquipmentStats stats) {
+        return stats.getTotalEquipment() > 0
+                ? (double) (stats.getInUse() + stats.getUnderMaintenance()) / stats.getTotalEquipment() * 100
+                : 0;
+    }
 
+    private static void addMaintenance(LabMaintenanceStats stats, MaintenanceStatusCost row) {
+        long count = row.getRequests();
+        stats.setTotalRequests(stats.getTotalRequests() + count);
+        stats.setTotalCost(stats.getTotalCost() + row.getTotalCost());
+        switch (row.getStatus()) {
+            case PENDING -> stats.setPending(stats.getPending() + count);
+            case IN_PROGRESS -> stats.setInProgress(stats.getInProgress() + count);
+            case COMPLETED -> stats.setCompleted(stats.getCompleted() + count);
+            case CANCELLED -> stats.setCancelled(stats.getCancelled() + count);
+        }
+    }
 
+    private static double average(double sum, long count) {
+        return count > 0 ? sum / count : 0;
+    }
+}
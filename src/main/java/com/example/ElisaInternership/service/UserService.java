@@ -1,15 +1,21 @@
 package com.example.ElisaInternership.service;
 
+import com.example.ElisaInternership.dto.UserSummary;
 import com.example.ElisaInternership.model.Lab;
 import com.example.ElisaInternership.model.User;
 import com.example.ElisaInternership.repository.LabRepository;
 import com.example.ElisaInternership.repository.UserRepository;
+import com.example.ElisaInternership.security.TokensRevoked;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @Transactional
@@ -29,6 +35,21 @@ public class UserService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private LabUsageRollup labUsageRollup;
+
+    @Autowired
+    private LabLockStripes labLockStripes;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public User createUser(User user, Long labId, User currentUser) {
         if (userRepository.existsByUsername(user.getUsername())) {
             throw new RuntimeException("Username is already taken");
@@ -65,6 +86,13 @@ public class UserService {
             throw new RuntimeException("Email is already in use");
         }
 
+        eventPublisher.publishEvent(PrincipalChanged.of(user.getUsername(), updatedUser.getUsername()));
+        // Tokens carry the username, role and lab, and stateless principals are never reloaded
+        boolean revokeTokens = !user.getUsername().equals(updatedUser.getUsername())
+                || user.getRole() != updatedUser.getRole()
+                || !Objects.equals(user.getActive(), updatedUser.getActive())
+                || !Objects.equals(user.getAssignedLab() != null ? user.getAssignedLab().getId() : null, labId)
+                || (updatedUser.getPassword() != null && !updatedUser.getPassword().isEmpty());
         user.setUsername(updatedUser.getUsername());
         user.setEmail(updatedUser.getEmail());
         user.setFirstName(updatedUser.getFirstName());
@@ -85,6 +113,11 @@ public class UserService {
         }
 
         user = userRepository.save(user);
+        if (revokeTokens) {
+            userRepository.incrementTokenVersion(user.getId());
+            user.setTokenVersion(userRepository.findTokenVersionById(user.getId()).orElseThrow());
+            eventPublisher.publishEvent(new TokensRevoked(user.getId(), user.getTokenVersion()));
+        }
         auditService.logAction("USER_UPDATED", "User", user.getId(), currentUser,
                 "User updated: " + user.getUsername());
         return user;
@@ -96,7 +129,17 @@ public class UserService {
     @Autowired
     private com.example.ElisaInternership.repository.MaintenanceRepository maintenanceRepository;
 
+    // The user's bookings are deleted under the locks of their labs, as any booking write
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteUser(Long id, User currentUser) {
+        List<Long> labIds = bookingRepository.findLabIdsByUserId(id);
+        labLockStripes.withLocks(labIds, () -> transactionTemplate.execute(status -> {
+            deleteUserLocked(id, labIds, currentUser);
+            return null;
+        }));
+    }
+
+    private void deleteUserLocked(Long id, List<Long> lockedLabIds, User currentUser) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -109,9 +152,17 @@ public class UserService {
 
         // Delete user's bookings
         List<com.example.ElisaInternership.model.Booking> userBookings = bookingRepository.findByUserId(user.getId());
+        if (userBookings.stream().anyMatch(booking -> !lockedLabIds.contains(booking.getLab().getId()))) {
+            throw new RuntimeException("User's bookings changed while deleting, please retry");
+        }
         bookingRepository.deleteAll(userBookings);
+        userBookings.forEach(booking -> bookingIntervalIndex.bookingDeleted(booking.getId()));
+        LabUsageRollup.Changes usage = labUsageRollup.changes();
+        userBookings.forEach(usage::remove);
+        labUsageRollup.apply(usage);
 
-        // Update audit logs to remove user reference
+        // Update audit logs to remove user reference, including entries still waiting to be written
+        auditService.flush();
         List<com.example.ElisaInternership.model.AuditLog> userLogs = auditLogRepository.findByUserId(user.getId());
         for (com.example.ElisaInternership.model.AuditLog log : userLogs) {
             log.setUser(null);
@@ -130,10 +181,12 @@ public class UserService {
         auditService.logAction("USER_DELETED", "User", user.getId(), currentUser,
                 "User deleted: " + user.getUsername());
         userRepository.delete(user);
+        eventPublisher.publishEvent(PrincipalChanged.of(user.getUsername()));
+        eventPublisher.publishEvent(TokensRevoked.deleted(user.getId()));
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public List<UserSummary> getAllUsers() {
+        return userRepository.findAllSummaries();
     }
 
     public User getUserById(Long id) {
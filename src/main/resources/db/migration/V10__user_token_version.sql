@@ -0,0 +1,4 @@
+-- Version of the tokens issued to a user (the "ver" claim). Moving it on refuses every
+-- token issued before; kept here so that logouts, deactivations and role changes still
+-- hold after a restart.
+alter table users add column token_version bigint not null default 0;
@@ -0,0 +1,99 @@
+-- Schema as previously maintained by ddl-auto=update. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table users (
+    id bigint not null auto_increment,
+    username varchar(50) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    first_name varchar(100) not null,
+    last_name varchar(100) not null,
+    role enum ('ADMIN','INSTRUCTOR','LAB_MANAGER','STUDENT') not null,
+    active bit,
+    lab_id bigint,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table labs (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    location varchar(255) not null,
+    capacity integer not null,
+    type enum ('ENGLISH_LAB','EXTENSION_104','EXTENSION_108','EXTENSION_204','EXTENSION_209','EXTENSION_310','MAIN_COMPUTER_LAB') not null,
+    lab_manager_id bigint,
+    active bit,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table equipment (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    description varchar(255),
+    serial_number varchar(255) not null,
+    lab_id bigint not null,
+    status enum ('AVAILABLE','BROKEN','IN_USE','UNDER_MAINTENANCE') not null,
+    purchase_date datetime(6),
+    last_maintenance_date datetime(6),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table maintenance (
+    id bigint not null auto_increment,
+    equipment_id bigint not null,
+    requested_by_id bigint not null,
+    assigned_technician_id bigint,
+    description varchar(255) not null,
+    status enum ('CANCELLED','COMPLETED','IN_PROGRESS','PENDING') not null,
+    request_date datetime(6),
+    assigned_date datetime(6),
+    completion_date datetime(6),
+    cost float(53),
+    notes varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table bookings (
+    id bigint not null auto_increment,
+    lab_id bigint not null,
+    user_id bigint not null,
+    start_time datetime(6) not null,
+    end_time datetime(6) not null,
+    purpose varchar(255),
+    status enum ('APPROVED','CANCELLED','COMPLETED','PENDING','REJECTED') not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table audit_logs (
+    id bigint not null auto_increment,
+    action varchar(255) not null,
+    entity_type varchar(255) not null,
+    entity_id bigint,
+    user_id bigint,
+    description varchar(255),
+    ip_address varchar(255),
+    created_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table audit_logs add constraint FKjs4iimve3y0xssbtve5ysyef0 foreign key (user_id) references users (id);
+alter table bookings add constraint FKq3vghws3hhmrh4rof7s992cug foreign key (lab_id) references labs (id);
+alter table bookings add constraint FKeyog2oic85xg7hsu2je2lx3s6 foreign key (user_id) references users (id);
+alter table equipment add constraint FKrjrbn83fkbvxddlvnopvghw5d foreign key (lab_id) references labs (id);
+alter table labs add constraint FKfa9a5d2ovts6t04j0batofg9c foreign key (lab_manager_id) references users (id);
+alter table maintenance add constraint FKnkjyo77tp7t643a2y1hkrnw50 foreign key (assigned_technician_id) references users (id);
+alter table maintenance add constraint FK2aup8ahw6qoupvcgcktsjdvbf foreign key (equipment_id) references equipment (id);
+alter table maintenance add constraint FKcb8k6x68ifbrvdysuf9yru14i foreign key (requested_by_id) references users (id);
+alter table users add constraint FKfqlhprgthm2ik6bn3jig1xrr foreign key (lab_id) references labs (id);
@@ -0,0 +1,18 @@
+-- Indexes matched to the repository queries on the request path.
+
+-- findOverlappingBookings / findApprovedIntervalsInRange: equality on lab and
+-- status, range on start_time; end_time and the implicit id make it covering
+create index idx_bookings_lab_status_time on bookings (lab_id, status, start_time, end_time);
+
+-- findByEntityTypeAndEntityId
+create index idx_audit_logs_entity on audit_logs (entity_type, entity_id);
+
+-- findByCreatedAtBetween, newest-first listings
+create index idx_audit_logs_created on audit_logs (created_at, id);
+
+-- findByStatus / findByLabIdAndStatus
+create index idx_equipment_status on equipment (status);
+create index idx_equipment_lab_status on equipment (lab_id, status);
+
+-- findByStatus
+create index idx_maintenance_status on maintenance (status);
@@ -0,0 +1,2 @@
+-- BookingCompletionSweeper: equality on status, range on end_time
+create index idx_bookings_status_end on bookings (status, end_time);
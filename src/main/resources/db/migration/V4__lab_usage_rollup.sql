@@ -0,0 +1,34 @@
+-- Report rollups maintained by LabUsageRollup. A booking counts towards the
+-- day (and month) its start falls in.
+
+-- Bookings and booked seconds per day, lab and status
+create table lab_usage_daily (
+    usage_day date not null,
+    lab_id bigint not null,
+    status enum ('APPROVED','CANCELLED','COMPLETED','PENDING','REJECTED') not null,
+    bookings int not null,
+    booked_seconds bigint not null,
+    primary key (usage_day, lab_id, status),
+    constraint fk_lab_usage_daily_lab foreign key (lab_id) references labs (id) on delete cascade
+) engine=InnoDB;
+
+-- Bookings per month (yyyymm), lab and user, for distinct user counts
+create table lab_user_monthly (
+    usage_month int not null,
+    lab_id bigint not null,
+    user_id bigint not null,
+    bookings int not null,
+    primary key (usage_month, lab_id, user_id),
+    constraint fk_lab_user_monthly_lab foreign key (lab_id) references labs (id) on delete cascade,
+    constraint fk_lab_user_monthly_user foreign key (user_id) references users (id) on delete cascade
+) engine=InnoDB;
+
+insert into lab_usage_daily (usage_day, lab_id, status, bookings, booked_seconds)
+select cast(start_time as date), lab_id, status, count(*), sum(timestampdiff(second, start_time, end_time))
+from bookings
+group by cast(start_time as date), lab_id, status;
+
+insert into lab_user_monthly (usage_month, lab_id, user_id, bookings)
+select year(start_time) * 100 + month(start_time), lab_id, user_id, count(*)
+from bookings
+group by year(start_time) * 100 + month(start_time), lab_id, user_id;
@@ -0,0 +1,7 @@
+-- Per-period maintenance figures for the trend report (MaintenanceRepository)
+
+-- countRequestedBetween: range on request_date
+create index idx_maintenance_request_date on maintenance (request_date);
+
+-- sumCostByStatusBetween: equality on status, range on completion_date; cost makes it covering
+create index idx_maintenance_status_completion on maintenance (status, completion_date, cost);
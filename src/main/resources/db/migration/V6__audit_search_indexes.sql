@@ -0,0 +1,10 @@
+-- AuditLogRepository.findPage: newest-first keyset pages. Each filter leads an
+-- index ending in (created_at, id), so a filtered page is a short backward
+-- range scan instead of a sort of every matching row.
+
+create index idx_audit_logs_user_created on audit_logs (user_id, created_at, id);
+create index idx_audit_logs_action_created on audit_logs (action, created_at, id);
+
+-- Serves findByEntityTypeAndEntityId too, so it replaces idx_audit_logs_entity
+create index idx_audit_logs_entity_created on audit_logs (entity_type, entity_id, created_at, id);
+drop index idx_audit_logs_entity on audit_logs;
@@ -0,0 +1,9 @@
+-- Audit journal segments already copied into audit_logs by AuditJournal. A
+-- segment is recorded in the same transaction as its rows, so one whose file
+-- outlived a crash after that commit is deleted rather than shipped again.
+create table audit_journal_segments (
+    segment bigint not null,
+    entries int not null,
+    shipped_at datetime(6) not null,
+    primary key (segment)
+) engine=InnoDB;
@@ -0,0 +1,14 @@
+-- Booking ids move from IDENTITY to a pooled sequence (Booking.ID_ALLOCATION_SIZE = 50)
+-- so that inserts can be batched. MySQL has no sequences; Hibernate keeps next_val in
+-- a one-row table.
+alter table bookings modify id bigint not null;
+
+create table bookings_seq (
+    next_val bigint
+) engine=InnoDB;
+
+-- The pooled optimizer hands out the 50 ids ending at the value it reads, so start one
+-- whole block above the highest existing id. An empty table starts at 1, as Hibernate
+-- would for a new sequence.
+insert into bookings_seq (next_val)
+select case when max(id) is null then 1 else (floor(max(id) / 50) + 2) * 50 end from bookings;
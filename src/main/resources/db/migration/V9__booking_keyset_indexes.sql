@@ -0,0 +1,5 @@
+-- BookingRepository.findPage: keyset pages ordered by (start_time, id), unfiltered or
+-- filtered by lab or user. The trailing id serves the tie-break of the seek.
+create index idx_bookings_start on bookings (start_time, id);
+create index idx_bookings_lab_start on bookings (lab_id, start_time, id);
+create index idx_bookings_user_start on bookings (user_id, start_time, id);
@@ -0,0 +1,32 @@
+package com.example.ElisaInternership;
+
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+
+/**
+ * Unsaved labs and users for tests. Fields no test looks at get fixed placeholder values.
+ */
+public final class TestData {
+    private TestData() {
+    }
+
+    public static Lab lab(String name, int capacity) {
+        Lab lab = new Lab();
+        lab.setName(name);
+        lab.setLocation("Block T");
+        lab.setCapacity(capacity);
+        lab.setType(Lab.LabType.EXTENSION_108);
+        return lab;
+    }
+
+    public static User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@auca.rw");
+        user.setPassword("secret123");
+        user.setFirstName(username);
+        user.setLastName("User");
+        user.setRole(role);
+        return user;
+    }
+}
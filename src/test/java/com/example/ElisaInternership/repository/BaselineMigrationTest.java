@@ -0,0 +1,83 @@
+package com.example.ElisaInternership.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A database created by ddl-auto=update before Flyway, with IDENTITY booking
+ * ids and rows in it, is baselined at version 1 and migrated the way
+ * spring.flyway.baseline-on-migrate does at start-up.
+ */
+class BaselineMigrationTest {
+    private static final int BOOKINGS = 120;
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // V1 is exactly the schema ddl-auto=update left behind
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql"))
+                .execute(dataSource);
+        jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name, role, active) " +
+                "VALUES ('old', 'old@auca.rw', 'x', 'Old', 'User', 'STUDENT', true)");
+        jdbcTemplate.update("INSERT INTO labs (name, location, capacity, type, active) " +
+                "VALUES ('Old Lab', 'Block O', 20, 'ENGLISH_LAB', true)");
+        LocalDateTime start = LocalDateTime.of(2024, 3, 4, 9, 0);
+        for (int i = 0; i < BOOKINGS; i++) {
+            jdbcTemplate.update("INSERT INTO bookings (lab_id, user_id, start_time, end_time, status) " +
+                    "VALUES (1, 1, ?, ?, 'COMPLETED')", Timestamp.valueOf(start.plusDays(i)),
+                    Timestamp.valueOf(start.plusDays(i).plusHours(2)));
+        }
+    }
+
+    @Test
+    void existingDatabaseIsBaselinedAndMigrated() {
+        assertEquals(BOOKINGS, jdbcTemplate.queryForObject("SELECT MAX(id) FROM bookings", Long.class));
+
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+        assertEquals("BASELINE", jdbcTemplate.queryForObject(
+                "SELECT type FROM flyway_schema_history WHERE version = '1'", String.class));
+        // Ids are handed out from next_val 200, above the IDENTITY ones
+        long nextVal = jdbcTemplate.queryForObject("SELECT next_val FROM bookings_seq", Long.class);
+        assertEquals(200, nextVal);
+        LocalDateTime later = LocalDateTime.of(2030, 1, 1, 9, 0);
+        jdbcTemplate.update("INSERT INTO bookings (id, lab_id, user_id, start_time, end_time, status) " +
+                "VALUES (?, 1, 1, ?, ?, 'PENDING')", nextVal - 49, Timestamp.valueOf(later),
+                Timestamp.valueOf(later.plusHours(1)));
+
+        List<String> indexes = jdbcTemplate.queryForList("SELECT index_name FROM information_schema.indexes " +
+                "WHERE table_name = 'bookings'", String.class);
+        assertTrue(indexes.containsAll(List.of("idx_bookings_start", "idx_bookings_lab_start",
+                "idx_bookings_user_start", "idx_bookings_lab_status_time", "idx_bookings_status_end")),
+                indexes.toString());
+        assertEquals(BOOKINGS, jdbcTemplate.queryForObject("SELECT SUM(bookings) FROM lab_usage_daily", Long.class));
+    }
+
+    @Test
+    void emptyDatabaseStartsTheSequenceAtOne() {
+        jdbcTemplate.update("DELETE FROM bookings");
+
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT next_val FROM bookings_seq", Long.class));
+    }
+}
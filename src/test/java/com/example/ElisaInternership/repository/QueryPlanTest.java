@@ -0,0 +1,318 @@
+package com.example.ElisaInternership.repository;
+
+import com.example.ElisaInternership.model.Equipment;
+import com.example.ElisaInternership.model.Maintenance;
+import com.example.ElisaInternership.service.AuditArchive;
+import com.example.ElisaInternership.service.AuditLogWriter;
+import com.example.ElisaInternership.service.AuditService;
+import com.example.ElisaInternership.service.BookingCompletionSweeper;
+import com.example.ElisaInternership.service.BookingIntervalIndex;
+import com.example.ElisaInternership.service.LabLockStripes;
+import com.example.ElisaInternership.service.LabUsageRollup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN for the SQL the hot repository queries actually send, as
+ * generated by Hibernate or issued by the services, against the Flyway-migrated
+ * schema (H2 in MySQL mode) holding enough rows for the planner to prefer an
+ * index over a scan.
+ * <p>
+ * MySQL optimizes a prepared statement with the values bound to each execution,
+ * so the {@code (? IS NULL OR ...)} branches of the optional filters fold away.
+ * H2 plans once when preparing, so the bound values are written into the SQL
+ * as literals before it is explained.
+ */
+@DataJpaTest
+@Import({QueryPlanTest.StatementCapture.class, BookingCompletionSweeper.class, AuditService.class,
+        AuditLogWriter.class, AuditArchive.class, BookingIntervalIndex.class, LabUsageRollup.class,
+        LabLockStripes.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final int LABS = 5;
+    private static final int USERS = 20;
+    private static final int ROWS = 2000;
+
+    @Autowired
+    private StatementCapture capture;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Autowired
+    private BookingCompletionSweeper sweeper;
+
+    private long labId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name, role, active) " +
+                    "VALUES (?, ?, 'x', 'Plan', 'Ner', 'STUDENT', true)", "planner" + i, "planner" + i + "@auca.rw");
+        }
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+        for (int i = 0; i < LABS; i++) {
+            jdbcTemplate.update("INSERT INTO labs (name, location, capacity, type, active) " +
+                    "VALUES (?, 'Block P', 20, 'ENGLISH_LAB', true)", "Plan Lab " + i);
+        }
+        List<Long> labIds = jdbcTemplate.queryForList("SELECT id FROM labs ORDER BY id", Long.class);
+        String[] statuses = {"APPROVED", "PENDING", "COMPLETED", "CANCELLED"};
+        List<Object[]> bookings = new ArrayList<>();
+        String[] equipmentStatuses = {"AVAILABLE", "IN_USE", "BROKEN", "UNDER_MAINTENANCE"};
+        List<Object[]> equipment = new ArrayList<>();
+        List<Object[]> auditLogs = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            LocalDateTime start = DAY.plusHours(i);
+            bookings.add(new Object[]{i + 1, labIds.get(i % LABS), userIds.get(i % USERS), Timestamp.valueOf(start),
+                    Timestamp.valueOf(start.plusHours(1)), statuses[i % statuses.length]});
+            equipment.add(new Object[]{"PC " + i, "SN-" + i, labIds.get(i % LABS),
+                    equipmentStatuses[i / LABS % equipmentStatuses.length]});
+            auditLogs.add(new Object[]{"ACTION_" + (i % 20), "ENTITY_" + (i % 10), i, userIds.get(i % USERS),
+                    Timestamp.valueOf(start)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, lab_id, user_id, start_time, end_time, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("INSERT INTO equipment (name, serial_number, lab_id, status) VALUES (?, ?, ?, ?)",
+                equipment);
+        jdbcTemplate.batchUpdate("INSERT INTO audit_logs (action, entity_type, entity_id, user_id, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)", auditLogs);
+        jdbcTemplate.update("ANALYZE");
+        labId = labIds.get(0);
+        userId = userIds.get(0);
+        capture.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM lab_usage_daily");
+        jdbcTemplate.update("DELETE FROM audit_logs");
+        jdbcTemplate.update("DELETE FROM equipment");
+        jdbcTemplate.update("DELETE FROM bookings");
+        jdbcTemplate.update("DELETE FROM labs");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void overlappingBookingsUseLabStatusTimeIndex() {
+        bookingRepository.findOverlappingBookings(labId, DAY.plusHours(10), DAY.plusHours(12));
+        assertUsesIndex("idx_bookings_lab_status_time");
+        bookingRepository.findApprovedIntervalsInRange(labId, DAY, DAY.plusDays(7));
+        assertUsesIndex("idx_bookings_lab_status_time");
+    }
+
+    @Test
+    void completionSweepUsesStatusEndIndex() {
+        sweeper.completeEndedBookings(DAY.plusDays(1));
+        assertUsesIndex("idx_bookings_status_end", "for update");
+    }
+
+    @Test
+    void bookingPagesSeekOnStartTimeIndexes() {
+        bookingRepository.findPage(null, null, null, null, null, DAY.plusHours(10), 42L, Limit.of(21));
+        assertUsesIndex("idx_bookings_start");
+        // H2 does not see that an equality on lab_id leaves (lab_id, start_time, id) sorted by
+        // start_time, so it may take any index on the column; MySQL takes the one that skips the sort
+        bookingRepository.findPage(labId, null, null, null, null, null, null, Limit.of(21));
+        assertSeeksOn("lab_id");
+        bookingRepository.findPage(null, userId, null, null, null, null, null, Limit.of(21));
+        assertSeeksOn("user_id");
+    }
+
+    @Test
+    void auditLookupsUseAuditIndexes() {
+        auditLogRepository.findByEntityTypeAndEntityId("ENTITY_1", 1L);
+        assertUsesIndex("idx_audit_logs_entity_created");
+        auditLogRepository.findPage(userId, null, null, null, null, null, null, null, Limit.of(21));
+        assertSeeksOn("user_id");
+        auditLogRepository.findPage(null, "ACTION_3", null, null, null, null, DAY.plusDays(30), 1000L,
+                Limit.of(21));
+        assertUsesIndex("idx_audit_logs_action_created");
+        auditLogRepository.findByCreatedAtBetween(DAY.plusDays(3), DAY.plusDays(4));
+        assertUsesIndex("idx_audit_logs_created");
+    }
+
+    @Test
+    void statusFiltersUseStatusIndexes() {
+        equipmentRepository.findByStatus(Equipment.EquipmentStatus.BROKEN);
+        assertUsesIndex("idx_equipment_status");
+        equipmentRepository.findByLabIdAndStatus(labId, Equipment.EquipmentStatus.AVAILABLE);
+        assertUsesIndex("idx_equipment_lab_status");
+        maintenanceRepository.findByStatus(Maintenance.MaintenanceStatus.PENDING);
+        assertUsesIndex("idx_maintenance_status");
+    }
+
+    @Test
+    void maintenanceTrendQueriesUseDateIndexes() {
+        maintenanceRepository.countRequestedBetween(DAY, DAY.plusMonths(1));
+        assertUsesIndex("idx_maintenance_request_date");
+        maintenanceRepository.sumCostByStatusBetween(Maintenance.MaintenanceStatus.COMPLETED, DAY,
+                DAY.plusMonths(1));
+        assertUsesIndex("idx_maintenance_status_completion");
+    }
+
+    private void assertUsesIndex(String index, String... containing) {
+        String plan = explain(containing);
+        assertTrue(plan.toLowerCase().contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+
+    private void assertSeeksOn(String column) {
+        String plan = explain();
+        // Looked up by the bound value, not joined through from another table
+        assertTrue(plan.toLowerCase().contains(": " + column + " = cast("),
+                () -> "Expected an index lookup of " + column + " in plan:\n" + plan);
+    }
+
+    /**
+     * Explains the first query sent through the data source since the last
+     * check, or the first one containing the given text. Queries after it
+     * load eager associations.
+     */
+    private String explain(String... containing) {
+        StatementCapture.Executed query = capture.first(containing.length == 0 ? "" : containing[0]);
+        capture.clear();
+        String plan = jdbcTemplate.queryForObject("explain " + query.inlined(), String.class);
+        capture.clear();
+        return plan;
+    }
+
+    /**
+     * Wraps the data source so that every prepared query is recorded together
+     * with the values bound to it.
+     */
+    static class StatementCapture implements BeanPostProcessor {
+        record Executed(String sql, Object[] parameters) {
+            String inlined() {
+                StringBuilder inlined = new StringBuilder();
+                boolean quoted = false;
+                int parameter = 0;
+                for (char c : sql.toCharArray()) {
+                    if (c == '\'') {
+                        quoted = !quoted;
+                    }
+                    if (c == '?' && !quoted) {
+                        inlined.append(literal(parameters[parameter++]));
+                    } else {
+                        inlined.append(c);
+                    }
+                }
+                return inlined.toString();
+            }
+
+            private static String literal(Object value) {
+                if (value == null || value instanceof Number || value instanceof Boolean) {
+                    return String.valueOf(value);
+                }
+                if (value instanceof LocalDateTime dateTime) {
+                    value = Timestamp.valueOf(dateTime);
+                }
+                if (value instanceof Timestamp timestamp) {
+                    return "timestamp '" + timestamp + "'";
+                }
+                return "'" + value.toString().replace("'", "''") + "'";
+            }
+        }
+
+        private final List<Executed> executed = new ArrayList<>();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource)) {
+                return bean;
+            }
+            return proxy(bean, (method, args, result) -> method.getName().equals("getConnection")
+                    ? proxy(result, (connectionMethod, connectionArgs, statement) ->
+                            connectionMethod.getName().equals("prepareStatement")
+                                    ? recording((PreparedStatement) statement, (String) connectionArgs[0])
+                                    : statement)
+                    : result);
+        }
+
+        synchronized Executed first(String containing) {
+            for (Executed query : executed) {
+                if (query.sql().toLowerCase().contains(containing)) {
+                    return query;
+                }
+            }
+            throw new AssertionError("No query containing '" + containing + "' was executed");
+        }
+
+        synchronized void clear() {
+            executed.clear();
+        }
+
+        private synchronized void record(String sql, TreeMap<Integer, Object> parameters) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                executed.add(new Executed(sql, parameters.values().toArray()));
+            }
+        }
+
+        private Object recording(PreparedStatement statement, String sql) {
+            TreeMap<Integer, Object> parameters = new TreeMap<>();
+            return proxy(statement, (method, args, result) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.startsWith("execute")) {
+                    record(sql, parameters);
+                }
+                return result;
+            });
+        }
+
+        private interface AfterCall {
+            Object apply(Method method, Object[] args, Object result) throws Exception;
+        }
+
+        // The statement is recorded after it ran, which is enough for explaining it afterwards
+        private static Object proxy(Object target, AfterCall afterCall) {
+            Class<?>[] interfaces = ClassUtils.getAllInterfaces(target);
+            return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                return afterCall.apply(method, args, result);
+            });
+        }
+    }
+}
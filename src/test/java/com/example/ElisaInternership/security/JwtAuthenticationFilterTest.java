@@ -0,0 +1,139 @@
+package com.example.ElisaInternership.security;
+
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import com.example.ElisaInternership.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+
+import static com.example.ElisaInternership.TestData.lab;
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest(properties = "auth.principal-mode=stateless")
+@Import({JwtAuthenticationFilter.class, JwtUtil.class, TokenRevocations.class, CustomUserDetailsService.class,
+        SimpleMeterRegistry.class})
+class JwtAuthenticationFilterTest {
+    @Autowired
+    private JwtAuthenticationFilter filter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessPrincipalsAreBuiltFromTheTokenAlone() throws Exception {
+        Lab lab = labRepository.save(lab("Token Lab", 20));
+        User user = user("stateless", User.Role.LAB_MANAGER);
+        user.setAssignedLab(lab);
+        user = userRepository.save(user);
+        double misses = misses();
+
+        User principal = (User) authenticate(jwtUtil.generateToken(user)).getPrincipal();
+
+        assertEquals(misses, misses());
+        assertEquals(user.getId(), principal.getId());
+        assertEquals("stateless", principal.getUsername());
+        assertEquals(User.Role.LAB_MANAGER, principal.getRole());
+        assertEquals(lab.getId(), principal.getAssignedLab().getId());
+    }
+
+    @Test
+    void revokedTokensAreRefused() throws Exception {
+        User user = userRepository.save(user("revoked", User.Role.STUDENT));
+        String before = jwtUtil.generateToken(user);
+
+        assertEquals(user.getId(), ((User) authenticate(before).getPrincipal()).getId());
+
+        // As UserService and AuthService publish it once the version bump commits
+        tokenRevocations.onTokensRevoked(new TokensRevoked(user.getId(), 1));
+
+        assertNull(authenticate(before));
+        user.setTokenVersion(1);
+        String after = jwtUtil.generateToken(user);
+        assertEquals(user.getId(), ((User) authenticate(after).getPrincipal()).getId());
+    }
+
+    @Test
+    void storedVersionsAreReadOnFirstUse() throws Exception {
+        User user = userRepository.save(user("restarted", User.Role.STUDENT));
+        String before = jwtUtil.generateToken(user);
+
+        // Revoked before a restart: nothing in memory knows about it
+        jdbcTemplate.update("UPDATE users SET token_version = 3 WHERE id = ?", user.getId());
+
+        assertNull(authenticate(before));
+        user.setTokenVersion(3);
+        assertEquals(user.getId(), ((User) authenticate(jwtUtil.generateToken(user)).getPrincipal()).getId());
+    }
+
+    @Test
+    void tokensOfDeletedUsersAreRefused() throws Exception {
+        User user = userRepository.save(user("removed", User.Role.STUDENT));
+        String token = jwtUtil.generateToken(user);
+
+        userRepository.delete(user);
+        userRepository.flush();
+
+        assertNull(authenticate(token));
+    }
+
+    @Test
+    void tokensWithoutUserIdsStillLoadTheUser() throws Exception {
+        User user = userRepository.save(user("legacy", User.Role.INSTRUCTOR));
+        double misses = misses();
+
+        User principal = (User) authenticate(jwtUtil.generateToken(user, user.getRole().name())).getPrincipal();
+
+        assertEquals(misses + 1, misses());
+        assertEquals(user.getId(), principal.getId());
+    }
+
+    private Authentication authenticate(String token) throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/labs");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private double misses() {
+        return meterRegistry.get("auth.principal.cache.misses").counter().count();
+    }
+}
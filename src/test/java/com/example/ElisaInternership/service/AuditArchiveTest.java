@@ -0,0 +1,148 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.AuditLogFilter;
+import com.example.ElisaInternership.dto.AuditLogSummary;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Days are archived in their own transactions, so the test data has to be committed
+@DataJpaTest(properties = {"audit.retention.days=30", "audit.retention.delete-batch-size=2",
+        "audit.retention.directory=" + AuditArchiveTest.DIRECTORY})
+@Import({AuditService.class, AuditLogWriter.class, AuditArchive.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditArchiveTest {
+    static final String DIRECTORY = "target/audit-archive-test";
+
+    private static final LocalDate OLD = LocalDate.now().minusDays(40);
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditArchive auditArchive;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Three old days of 3, 2 and 3 entries, and two recent entries
+        insert("BOOKING_APPROVED", "Booking", OLD.atTime(9, 0));
+        insert("LAB_UPDATED", "Lab", OLD.atTime(10, 0));
+        insert("BOOKING_APPROVED", "Booking", OLD.atTime(10, 0));
+        insert("BOOKING_APPROVED", "Booking", OLD.plusDays(1).atTime(8, 0));
+        insert("BOOKING_REJECTED", "Booking", OLD.plusDays(1).atTime(18, 0));
+        insert("USER_CREATED", "User", OLD.plusDays(3).atTime(7, 0));
+        insert("BOOKING_APPROVED", "Booking", OLD.plusDays(3).atTime(7, 30));
+        insert("LAB_UPDATED", "Lab", OLD.plusDays(3).atTime(23, 59, 59));
+        insert("BOOKING_APPROVED", "Booking", LocalDateTime.now().minusDays(1));
+        insert("LAB_UPDATED", "Lab", LocalDateTime.now().minusHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        auditLogRepository.deleteAll();
+        try (Stream<Path> files = Files.walk(Path.of(DIRECTORY))) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing was archived
+        }
+        auditArchive.load();
+    }
+
+    @Test
+    void oldDaysAreMovedToOneFilePerDay() {
+        assertEquals(8, auditArchive.archive());
+
+        assertEquals(2, auditLogRepository.count());
+        List<AuditArchive.Day> days = auditArchive.getDays();
+        assertEquals(List.of(OLD, OLD.plusDays(1), OLD.plusDays(3)), days.stream().map(AuditArchive.Day::day).toList());
+        assertEquals(3, days.get(0).entries());
+        assertEquals(Set.of("Booking", "Lab"), days.get(0).entityTypes());
+        assertEquals(OLD.plusDays(3).atTime(23, 59, 59), days.get(2).newest());
+        assertTrue(Files.exists(Path.of(DIRECTORY, "audit-" + OLD + ".ndjson.gz")));
+        assertEquals(0, auditArchive.archive());
+    }
+
+    @Test
+    void searchPagesCarryOnIntoArchivedDays() {
+        List<AuditLogSummary> before = walk(new AuditLogFilter());
+        auditArchive.archive();
+
+        assertEquals(10, before.size());
+        List<AuditLogSummary> after = walk(new AuditLogFilter());
+        assertEquals(before.stream().map(AuditLogSummary::getId).toList(),
+                after.stream().map(AuditLogSummary::getId).toList());
+
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setEntityType("Lab");
+        filter.setTo(OLD.plusDays(2).atStartOfDay());
+        assertEquals(1, walk(filter).size());
+        filter = new AuditLogFilter();
+        filter.setAction("BOOKING_APPROVED");
+        assertEquals(5, walk(filter).size());
+    }
+
+    @Test
+    void lateEntriesForAnArchivedDayAreMergedIntoIt() {
+        auditArchive.archive();
+        insert("LATE", "Booking", OLD.atTime(12, 0));
+
+        assertEquals(1, auditArchive.archive());
+        assertEquals(4, auditArchive.getDays().get(0).entries());
+        assertEquals(2, auditLogRepository.count());
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setFrom(OLD.atStartOfDay());
+        filter.setTo(OLD.plusDays(1).atStartOfDay());
+        List<AuditLogSummary> day = walk(filter);
+        assertEquals(4, day.size());
+        assertEquals("LATE", day.get(0).getAction());
+    }
+
+    // Every page of a search, with pages of two to cross day boundaries mid-page
+    private List<AuditLogSummary> walk(AuditLogFilter filter) {
+        List<AuditLogSummary> entries = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<AuditLogSummary> page = auditService.searchAuditLogs(filter, cursor, 2);
+            entries.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return entries;
+    }
+
+    private void insert(String action, String entityType, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO audit_logs (action, entity_type, entity_id, description, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)", action, entityType, 1L, "Archive test", createdAt);
+    }
+}
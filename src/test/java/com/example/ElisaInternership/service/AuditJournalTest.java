@@ -0,0 +1,168 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.model.AuditLog;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Segments are shipped in their own transactions, so the test data has to be committed
+@DataJpaTest(properties = {"audit.sink=journal", "audit.journal.directory=" + AuditJournalTest.DIRECTORY,
+        "audit.journal.segment-size=1024"})
+@Import({AuditService.class, AuditLogWriter.class, AuditArchive.class, AuditJournal.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditJournalTest {
+    static final String DIRECTORY = "target/audit-journal-test";
+
+    private static final LocalDateTime AT = LocalDateTime.of(2030, 5, 6, 9, 30, 0, 123_000_000);
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Runs before the context, so the journal starts empty
+    @BeforeAll
+    static void clearJournal() throws IOException {
+        Path directory = Path.of(DIRECTORY);
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditJournal.compact();
+        auditLogRepository.deleteAll();
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM audit_journal_segments");
+    }
+
+    @Test
+    void entriesStayInTheJournalUntilCompacted() throws IOException {
+        // About 90 bytes each, so they span several 1 KB segments
+        auditJournal.submit(events(40));
+        auditService.flush();
+
+        assertEquals(0, auditLogRepository.count());
+        List<AuditEvent> all = auditJournal.read(AT, AT.plusHours(1), 100);
+        assertEquals(events(40), all);
+        List<AuditEvent> window = auditJournal.read(AT.plusMinutes(10), AT.plusMinutes(15), 100);
+        assertEquals(events(40).subList(10, 15), window);
+        assertEquals(3, auditJournal.read(AT, AT.plusHours(1), 3).size());
+
+        assertEquals(40, auditJournal.compact());
+        assertEquals(40, auditLogRepository.count());
+        assertEquals(0, auditJournal.read(AT, AT.plusHours(1), 100).size());
+        assertEquals(0, segmentFiles(".sealed").size());
+        assertEquals(0, auditJournal.compact());
+    }
+
+    @Test
+    void appendedEntriesSurviveARestart() throws Exception {
+        auditJournal.submit(events(5));
+        auditJournal.stop();
+        auditJournal.start();
+        auditJournal.submit(List.of(new AuditEvent("AFTER_RESTART", "Lab", 1L, null, null, null, AT.plusHours(1))));
+
+        List<AuditEvent> entries = auditJournal.read(AT, AT.plusDays(1), 100);
+        assertEquals(6, entries.size());
+        assertEquals(events(5), entries.subList(0, 5));
+        assertEquals(6, auditJournal.compact());
+    }
+
+    @Test
+    void segmentsAreShippedOnceAndKeepEntriesOfDeletedUsers() throws IOException {
+        User user = new User();
+        user.setUsername("journal-user");
+        user.setEmail("journal-user@auca.rw");
+        user.setPassword("secret123");
+        user.setFirstName("Journal");
+        user.setLastName("User");
+        user.setRole(User.Role.ADMIN);
+        user = userRepository.save(user);
+        auditService.logAction("USER_ACTION", "User", user.getId(), user, "Done before deletion");
+        userRepository.delete(user);
+        auditJournal.submit(events(20));
+
+        // A segment whose file survived a crash right after it was shipped
+        Path sealed = segmentFiles(".sealed").get(0);
+        Path copy = sealed.resolveSibling("copy");
+        Files.copy(sealed, copy);
+        assertEquals(21, auditJournal.compact());
+        Files.move(copy, sealed, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(0, auditJournal.compact());
+        assertFalse(Files.exists(sealed));
+
+        assertEquals(21, auditLogRepository.count());
+        AuditLog entry = auditLogRepository.findAll().stream()
+                .filter(log -> log.getAction().equals("USER_ACTION"))
+                .findFirst()
+                .orElseThrow();
+        assertNull(entry.getUser());
+        assertEquals("Done before deletion", entry.getDescription());
+    }
+
+    @Test
+    void refusedRowsDoNotHoldBackTheirSegment() {
+        List<AuditEvent> events = new ArrayList<>(events(3));
+        events.set(1, new AuditEvent("TOO_LONG", "Booking", 1L, null, "x".repeat(300), null, AT));
+        auditJournal.submit(events);
+
+        assertEquals(2, auditJournal.compact());
+        assertEquals(2, auditLogRepository.count());
+        assertEquals(0, auditJournal.compact());
+    }
+
+    private static List<AuditEvent> events(int count) {
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(new AuditEvent("JOURNALLED", "Booking", (long) i, null, "Entry " + i,
+                    i % 2 == 0 ? "10.0.0.1" : null, AT.plusMinutes(i)));
+        }
+        return events;
+    }
+
+    private static List<Path> segmentFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(DIRECTORY))) {
+            return files.filter(path -> path.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+}
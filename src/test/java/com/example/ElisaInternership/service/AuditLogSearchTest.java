@@ -0,0 +1,119 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.AuditLogFilter;
+import com.example.ElisaInternership.dto.AuditLogSummary;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({AuditService.class, AuditLogWriter.class, AuditArchive.class, SimpleMeterRegistry.class})
+class AuditLogSearchTest {
+    private static final LocalDateTime AT = LocalDateTime.of(2030, 5, 6, 9, 0);
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("audit-search-user");
+        user.setEmail("audit-search-user@auca.rw");
+        user.setPassword("secret123");
+        user.setFirstName("Audit");
+        user.setLastName("Search");
+        user.setRole(User.Role.ADMIN);
+        user = userRepository.saveAndFlush(user);
+
+        // Every third entry shares its timestamp with the one before, so pages have to break ties on id
+        for (int i = 0; i < 12; i++) {
+            LocalDateTime createdAt = AT.plusMinutes(i - i / 3);
+            insert(i % 2 == 0 ? "BOOKING_APPROVED" : "LAB_UPDATED", i % 2 == 0 ? "Booking" : "Lab", (long) i % 4,
+                    i < 6 ? user.getId() : null, createdAt);
+        }
+    }
+
+    @Test
+    void pagesWalkEveryEntryNewestFirstWithoutGapsOrRepeats() {
+        List<AuditLogSummary> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<AuditLogSummary> page = auditService.searchAuditLogs(new AuditLogFilter(), cursor, 5);
+            assertTrue(page.getItems().size() <= 5);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(12, seen.size());
+        assertEquals(12, seen.stream().map(AuditLogSummary::getId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            AuditLogSummary newer = seen.get(i - 1);
+            AuditLogSummary older = seen.get(i);
+            assertTrue(newer.getCreatedAt().isAfter(older.getCreatedAt())
+                    || newer.getCreatedAt().equals(older.getCreatedAt()) && newer.getId() > older.getId());
+        }
+    }
+
+    @Test
+    void filtersCombine() {
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setUserId(user.getId());
+        filter.setAction("BOOKING_APPROVED");
+        CursorPage<AuditLogSummary> page = auditService.searchAuditLogs(filter, null, null);
+        assertEquals(3, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertTrue(page.getItems().stream().allMatch(entry -> "audit-search-user".equals(entry.getUsername())));
+
+        filter = new AuditLogFilter();
+        filter.setEntityType("Lab");
+        filter.setEntityId(1L);
+        filter.setFrom(AT.plusMinutes(1));
+        filter.setTo(AT.plusMinutes(6));
+        page = auditService.searchAuditLogs(filter, null, null);
+        // Entries 1 and 5 are Lab #1; entry 9 is too late
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.getItems().stream().allMatch(entry -> entry.getEntityId() == 1L));
+    }
+
+    @Test
+    void badCursorsAndRangesAreRejected() {
+        assertThrows(RuntimeException.class,
+                () -> auditService.searchAuditLogs(new AuditLogFilter(), "not-a-cursor", 5));
+        AuditLogFilter filter = new AuditLogFilter();
+        filter.setFrom(AT);
+        filter.setTo(AT);
+        assertThrows(RuntimeException.class, () -> auditService.searchAuditLogs(filter, null, null));
+        assertNotNull(auditService.searchAuditLogs(new AuditLogFilter(), null, 1).getNextCursor());
+    }
+
+    private void insert(String action, String entityType, Long entityId, Long userId, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO audit_logs (action, entity_type, entity_id, user_id, description, " +
+                "created_at) VALUES (?, ?, ?, ?, ?, ?)", action, entityType, entityId, userId, "Search test",
+                createdAt);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.model.AuditLog;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"audit.writer.batch-size=4", "audit.writer.spill-file=" + AuditLogWriterTest.SPILL_FILE})
+@Import({AuditService.class, AuditLogWriter.class, AuditArchive.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditLogWriterTest {
+    static final String SPILL_FILE = "target/audit-writer-test-spill.ndjson";
+
+    private static final LocalDateTime AT = LocalDateTime.of(2030, 5, 6, 9, 30, 0);
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        auditLogWriter.flush();
+        auditLogRepository.deleteAll();
+        Files.deleteIfExists(Path.of(SPILL_FILE));
+    }
+
+    @Test
+    void entriesAreWrittenInBatchesWithTheirCapturedTimeAndAddress() {
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(new AuditEvent("BATCHED", "Booking", (long) i, null, "Entry " + i, "10.0.0.1", AT));
+        }
+        auditLogWriter.submit(events);
+        auditLogWriter.flush();
+
+        List<AuditLog> written = auditLogRepository.findAll();
+        assertEquals(10, written.size());
+        assertTrue(written.stream().allMatch(entry -> AT.equals(entry.getCreatedAt())
+                && "10.0.0.1".equals(entry.getIpAddress())));
+        assertTrue(meterRegistry.get("audit.flush.duration").timer().count() >= 3);
+        assertEquals(0, auditLogWriter.queueDepth());
+    }
+
+    @Test
+    void entriesWaitForTheirTransactionToCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            auditService.logAction("ROLLED_BACK", "Lab", 1L, null, "Never happened");
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                auditService.logAction("COMMITTED", "Lab", 2L, null, "Happened"));
+        auditLogWriter.flush();
+
+        List<AuditLog> written = auditLogRepository.findAll();
+        assertEquals(1, written.size());
+        assertEquals("COMMITTED", written.get(0).getAction());
+        assertNull(written.get(0).getUser());
+    }
+
+    @Test
+    void refusedRowsAreSpilledWithoutLosingTheRestOfTheBatch() throws IOException {
+        double spilledBefore = meterRegistry.get("audit.entries.spilled").counter().count();
+        auditLogWriter.submit(List.of(
+                new AuditEvent("GOOD", "Lab", 1L, null, "First", null, AT),
+                new AuditEvent("ORPHAN", "Lab", 2L, -1L, "Unknown user", null, AT),
+                new AuditEvent("GOOD", "Lab", 3L, null, "Second", null, AT)));
+        auditLogWriter.flush();
+
+        assertEquals(2, auditLogRepository.count());
+        assertEquals(spilledBefore + 1, meterRegistry.get("audit.entries.spilled").counter().count());
+        assertTrue(Files.readString(Path.of(SPILL_FILE)).contains("\"ORPHAN\""));
+
+        // Still refused on replay, so it is dropped rather than kept forever
+        double rejectedBefore = meterRegistry.get("audit.entries.dropped").tag("reason", "rejected").counter().count();
+        auditLogWriter.replaySpillFile();
+        assertEquals(rejectedBefore + 1,
+                meterRegistry.get("audit.entries.dropped").tag("reason", "rejected").counter().count());
+        assertFalse(Files.exists(Path.of(SPILL_FILE)));
+        assertEquals(2, auditLogRepository.count());
+    }
+}
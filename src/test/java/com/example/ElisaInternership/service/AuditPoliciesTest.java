@@ -0,0 +1,110 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.model.AuditLog;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Entries are inserted by the writer thread, so the test data has to be committed
+@DataJpaTest(properties = "audit.policies=USER_LOGIN=AGGREGATED, LAB_VIEWED=SAMPLED:3")
+@Import({AuditService.class, AuditLogWriter.class, AuditArchive.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditPoliciesTest {
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 5, 6, 9, 0);
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        auditService.flush();
+        auditLogRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void aggregatedActionsAreWrittenAsOneCountPerUser() {
+        User alice = userRepository.save(user("alice", User.Role.STUDENT));
+        User bob = userRepository.save(user("bob", User.Role.STUDENT));
+        for (int i = 0; i < 5; i++) {
+            auditService.logAction("USER_LOGIN", "User", alice.getId(), alice, "User logged in");
+        }
+        for (int i = 0; i < 3; i++) {
+            auditService.logAction("USER_LOGIN", "User", bob.getId(), bob, "User logged in");
+        }
+        auditService.logAction("LAB_UPDATED", "Lab", 1L, alice, "Updated");
+        auditService.flush();
+
+        List<AuditLog> entries = auditLogRepository.findAll();
+        assertEquals(3, entries.size());
+        AuditLog aliceLogins = find(entries, alice);
+        assertTrue(aliceLogins.getDescription().startsWith("5 x USER_LOGIN from "));
+        assertNull(aliceLogins.getEntityId());
+        assertTrue(find(entries, bob).getDescription().startsWith("3 x USER_LOGIN from "));
+    }
+
+    @Test
+    void sampledActionsKeepOneEntryInN() {
+        for (int i = 0; i < 7; i++) {
+            auditService.logAction("LAB_VIEWED", "Lab", (long) i, null, "Viewed");
+        }
+        auditService.flush();
+
+        List<AuditLog> entries = auditLogRepository.findAll();
+        assertEquals(List.of(0L, 3L, 6L), entries.stream().map(AuditLog::getEntityId).sorted().toList());
+        assertTrue(entries.stream().allMatch(entry -> entry.getDescription().equals("Viewed (1 in 3 sampled)")));
+    }
+
+    @Test
+    void hourlyCountersAreWrittenOnceTheirHourIsOver() {
+        AuditPolicies policies = new AuditPolicies("USER_LOGIN=AGGREGATED", new SimpleMeterRegistry());
+        assertEquals(List.of(), policies.admit(List.of(login(NINE.plusMinutes(10)), login(NINE.plusMinutes(50)),
+                login(NINE.plusMinutes(65)))));
+
+        assertEquals(List.of(), policies.drain(NINE.plusHours(1).plusSeconds(30), false));
+        List<AuditEvent> nine = policies.drain(NINE.plusHours(1).plus(AuditPolicies.GRACE), false);
+        assertEquals(1, nine.size());
+        assertEquals(NINE, nine.get(0).createdAt());
+        assertEquals("2 x USER_LOGIN from 2030-05-06 09:00 to 2030-05-06 10:00 (aggregated)",
+                nine.get(0).description());
+
+        // A flush writes the open hour too, and its counting starts again
+        List<AuditEvent> ten = policies.drain(NINE.plusMinutes(70), true);
+        assertEquals(1, ten.size());
+        assertTrue(ten.get(0).description().startsWith("1 x "));
+        assertEquals(List.of(), policies.drain(NINE.plusMinutes(80), true));
+    }
+
+    private static AuditEvent login(LocalDateTime at) {
+        return new AuditEvent("USER_LOGIN", "User", 7L, 7L, "User logged in", "10.0.0.1", at);
+    }
+
+    private static AuditLog find(List<AuditLog> entries, User user) {
+        return entries.stream()
+                .filter(entry -> entry.getAction().equals("USER_LOGIN") && entry.getUser().getId().equals(user.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
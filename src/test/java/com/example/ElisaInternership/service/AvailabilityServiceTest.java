@@ -0,0 +1,149 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.LabSummary;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.ElisaInternership.TestData.lab;
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opening hours 08:00-20:00 and 30-minute slots, from application.properties
+@DataJpaTest
+@Import({AvailabilityService.class, LabSlotBitmap.class, BookingIntervalIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AvailabilityServiceTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 5, 6, 0, 0);
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Lab lab;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(user("availability-user", User.Role.STUDENT));
+        lab = labRepository.save(lab("Availability Lab", 30));
+        bookingIntervalIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void bookingsStartingBeforeTheWindowStillBlockIt() {
+        save(lab, DAY.minusHours(2), DAY.withHour(9).withMinute(10), Booking.BookingStatus.APPROVED);
+
+        assertEquals(List.of("09:30-12:00"), free(DAY.withHour(8), DAY.withHour(12)));
+    }
+
+    @Test
+    void adjacentAndOverlappingBookingsAreMergedIntoOneBusyStretch() {
+        save(lab, DAY.withHour(10), DAY.withHour(11), Booking.BookingStatus.APPROVED);
+        save(lab, DAY.withHour(11), DAY.withHour(11).withMinute(40), Booking.BookingStatus.APPROVED);
+        save(lab, DAY.withHour(11).withMinute(20), DAY.withHour(12), Booking.BookingStatus.APPROVED);
+        save(lab, DAY.withHour(13), DAY.withHour(14), Booking.BookingStatus.PENDING);
+
+        assertEquals(List.of("09:00-10:00", "12:00-15:00"), free(DAY.withHour(9), DAY.withHour(15)));
+    }
+
+    @Test
+    void freeSlotsAreAlignedToTheGridAtWindowEdges() {
+        assertEquals(List.of("08:30-19:30"),
+                free(DAY.withHour(8).withMinute(10), DAY.withHour(19).withMinute(50)));
+
+        // A gap shorter than one slot once aligned is dropped; opening hours cut a window spanning midnight
+        save(lab, DAY.withHour(9), DAY.withHour(10).withMinute(10), Booking.BookingStatus.APPROVED);
+        save(lab, DAY.withHour(10).withMinute(40), DAY.withHour(11), Booking.BookingStatus.APPROVED);
+        assertEquals(List.of("08:00-09:00", "11:00-12:00"), free(DAY.withHour(8), DAY.withHour(12)));
+        assertEquals(List.of("18:00-20:00", "08:00-09:00"), free(DAY.withHour(18), DAY.plusDays(1).withHour(9)));
+    }
+
+    @Test
+    void labSearchReturnsFreeLabsWithEnoughSeatsSmallestFirst() {
+        Lab large = labRepository.save(lab("Large Lab", 60));
+        Lab busy = labRepository.save(lab("Busy Lab", 25));
+        Lab closed = labRepository.save(lab("Closed Lab", 40));
+        closed.setActive(false);
+        labRepository.save(closed);
+        labRepository.save(lab("Small Lab", 10));
+        save(busy, DAY.withHour(10), DAY.withHour(11), Booking.BookingStatus.APPROVED);
+        save(large, DAY.withHour(10), DAY.withHour(11), Booking.BookingStatus.PENDING);
+
+        assertEquals(List.of("Availability Lab", "Large Lab"), search(20, DAY.withHour(10).withMinute(30),
+                DAY.withHour(12)));
+        assertEquals(List.of("Busy Lab", "Availability Lab", "Large Lab"), search(20, DAY.withHour(11),
+                DAY.withHour(12)));
+        // Across midnight, the next day's slots are checked too
+        save(large, DAY.plusDays(1).withHour(1), DAY.plusDays(1).withHour(2), Booking.BookingStatus.APPROVED);
+        assertEquals(List.of("Busy Lab", "Availability Lab"), search(20, DAY.withHour(22),
+                DAY.plusDays(1).withHour(6)));
+    }
+
+    @Test
+    void bookingsOffTheSlotGridOnlyBlockTheMinutesTheyCover() {
+        save(lab, DAY.withHour(9), DAY.withHour(10).withMinute(5), Booking.BookingStatus.APPROVED);
+        save(lab, DAY.withHour(10).withMinute(50), DAY.withHour(11).withMinute(10), Booking.BookingStatus.APPROVED);
+
+        assertEquals(List.of("Availability Lab"), search(1, DAY.withHour(10).withMinute(5),
+                DAY.withHour(10).withMinute(50)));
+        assertEquals(List.of(), search(1, DAY.withHour(10), DAY.withHour(10).withMinute(30)));
+        assertEquals(List.of(), search(1, DAY.withHour(10).withMinute(45), DAY.withHour(10).withMinute(55)));
+    }
+
+    private List<String> search(int capacity, LocalDateTime start, LocalDateTime end) {
+        return availabilityService.findAvailableLabs(null, capacity, start, end).stream()
+                .map(LabSummary::getName)
+                .toList();
+    }
+
+    private List<String> free(LocalDateTime start, LocalDateTime end) {
+        return availabilityService.getFreeSlots(lab.getId(), start, end, null).stream()
+                .map(slot -> slot.getStart().toLocalTime() + "-" + slot.getEnd().toLocalTime())
+                .toList();
+    }
+
+    private Booking save(Lab bookedLab, LocalDateTime start, LocalDateTime end, Booking.BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setLab(bookedLab);
+        booking.setUser(user);
+        booking.setStartTime(start);
+        booking.setEndTime(end);
+        booking.setStatus(status);
+        booking = bookingRepository.save(booking);
+        bookingIntervalIndex.bookingSaved(booking);
+        return booking;
+    }
+}
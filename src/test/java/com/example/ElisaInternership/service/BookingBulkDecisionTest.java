@@ -0,0 +1,152 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.BookingDecision;
+import com.example.ElisaInternership.dto.BulkDecisionResponse;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.ElisaInternership.TestData.lab;
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({BookingService.class, AuditService.class, AuditLogWriter.class, AuditArchive.class, BookingIntervalIndex.class,
+        LabLockStripes.class, LabUsageRollup.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingBulkDecisionTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 5, 6, 0, 0);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    private User student;
+    private User manager;
+    private Lab lab;
+
+    @BeforeEach
+    void setUp() {
+        student = userRepository.save(user("bulk-student", User.Role.STUDENT));
+        manager = userRepository.save(user("bulk-manager", User.Role.LAB_MANAGER));
+        lab = labRepository.save(lab("Bulk Lab", 30));
+        bookingIntervalIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLogWriter.flush();
+        auditLogRepository.deleteAll();
+        bookingRepository.deleteAll();
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void approvesInOneSweepAndRejectsOverlappingRequests() {
+        Booking existing = save(10, 0, 11, 0, Booking.BookingStatus.APPROVED);
+        Booking early = save(9, 0, 10, 0, Booking.BookingStatus.PENDING);
+        Booking overlapsEarly = save(9, 30, 10, 30, Booking.BookingStatus.PENDING);
+        Booking overlapsExisting = save(10, 30, 11, 30, Booking.BookingStatus.PENDING);
+        Booking noon = save(12, 0, 13, 0, Booking.BookingStatus.PENDING);
+        Booking overlapsNoon = save(12, 30, 13, 30, Booking.BookingStatus.PENDING);
+        Booking declined = save(14, 0, 15, 0, Booking.BookingStatus.PENDING);
+        Booking revoked = save(16, 0, 17, 0, Booking.BookingStatus.APPROVED);
+        Booking replacement = save(16, 0, 17, 0, Booking.BookingStatus.PENDING);
+
+        BulkDecisionResponse response = bookingService.decideBookings(List.of(
+                approve(overlapsNoon), approve(noon), approve(early), approve(overlapsExisting),
+                reject(declined), reject(revoked), approve(replacement),
+                new BookingDecision(-1L, BookingDecision.Decision.APPROVE)), manager);
+
+        assertEquals(List.of(early.getId(), noon.getId(), replacement.getId()), response.getApproved());
+        assertEquals(List.of(declined.getId(), revoked.getId()), response.getRejected());
+        assertEquals(List.of(overlapsEarly.getId(), overlapsNoon.getId()), response.getAutoRejected());
+        assertEquals("Overlaps approved booking " + existing.getId(),
+                response.getSkipped().get(overlapsExisting.getId()));
+        assertEquals("Booking not found", response.getSkipped().get(-1L));
+        assertFalse(response.getSkipped().containsKey(overlapsNoon.getId()));
+
+        assertStatus(Booking.BookingStatus.APPROVED, early, noon, replacement, existing);
+        assertStatus(Booking.BookingStatus.REJECTED, declined, revoked, overlapsEarly, overlapsNoon);
+        assertStatus(Booking.BookingStatus.PENDING, overlapsExisting);
+        auditLogWriter.flush();
+        assertEquals(7, auditLogRepository.count());
+
+        // The index saw every change: the replaced slot is still taken, the revoked one did not linger
+        assertTrue(bookingIntervalIndex.hasOverlap(lab.getId(), DAY.withHour(16), DAY.withHour(17), null));
+        assertFalse(bookingIntervalIndex.hasOverlap(lab.getId(), DAY.withHour(14), DAY.withHour(15), null));
+    }
+
+    @Test
+    void rejectsDuplicateBookingIds() {
+        Booking booking = save(9, 0, 10, 0, Booking.BookingStatus.PENDING);
+
+        assertThrows(RuntimeException.class,
+                () -> bookingService.decideBookings(List.of(approve(booking), reject(booking)), manager));
+        assertStatus(Booking.BookingStatus.PENDING, booking);
+    }
+
+    private void assertStatus(Booking.BookingStatus expected, Booking... bookings) {
+        for (Booking booking : bookings) {
+            assertEquals(expected, bookingRepository.findById(booking.getId()).orElseThrow().getStatus(),
+                    "status of booking " + booking.getId());
+        }
+    }
+
+    private BookingDecision approve(Booking booking) {
+        return new BookingDecision(booking.getId(), BookingDecision.Decision.APPROVE);
+    }
+
+    private BookingDecision reject(Booking booking) {
+        return new BookingDecision(booking.getId(), BookingDecision.Decision.REJECT);
+    }
+
+    private Booking save(int startHour, int startMinute, int endHour, int endMinute, Booking.BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setLab(lab);
+        booking.setUser(student);
+        booking.setStartTime(DAY.withHour(startHour).withMinute(startMinute));
+        booking.setEndTime(DAY.withHour(endHour).withMinute(endMinute));
+        booking.setStatus(status);
+        booking = bookingRepository.save(booking);
+        bookingIntervalIndex.bookingSaved(booking);
+        return booking;
+    }
+}
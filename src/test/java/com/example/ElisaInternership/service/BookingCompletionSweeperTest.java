@@ -0,0 +1,142 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.model.AuditLog;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "booking.completion.batch-size=2")
+@Import({BookingCompletionSweeper.class, AuditService.class, AuditLogWriter.class, AuditArchive.class,
+        BookingIntervalIndex.class, LabUsageRollup.class, LabLockStripes.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingCompletionSweeperTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 5, 6, 0, 0);
+
+    @Autowired
+    private BookingCompletionSweeper sweeper;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    private User student;
+    private Lab lab;
+
+    @BeforeEach
+    void setUp() {
+        student = new User();
+        student.setUsername("sweep-student");
+        student.setEmail("sweep-student@auca.rw");
+        student.setPassword("secret123");
+        student.setFirstName("Sweep");
+        student.setLastName("User");
+        student.setRole(User.Role.STUDENT);
+        student = userRepository.save(student);
+        lab = new Lab();
+        lab.setName("Sweep Lab");
+        lab.setLocation("Block C");
+        lab.setCapacity(30);
+        lab.setType(Lab.LabType.EXTENSION_108);
+        lab = labRepository.save(lab);
+        bookingIntervalIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLogWriter.flush();
+        auditLogRepository.deleteAll();
+        bookingRepository.deleteAll();
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void completesEndedApprovedBookingsInChunks() {
+        List<Booking> ended = List.of(
+                save(8, 9, Booking.BookingStatus.APPROVED),
+                save(9, 10, Booking.BookingStatus.APPROVED),
+                save(10, 11, Booking.BookingStatus.APPROVED),
+                save(11, 12, Booking.BookingStatus.APPROVED));
+        Booking endsAtCutoff = save(12, 13, Booking.BookingStatus.APPROVED);
+        Booking running = save(12, 14, Booking.BookingStatus.APPROVED);
+        Booking pending = save(8, 9, Booking.BookingStatus.PENDING);
+
+        assertEquals(4, sweeper.completeEndedBookings(DAY.withHour(13)));
+
+        ended.forEach(booking -> assertStatus(Booking.BookingStatus.COMPLETED, booking));
+        assertStatus(Booking.BookingStatus.APPROVED, endsAtCutoff, running);
+        assertStatus(Booking.BookingStatus.PENDING, pending);
+
+        auditLogWriter.flush();
+        List<AuditLog> audits = auditLogRepository.findAll();
+        assertEquals(1, audits.size());
+        assertEquals("BOOKINGS_COMPLETED", audits.get(0).getAction());
+        assertEquals(4.0, meterRegistry.get("booking.completion.sweep.completed").counter().count());
+        assertEquals(1, meterRegistry.get("booking.completion.sweep.duration").timer().count());
+
+        // Completed intervals left the index, the ones still APPROVED stayed
+        assertFalse(bookingIntervalIndex.hasOverlap(lab.getId(), DAY.withHour(8), DAY.withHour(12), null));
+        assertTrue(bookingIntervalIndex.hasOverlap(lab.getId(), DAY.withHour(12), DAY.withHour(13), null));
+
+        assertEquals(0, sweeper.completeEndedBookings(DAY.withHour(13)));
+        auditLogWriter.flush();
+        assertEquals(1, auditLogRepository.count());
+    }
+
+    private void assertStatus(Booking.BookingStatus expected, Booking... bookings) {
+        for (Booking booking : bookings) {
+            assertEquals(expected, bookingRepository.findById(booking.getId()).orElseThrow().getStatus(),
+                    "status of booking " + booking.getId());
+        }
+    }
+
+    private Booking save(int startHour, int endHour, Booking.BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setLab(lab);
+        booking.setUser(student);
+        booking.setStartTime(DAY.withHour(startHour));
+        booking.setEndTime(DAY.withHour(endHour));
+        booking.setStatus(status);
+        booking = bookingRepository.save(booking);
+        bookingIntervalIndex.bookingSaved(booking);
+        return booking;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.BookingRequest;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.ElisaInternership.TestData.lab;
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({BookingService.class, AuditService.class, AuditLogWriter.class, AuditArchive.class, BookingIntervalIndex.class,
+        LabLockStripes.class, LabUsageRollup.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingConcurrencyTest {
+    private static final LocalDateTime SLOT_START = LocalDateTime.of(2030, 3, 4, 10, 0);
+    private static final LocalDateTime SLOT_END = SLOT_START.plusHours(2);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    private User instructor;
+
+    @BeforeEach
+    void setUp() {
+        instructor = userRepository.save(user("concurrent-instructor", User.Role.INSTRUCTOR));
+        bookingIntervalIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLogWriter.flush();
+        auditLogRepository.deleteAll();
+        bookingRepository.deleteAll();
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exactlyOneRequestWinsASingleSlot() throws Exception {
+        Lab lab = labRepository.save(lab("Concurrent Lab 0", 30));
+        Map<Long, AtomicInteger> wins = fire(List.of(lab), 300);
+
+        assertEquals(1, wins.get(lab.getId()).get());
+        assertEquals(1, bookingRepository.findOverlappingBookings(lab.getId(), SLOT_START, SLOT_END).size());
+    }
+
+    @Test
+    void exactlyOneRequestWinsPerSlotAcrossManyLabs() throws Exception {
+        List<Lab> labs = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            labs.add(labRepository.save(lab("Concurrent Lab " + i, 30)));
+        }
+        Map<Long, AtomicInteger> wins = fire(labs, 10);
+
+        for (Lab lab : labs) {
+            assertEquals(1, wins.get(lab.getId()).get(), "winners for lab " + lab.getName());
+            assertEquals(1, bookingRepository.findOverlappingBookings(lab.getId(), SLOT_START, SLOT_END).size());
+        }
+        assertEquals(labs.size(), bookingRepository.count());
+    }
+
+    private Map<Long, AtomicInteger> fire(List<Lab> labs, int requestsPerLab) throws Exception {
+        Map<Long, AtomicInteger> wins = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Callable<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < requestsPerLab; i++) {
+            for (Lab lab : labs) {
+                wins.putIfAbsent(lab.getId(), new AtomicInteger());
+                requests.add(() -> {
+                    BookingRequest request = new BookingRequest();
+                    request.setLabId(lab.getId());
+                    request.setStartTime(SLOT_START);
+                    request.setEndTime(SLOT_END);
+                    request.setPurpose("Concurrent booking");
+                    try {
+                        Booking booking = bookingService.createBooking(request, instructor);
+                        assertEquals(Booking.BookingStatus.APPROVED, booking.getStatus());
+                        wins.get(lab.getId()).incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertEquals("Lab is already booked for this time slot", e.getMessage());
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> request : requests) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                return request.call();
+            }));
+        }
+        long started = System.nanoTime();
+        startGate.countDown();
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(requests.size(), conflicts.get() + labs.size());
+        System.out.printf("%d booking requests across %d labs in %d ms (%.0f req/s), %d conflicts%n",
+                requests.size(), labs.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                requests.size() / (elapsedNanos / 1_000_000_000.0), conflicts.get());
+        return wins;
+    }
+}
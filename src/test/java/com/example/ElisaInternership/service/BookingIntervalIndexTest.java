@@ -0,0 +1,176 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(BookingIntervalIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingIntervalIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 7, 0, 0);
+    private static final int WINDOW_MINUTES = 7 * 24 * 60;
+
+    @Autowired
+    private BookingIntervalIndex index;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Random random = new Random(42);
+    private final List<Lab> labs = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("index-user");
+        user.setEmail("index-user@auca.rw");
+        user.setPassword("secret123");
+        user.setFirstName("Index");
+        user.setLastName("User");
+        user.setRole(User.Role.INSTRUCTOR);
+        user = userRepository.save(user);
+
+        for (int i = 0; i < 3; i++) {
+            Lab lab = new Lab();
+            lab.setName("Lab " + i);
+            lab.setLocation("Building " + i);
+            lab.setCapacity(20 + i);
+            lab.setType(Lab.LabType.MAIN_COMPUTER_LAB);
+            labs.add(labRepository.save(lab));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void fallsBackToQueryWhileLoading() {
+        BookingIntervalIndex loading = new BookingIntervalIndex();
+        ReflectionTestUtils.setField(loading, "bookingRepository", bookingRepository);
+        Booking booking = bookingRepository.save(newBooking(labs.get(0), 60, 120, Booking.BookingStatus.APPROVED));
+
+        assertFalse(loading.isReady());
+        assertTrue(loading.hasOverlap(labs.get(0).getId(), BASE.plusMinutes(90), BASE.plusMinutes(150), null));
+        assertFalse(loading.hasOverlap(labs.get(0).getId(), BASE.plusMinutes(90), BASE.plusMinutes(150),
+                booking.getId()));
+        assertFalse(loading.hasOverlap(labs.get(0).getId(), BASE.plusMinutes(120), BASE.plusMinutes(180), null));
+    }
+
+    @Test
+    void matchesSqlForRandomizedBookings() {
+        for (int i = 0; i < 300; i++) {
+            bookingRepository.save(randomBooking());
+        }
+        index.rebuild();
+        assertTrue(index.isReady());
+        assertMatchesSql(500);
+
+        // Status transitions, moves and deletes must keep the index in step with the table
+        List<Booking> all = bookingRepository.findAll();
+        for (int i = 0; i < 200; i++) {
+            Booking booking = all.get(random.nextInt(all.size()));
+            int action = random.nextInt(4);
+            if (action == 3) {
+                bookingRepository.delete(booking);
+                index.bookingDeleted(booking.getId());
+                all.remove(booking);
+            } else {
+                if (action == 0) {
+                    booking.setStatus(randomStatus());
+                } else if (action == 1) {
+                    booking.setLab(labs.get(random.nextInt(labs.size())));
+                } else {
+                    int start = random.nextInt(WINDOW_MINUTES);
+                    booking.setStartTime(BASE.plusMinutes(start));
+                    booking.setEndTime(BASE.plusMinutes(start + 15 + random.nextInt(240)));
+                }
+                index.bookingSaved(bookingRepository.save(booking));
+            }
+            if (all.size() < 50) {
+                Booking created = bookingRepository.save(randomBooking());
+                index.bookingSaved(created);
+                all.add(created);
+            }
+        }
+        assertMatchesSql(500);
+    }
+
+    private void assertMatchesSql(int queries) {
+        for (int i = 0; i < queries; i++) {
+            Long labId = labs.get(random.nextInt(labs.size())).getId();
+            int start = random.nextInt(WINDOW_MINUTES);
+            LocalDateTime from = BASE.plusMinutes(start);
+            LocalDateTime to = BASE.plusMinutes(start + 1 + random.nextInt(300));
+
+            List<Booking> sql = bookingRepository.findOverlappingBookings(labId, from, to);
+            Set<Long> expected = sql.stream().map(Booking::getId).collect(Collectors.toSet());
+
+            assertEquals(expected, new HashSet<>(index.findOverlapping(labId, from, to)),
+                    "overlap mismatch for lab " + labId + " " + from + " - " + to);
+            assertEquals(!expected.isEmpty(), index.hasOverlap(labId, from, to, null));
+            if (!expected.isEmpty()) {
+                Long excluded = expected.iterator().next();
+                assertEquals(expected.size() > 1, index.hasOverlap(labId, from, to, excluded));
+            }
+        }
+    }
+
+    private Booking randomBooking() {
+        int start = random.nextInt(WINDOW_MINUTES);
+        return newBooking(labs.get(random.nextInt(labs.size())), start, start + 15 + random.nextInt(240),
+                randomStatus());
+    }
+
+    private Booking.BookingStatus randomStatus() {
+        return random.nextInt(3) == 0
+                ? Booking.BookingStatus.values()[random.nextInt(Booking.BookingStatus.values().length)]
+                : Booking.BookingStatus.APPROVED;
+    }
+
+    private Booking newBooking(Lab lab, int startMinute, int endMinute, Booking.BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setLab(lab);
+        booking.setUser(user);
+        booking.setStartTime(BASE.plusMinutes(startMinute));
+        booking.setEndTime(BASE.plusMinutes(endMinute));
+        booking.setPurpose("Randomized booking");
+        booking.setStatus(status);
+        return booking;
+    }
+}
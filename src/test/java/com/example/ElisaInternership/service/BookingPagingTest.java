@@ -0,0 +1,132 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.BookingFilter;
+import com.example.ElisaInternership.dto.BookingSummary;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.dto.PageCursor;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.example.ElisaInternership.TestData.lab;
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import({BookingService.class, AuditService.class, AuditLogWriter.class, AuditArchive.class, BookingIntervalIndex.class,
+        LabLockStripes.class, LabUsageRollup.class, SimpleMeterRegistry.class})
+class BookingPagingTest {
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 5, 6, 9, 0);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Lab lab;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(user("paging-user", User.Role.STUDENT));
+        lab = labRepository.save(lab("Paging Lab", 30));
+        Lab other = labRepository.save(lab("Other Lab", 30));
+
+        // Three bookings start at nine, so only their ids order them
+        save(lab, user, NINE.plusHours(3));
+        save(other, user, NINE);
+        save(lab, user, NINE);
+        save(lab, user, NINE.plusDays(1));
+        save(other, user, NINE.plusHours(1));
+        save(lab, user, NINE);
+        save(other, user, NINE.minusDays(1));
+        bookings.sort(Comparator.comparing(Booking::getStartTime).thenComparing(Booking::getId));
+    }
+
+    @Test
+    void pagesFollowStartTimeThenIdAcrossTies() {
+        for (int limit = 1; limit <= 8; limit++) {
+            assertEquals(bookings.stream().map(Booking::getId).toList(), walk(new BookingFilter(), limit),
+                    "limit " + limit);
+        }
+    }
+
+    @Test
+    void lastPageHasNoCursorEvenWhenItIsFull() {
+        BookingFilter filter = new BookingFilter();
+        filter.setLabId(lab.getId());
+
+        CursorPage<BookingSummary> first = bookingService.getBookings(filter, null, 2);
+        CursorPage<BookingSummary> second = bookingService.getBookings(filter, first.getNextCursor(), 2);
+
+        assertEquals(2, second.getItems().size());
+        assertNull(second.getNextCursor());
+        assertEquals(4, bookingService.getBookings(filter, null, 4).getItems().size());
+        assertNull(bookingService.getBookings(filter, null, 4).getNextCursor());
+    }
+
+    @Test
+    void cursorsRoundTripAndMalformedOnesAreRejected() {
+        PageCursor cursor = PageCursor.decode(new PageCursor(NINE.plusSeconds(1).plusNanos(5000), 42L).encode());
+        assertEquals(NINE.plusSeconds(1).plusNanos(5000), cursor.getTime());
+        assertEquals(42L, cursor.getId());
+
+        for (String malformed : List.of("not a cursor", encode("2030-05-06T09:00"), encode("yesterday|42"),
+                encode("2030-05-06T09:00|x"))) {
+            RuntimeException e = assertThrows(RuntimeException.class,
+                    () -> bookingService.getBookings(new BookingFilter(), malformed, 10));
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+        assertThrows(RuntimeException.class, () -> bookingService.getBookings(new BookingFilter(), null, 0));
+    }
+
+    private List<Long> walk(BookingFilter filter, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<BookingSummary> page = bookingService.getBookings(filter, cursor, limit);
+            page.getItems().forEach(booking -> ids.add(booking.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void save(Lab bookedLab, User user, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setLab(bookedLab);
+        booking.setUser(user);
+        booking.setStartTime(start);
+        booking.setEndTime(start.plusHours(1));
+        booking.setStatus(Booking.BookingStatus.PENDING);
+        bookings.add(bookingRepository.save(booking));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.config.DataInitializer;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.EquipmentRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// DataInitializer creates the sample data, which each test removes again
+@DataJpaTest(properties = {"spring.datasource.hikari.maximum-pool-size=" + BookingSequenceTest.POOL_SIZE,
+        "spring.datasource.hikari.connection-timeout=2000"})
+@Import({DataInitializer.class, LabUsageRollup.class, LabLockStripes.class, BCryptPasswordEncoder.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingSequenceTest {
+    static final int POOL_SIZE = 3;
+    private static final LocalDateTime PAST = LocalDateTime.of(2020, 1, 6, 9, 0);
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataInitializer.run();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM lab_usage_daily");
+        equipmentRepository.deleteAll();
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void idsStayUniqueAfterAligningWithRowsInsertedUnderIdentity() throws Exception {
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        Lab lab = labRepository.findAll().get(0);
+        // Rows written with IDENTITY ids before the switch, and a sequence that never saw them
+        long first = jdbcTemplate.queryForObject("SELECT next_val FROM bookings_seq", Long.class) + 100;
+        long end = first + 200;
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = first; id < end; id++) {
+            rows.add(new Object[]{id, lab.getId(), admin.getId(), PAST.plusDays(id), PAST.plusDays(id).plusHours(1)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, lab_id, user_id, start_time, end_time, status) " +
+                "VALUES (?, ?, ?, ?, ?, 'COMPLETED')", rows);
+        jdbcTemplate.update("UPDATE bookings_seq SET next_val = 1");
+        long before = bookingRepository.count();
+
+        dataInitializer.run();
+
+        // More than two allocations, so ids come from the aligned table and not only the cached block
+        List<Booking> bookings = bookingRepository.saveAll(completed(lab, admin, 3 * Booking.ID_ALLOCATION_SIZE));
+
+        Set<Long> ids = new HashSet<>();
+        bookings.forEach(booking -> ids.add(booking.getId()));
+        assertEquals(bookings.size(), ids.size());
+        assertEquals(before + bookings.size(), bookingRepository.count());
+        assertTrue(ids.stream().anyMatch(id -> id >= end));
+        assertTrue(jdbcTemplate.queryForObject("SELECT next_val FROM bookings_seq", Long.class) > end);
+    }
+
+    @Test
+    void newIdBlocksDoNotWaitForThePool() throws Exception {
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        Lab lab = labRepository.findAll().get(0);
+        List<Booking> bookings = completed(lab, admin, 2 * Booking.ID_ALLOCATION_SIZE + 1);
+
+        // Only the saving transaction's connection is left, so reserving a block from the pool would time out
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 1; i < POOL_SIZE; i++) {
+                held.add(dataSource.getConnection());
+            }
+            assertEquals(bookings.size(), bookingRepository.saveAll(bookings).size());
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+
+    private static List<Booking> completed(Lab lab, User user, int count) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Booking booking = new Booking();
+            booking.setLab(lab);
+            booking.setUser(user);
+            booking.setStartTime(PAST.minusDays(i + 1));
+            booking.setEndTime(PAST.minusDays(i + 1).plusHours(1));
+            booking.setStatus(Booking.BookingStatus.COMPLETED);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+}
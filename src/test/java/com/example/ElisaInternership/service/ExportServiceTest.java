@@ -0,0 +1,154 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.model.AuditLog;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ExportService.class, ReportService.class, ReportCache.class, LabOccupancyHeatmap.class, LabUsageRollup.class,
+        LabLockStripes.class, AuditService.class, AuditLogWriter.class, AuditArchive.class, SimpleMeterRegistry.class,
+        JacksonAutoConfiguration.class})
+class ExportServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 6, 3);
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private LabUsageRollup labUsageRollup;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Lab lab;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        reportCache.onReportDataChanged(ReportDataChanged.all());
+        lab = new Lab();
+        lab.setName("Export Lab");
+        lab.setLocation("Block E");
+        lab.setCapacity(20);
+        lab.setType(Lab.LabType.EXTENSION_108);
+        lab = labRepository.save(lab);
+        user = new User();
+        user.setUsername("export-user");
+        user.setEmail("export-user@auca.rw");
+        user.setPassword("secret123");
+        user.setFirstName("Export");
+        user.setLastName("User");
+        user.setRole(User.Role.INSTRUCTOR);
+        user = userRepository.save(user);
+
+        saveBooking(DAY.atTime(9, 0), "Networks, lab \"A\"", Booking.BookingStatus.APPROVED);
+        saveBooking(DAY.atTime(8, 0), "=HYPERLINK(\"x\")", Booking.BookingStatus.PENDING);
+        saveBooking(DAY.plusDays(1).atTime(8, 0), "Next day", Booking.BookingStatus.APPROVED);
+    }
+
+    @Test
+    void bookingsAreWrittenAsCsvInStartOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportBookings(DAY, DAY.plusDays(1), ExportService.Format.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals("id,labId,labName,userId,username,startTime,endTime,purpose,status,createdAt", lines.get(0));
+        assertTrue(lines.get(1).contains(
+                ",2030-06-03T08:00:00,2030-06-03T09:00:00,\"'=HYPERLINK(\"\"x\"\")\",PENDING,"), lines.get(1));
+        assertTrue(lines.get(2).contains(",\"Networks, lab \"\"A\"\"\",APPROVED,"), lines.get(2));
+    }
+
+    @Test
+    void auditLogsAreWrittenAsNdjson() throws IOException {
+        saveAudit("BOOKING_CREATED", DAY.atTime(10, 0), user);
+        saveAudit("USER_DELETED", DAY.atTime(11, 0), null);
+        saveAudit("BOOKING_CREATED", DAY.minusDays(1).atTime(10, 0), user);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportAuditLogs(DAY, DAY.plusDays(1), ExportService.Format.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("BOOKING_CREATED", first.get("action").asText());
+        assertEquals("export-user", first.get("username").asText());
+        assertEquals("2030-06-03T10:00:00", first.get("createdAt").asText());
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals("USER_DELETED", second.get("action").asText());
+        assertTrue(second.get("userId").isNull());
+    }
+
+    @Test
+    void monthlyLabUsageRowsCarryStatusCounts() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportMonthlyLabUsage(YearMonth.from(DAY), ExportService.Format.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals("labId,labName,totalBookings,bookedHours,uniqueUsers,pending,approved,rejected,cancelled,"
+                + "completed", lines.get(0));
+        assertEquals(lab.getId() + ",Export Lab,3,2.0,1,1,2,0,0,0", lines.get(1));
+    }
+
+    private void saveBooking(LocalDateTime start, String purpose, Booking.BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setLab(lab);
+        booking.setUser(user);
+        booking.setStartTime(start);
+        booking.setEndTime(start.plusHours(1));
+        booking.setPurpose(purpose);
+        booking.setStatus(status);
+        labUsageRollup.bookingAdded(bookingRepository.save(booking));
+    }
+
+    private void saveAudit(String action, LocalDateTime createdAt, User actor) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setAction(action);
+        auditLog.setEntityType("Booking");
+        auditLog.setUser(actor);
+        auditLog.setDescription("Export test");
+        auditLog = auditLogRepository.save(auditLog);
+        auditLog.setCreatedAt(createdAt);
+        auditLogRepository.save(auditLog);
+    }
+}
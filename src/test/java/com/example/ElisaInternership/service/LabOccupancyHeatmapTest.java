@@ -0,0 +1,121 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.LabOccupancy;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static com.example.ElisaInternership.TestData.lab;
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Labs are scanned on the heatmap's own threads, so the data has to be committed
+@DataJpaTest
+@Import(LabOccupancyHeatmap.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LabOccupancyHeatmapTest {
+    private static final int MONDAY = 0;
+    private static final int SUNDAY = 6;
+
+    // Two full weeks, Monday to Monday
+    private static final LocalDate FROM = LocalDate.of(2030, 3, 4);
+    private static final LocalDate TO = LocalDate.of(2030, 3, 18);
+
+    @Autowired
+    private LabOccupancyHeatmap labOccupancyHeatmap;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(user("heatmap-user", User.Role.INSTRUCTOR));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void bookingsAreSplitAtHourBoundariesAndClippedToTheRange() {
+        Lab lab = labRepository.save(lab("Heatmap Lab", 10));
+        saveBooking(lab, FROM.atTime(9, 30), FROM.atTime(11, 15), Booking.BookingStatus.APPROVED);
+        saveBooking(lab, FROM.atTime(13, 0), FROM.atTime(14, 0), Booking.BookingStatus.PENDING);
+        saveBooking(lab, FROM.atTime(15, 0), FROM.atTime(16, 0), Booking.BookingStatus.REJECTED);
+        saveBooking(lab, FROM.minusDays(1).atTime(23, 0), FROM.atTime(1, 0), Booking.BookingStatus.COMPLETED);
+
+        LabOccupancy occupancy = find(labOccupancyHeatmap.compute(FROM, TO), lab);
+
+        int[][] minutes = occupancy.getOccupiedMinutes();
+        assertEquals(30, minutes[MONDAY][9]);
+        assertEquals(60, minutes[MONDAY][10]);
+        assertEquals(15, minutes[MONDAY][11]);
+        assertEquals(0, minutes[MONDAY][13]);
+        assertEquals(0, minutes[MONDAY][15]);
+        assertEquals(60, minutes[MONDAY][0]);
+        assertEquals(0, minutes[SUNDAY][23]);
+        // Each Monday hour occurs twice in the range
+        assertEquals(0.5, occupancy.getOccupancy()[MONDAY][10]);
+        assertEquals(0.25, occupancy.getOccupancy()[MONDAY][9]);
+    }
+
+    @Test
+    void overallOccupancyIsWeightedByCapacity() {
+        Lab small = labRepository.save(lab("Small Lab", 10));
+        Lab large = labRepository.save(lab("Large Lab", 30));
+        saveBooking(small, FROM.atTime(10, 0), FROM.atTime(11, 0), Booking.BookingStatus.APPROVED);
+        saveBooking(large, FROM.plusWeeks(1).atTime(10, 0), FROM.plusWeeks(1).atTime(10, 30),
+                Booking.BookingStatus.APPROVED);
+
+        LabOccupancyHeatmap.Heatmap heatmap = labOccupancyHeatmap.compute(FROM, TO);
+
+        assertEquals(0.5, find(heatmap, small).getOccupancy()[MONDAY][10]);
+        assertEquals(0.25, find(heatmap, large).getOccupancy()[MONDAY][10]);
+        // (3600 * 10 + 1800 * 30) / (7200 * 40)
+        assertEquals(0.3125, heatmap.occupancy()[MONDAY][10]);
+        assertEquals(0.0, heatmap.occupancy()[MONDAY][11]);
+    }
+
+    private static LabOccupancy find(LabOccupancyHeatmap.Heatmap heatmap, Lab lab) {
+        return heatmap.labs().stream()
+                .filter(occupancy -> occupancy.getLabId().equals(lab.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void saveBooking(Lab lab, LocalDateTime start, LocalDateTime end, Booking.BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setLab(lab);
+        booking.setUser(user);
+        booking.setStartTime(start);
+        booking.setEndTime(end);
+        booking.setPurpose("Heatmap test");
+        booking.setStatus(status);
+        bookingRepository.save(booking);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.BookingDecision;
+import com.example.ElisaInternership.dto.BookingRequest;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.example.ElisaInternership.TestData.lab;
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({BookingService.class, AuditService.class, AuditLogWriter.class, AuditArchive.class, BookingIntervalIndex.class,
+        LabLockStripes.class, LabUsageRollup.class, BookingCompletionSweeper.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LabUsageRollupTest {
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(3).withHour(0).withMinute(0)
+            .withSecond(0).withNano(0);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingCompletionSweeper sweeper;
+
+    @Autowired
+    private LabUsageRollup labUsageRollup;
+
+    @Autowired
+    private LabLockStripes labLockStripes;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    private User student;
+    private User instructor;
+    private User manager;
+    private Lab lab;
+    private Lab otherLab;
+
+    @BeforeEach
+    void setUp() {
+        student = userRepository.save(user("rollup-student", User.Role.STUDENT));
+        instructor = userRepository.save(user("rollup-instructor", User.Role.INSTRUCTOR));
+        manager = userRepository.save(user("rollup-manager", User.Role.LAB_MANAGER));
+        lab = labRepository.save(lab("Rollup Lab", 25));
+        otherLab = labRepository.save(lab("Other Rollup Lab", 25));
+        bookingIntervalIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLogWriter.flush();
+        auditLogRepository.deleteAll();
+        bookingRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM lab_usage_daily");
+        jdbcTemplate.update("DELETE FROM lab_user_monthly");
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void incrementalUpdatesMatchRebuildFromScratch() {
+        Booking approved = bookingService.createBooking(request(lab, 9, 10), instructor);
+        Booking moved = bookingService.createBooking(request(lab, 11, 12), student);
+        Booking cancelled = bookingService.createBooking(request(lab, 13, 14), student);
+        Booking rejected = bookingService.createBooking(request(otherLab, 9, 11), student);
+        Booking deleted = bookingService.createBooking(request(otherLab, 12, 13), instructor);
+        Booking bulkApproved = bookingService.createBooking(request(otherLab, 15, 16), student);
+        Booking autoRejected = bookingService.createBooking(request(otherLab, 15, 17), student);
+
+        bookingService.approveBooking(moved.getId(), manager);
+        bookingService.updateBooking(moved.getId(), request(otherLab, 18, 20), manager);
+        bookingService.cancelBooking(cancelled.getId(), student);
+        bookingService.rejectBooking(rejected.getId(), manager);
+        bookingService.deleteBooking(deleted.getId(), manager);
+        bookingService.decideBookings(List.of(
+                new BookingDecision(bulkApproved.getId(), BookingDecision.Decision.APPROVE)), manager);
+        sweeper.completeEndedBookings(DAY.withHour(15).withMinute(30));
+
+        assertEquals(Booking.BookingStatus.COMPLETED, status(approved));
+        assertEquals(Booking.BookingStatus.REJECTED, status(autoRejected));
+        List<Map<String, Object>> daily = dailyRows();
+        List<Map<String, Object>> monthly = monthlyRows();
+        assertFalse(daily.isEmpty());
+
+        assertEquals(2, labUsageRollup.rebuild());
+        assertEquals(daily, dailyRows());
+        assertEquals(monthly, monthlyRows());
+    }
+
+    @Test
+    void writersWaitWhileTheLabIsRebuilt() throws Exception {
+        Booking completed = bookingService.createBooking(request(lab, 9, 10), instructor);
+        bookingService.approveBooking(completed.getId(), manager);
+        Booking cancelled = bookingService.createBooking(request(lab, 11, 12), student);
+        Booking rejected = bookingService.createBooking(request(lab, 13, 14), student);
+        Booking deleted = bookingService.createBooking(request(lab, 14, 15), instructor);
+        Booking moved = bookingService.createBooking(request(lab, 16, 17), student);
+        List<Map<String, Object>> before = dailyRows();
+
+        // Holding the lab's lock as rebuild() does for its recount
+        ExecutorService writers = Executors.newFixedThreadPool(5);
+        List<Future<?>> writes = labLockStripes.withLock(lab.getId(), () -> {
+            List<Future<?>> started = List.of(
+                    writers.submit(() -> bookingService.cancelBooking(cancelled.getId(), student)),
+                    writers.submit(() -> bookingService.rejectBooking(rejected.getId(), manager)),
+                    writers.submit(() -> bookingService.deleteBooking(deleted.getId(), manager)),
+                    writers.submit(() -> bookingService.updateBooking(moved.getId(), request(otherLab, 18, 20),
+                            manager)),
+                    writers.submit(() -> sweeper.completeEndedBookings(DAY.withHour(15).withMinute(30))));
+            assertThrows(TimeoutException.class, () -> started.get(0).get(300, TimeUnit.MILLISECONDS));
+            assertTrue(started.stream().noneMatch(Future::isDone));
+            assertEquals(before, dailyRows());
+            return started;
+        });
+        for (Future<?> write : writes) {
+            write.get(10, TimeUnit.SECONDS);
+        }
+        writers.shutdown();
+
+        assertEquals(Booking.BookingStatus.COMPLETED, status(completed));
+        assertEquals(Booking.BookingStatus.CANCELLED, status(cancelled));
+        assertEquals(Booking.BookingStatus.REJECTED, status(rejected));
+        assertFalse(bookingRepository.existsById(deleted.getId()));
+        List<Map<String, Object>> daily = dailyRows();
+        assertEquals(2, labUsageRollup.rebuild());
+        assertEquals(daily, dailyRows());
+    }
+
+    private List<Map<String, Object>> dailyRows() {
+        return jdbcTemplate.queryForList("SELECT usage_day, lab_id, status, bookings, booked_seconds " +
+                "FROM lab_usage_daily ORDER BY usage_day, lab_id, status");
+    }
+
+    private List<Map<String, Object>> monthlyRows() {
+        return jdbcTemplate.queryForList("SELECT usage_month, lab_id, user_id, bookings FROM lab_user_monthly " +
+                "ORDER BY usage_month, lab_id, user_id");
+    }
+
+    private Booking.BookingStatus status(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+
+    private BookingRequest request(Lab target, int startHour, int endHour) {
+        BookingRequest request = new BookingRequest();
+        request.setLabId(target.getId());
+        request.setStartTime(DAY.withHour(startHour));
+        request.setEndTime(DAY.withHour(endHour));
+        request.setPurpose("Rollup test");
+        return request;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import com.example.ElisaInternership.security.TokenRevocations;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Evictions run after UserService commits, so the test data has to be committed
+@DataJpaTest
+@Import({CustomUserDetailsService.class, UserService.class, AuditService.class, AuditLogWriter.class,
+        AuditArchive.class, BookingIntervalIndex.class, LabLockStripes.class, LabUsageRollup.class,
+        TokenRevocations.class, BCryptPasswordEncoder.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PrincipalCacheTest {
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        auditService.flush();
+        auditLogRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedLookupsAreAnsweredFromTheCache() {
+        userRepository.save(user("cached", User.Role.STUDENT));
+        double misses = count("auth.principal.cache.misses");
+        double hits = count("auth.principal.cache.hits");
+        long loads = meterRegistry.get("auth.principal.load").timer().count();
+
+        UserDetails first = userDetailsService.loadUserByUsername("cached");
+        assertSame(first, userDetailsService.loadUserByUsername("cached"));
+        assertSame(first, userDetailsService.loadUserByUsername("cached"));
+
+        assertEquals(misses + 1, count("auth.principal.cache.misses"));
+        assertEquals(hits + 2, count("auth.principal.cache.hits"));
+        assertEquals(loads + 1, meterRegistry.get("auth.principal.load").timer().count());
+    }
+
+    @Test
+    void updatesApplyFromTheNextLookup() {
+        User user = userRepository.save(user("before", User.Role.STUDENT));
+        userDetailsService.loadUserByUsername("before");
+
+        User update = copy(user);
+        update.setUsername("after");
+        update.setActive(false);
+        userService.updateUser(user.getId(), update, null, null);
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("before"));
+        assertFalse(userDetailsService.loadUserByUsername("after").isEnabled());
+    }
+
+    @Test
+    void deletedUsersAreNoLongerFound() {
+        User user = userRepository.save(user("deleted", User.Role.STUDENT));
+        userDetailsService.loadUserByUsername("deleted");
+
+        userService.deleteUser(user.getId(), null);
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("deleted"));
+    }
+
+    @Test
+    void committedChangesRevokeEarlierTokens() {
+        User user = userRepository.save(user("versioned", User.Role.STUDENT));
+        assertFalse(tokenRevocations.isRevoked(user.getId(), 0));
+
+        User update = copy(user);
+        update.setRole(User.Role.INSTRUCTOR);
+        userService.updateUser(user.getId(), update, null, null);
+
+        assertEquals(1, userRepository.findTokenVersionById(user.getId()).orElseThrow());
+        assertTrue(tokenRevocations.isRevoked(user.getId(), 0));
+        assertFalse(tokenRevocations.isRevoked(user.getId(), 1));
+
+        userService.deleteUser(user.getId(), null);
+        assertTrue(tokenRevocations.isRevoked(user.getId(), 1));
+    }
+
+    @Test
+    void aProfileUpdateKeepsALogoutCommittedWhileItRan() {
+        User user = userRepository.save(user("profile", User.Role.STUDENT));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Loaded before the logout, as updateUser's own lookup would be
+            userRepository.findById(user.getId()).orElseThrow();
+            // The logout's bump, committed on another thread
+            CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                    logout -> userRepository.incrementTokenVersion(user.getId()))).join();
+
+            User update = copy(user);
+            update.setEmail("profile@elisa.rw");
+            userService.updateUser(user.getId(), update, null, null);
+        });
+
+        assertEquals("profile@elisa.rw", userRepository.findById(user.getId()).orElseThrow().getEmail());
+        assertEquals(1, userRepository.findTokenVersionById(user.getId()).orElseThrow());
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setUsername(user.getUsername());
+        copy.setEmail(user.getEmail());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setRole(user.getRole());
+        copy.setActive(user.getActive());
+        return copy;
+    }
+}
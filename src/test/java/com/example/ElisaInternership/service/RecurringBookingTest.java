@@ -0,0 +1,184 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.BookingOccurrence;
+import com.example.ElisaInternership.dto.RecurringBookingRequest;
+import com.example.ElisaInternership.dto.RecurringBookingResponse;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.AuditLogRepository;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import({BookingService.class, AuditService.class, AuditLogWriter.class, AuditArchive.class, BookingIntervalIndex.class,
+        LabLockStripes.class, LabUsageRollup.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecurringBookingTest {
+    // Europe moves its clocks forward on 2030-03-31, between the first and second week
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2030, 3, 25, 10, 0);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    private User student;
+    private Lab lab;
+
+    @BeforeEach
+    void setUp() {
+        student = new User();
+        student.setUsername("series-student");
+        student.setEmail("series-student@auca.rw");
+        student.setPassword("secret123");
+        student.setFirstName("Series");
+        student.setLastName("Student");
+        student.setRole(User.Role.STUDENT);
+        student = userRepository.save(student);
+        lab = new Lab();
+        lab.setName("Series Lab");
+        lab.setLocation("Block S");
+        lab.setCapacity(30);
+        lab.setType(Lab.LabType.EXTENSION_204);
+        lab = labRepository.save(lab);
+        bookingIntervalIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLogWriter.flush();
+        auditLogRepository.deleteAll();
+        bookingRepository.deleteAll();
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void weeklySeriesKeepsItsTimeOfDayAcrossMonthAndClockChanges() {
+        RecurringBookingResponse response = bookingService.createRecurringBooking(
+                request(RecurringBookingRequest.Frequency.WEEKLY, MONDAY, 2, MONDAY.toLocalDate().plusDays(21), false),
+                student);
+
+        assertEquals(4, response.getCreatedCount());
+        assertEquals(0, response.getConflictCount());
+        assertEquals(List.of(MONDAY, MONDAY.plusWeeks(1), MONDAY.plusWeeks(2), MONDAY.plusWeeks(3)),
+                response.getOccurrences().stream().map(BookingOccurrence::getStartTime).toList());
+        assertEquals(LocalDateTime.of(2030, 4, 15, 12, 0), response.getOccurrences().get(3).getEndTime());
+        for (BookingOccurrence occurrence : response.getOccurrences()) {
+            Booking booking = bookingRepository.findById(occurrence.getBookingId()).orElseThrow();
+            assertEquals(occurrence.getStartTime(), booking.getStartTime());
+            assertEquals(Booking.BookingStatus.PENDING, booking.getStatus());
+        }
+    }
+
+    @Test
+    void conflictsWithApprovedBookingsAreReportedPerOccurrence() {
+        // Spans the ends of two occurrences; pending bookings never conflict
+        Booking overnight = save(MONDAY.plusHours(1), MONDAY.plusDays(1).plusHours(1), Booking.BookingStatus.APPROVED);
+        save(MONDAY.plusDays(2), MONDAY.plusDays(2).plusHours(2), Booking.BookingStatus.PENDING);
+        save(MONDAY.plusDays(3).plusHours(2), MONDAY.plusDays(3).plusHours(3), Booking.BookingStatus.APPROVED);
+        RecurringBookingRequest request = request(RecurringBookingRequest.Frequency.DAILY, MONDAY, 2,
+                MONDAY.toLocalDate().plusDays(3), false);
+
+        RecurringBookingResponse refused = bookingService.createRecurringBooking(request, student);
+
+        assertEquals(0, refused.getCreatedCount());
+        assertEquals(2, refused.getConflictCount());
+        assertEquals(List.of(List.of(overnight.getId()), List.of(overnight.getId()), List.of(), List.of()),
+                refused.getOccurrences().stream().map(BookingOccurrence::getConflictingBookingIds).toList());
+        assertEquals(3, bookingRepository.count());
+
+        request.setSkipConflicts(true);
+        RecurringBookingResponse skipped = bookingService.createRecurringBooking(request, student);
+
+        assertEquals(2, skipped.getCreatedCount());
+        assertNull(skipped.getOccurrences().get(1).getBookingId());
+        assertNotNull(skipped.getOccurrences().get(2).getBookingId());
+        assertEquals(5, bookingRepository.count());
+    }
+
+    @Test
+    void seriesWhereEveryOccurrenceConflictsCreatesNothing() {
+        save(MONDAY.minusHours(1), MONDAY.plusDays(2), Booking.BookingStatus.APPROVED);
+
+        RecurringBookingResponse response = bookingService.createRecurringBooking(
+                request(RecurringBookingRequest.Frequency.DAILY, MONDAY, 1, MONDAY.toLocalDate().plusDays(1), true),
+                student);
+
+        assertEquals(0, response.getCreatedCount());
+        assertEquals(2, response.getConflictCount());
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void occurrencesMayNotOverlapEachOther() {
+        RecurringBookingRequest request = request(RecurringBookingRequest.Frequency.DAILY, MONDAY, 25,
+                MONDAY.toLocalDate().plusDays(3), false);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> bookingService.createRecurringBooking(request, student));
+        assertEquals("Each occurrence must end before the next one starts", e.getMessage());
+        assertEquals(0, bookingRepository.count());
+    }
+
+    private RecurringBookingRequest request(RecurringBookingRequest.Frequency frequency, LocalDateTime start,
+                                            int hours, LocalDate until, boolean skipConflicts) {
+        RecurringBookingRequest request = new RecurringBookingRequest();
+        request.setLabId(lab.getId());
+        request.setStartTime(start);
+        request.setEndTime(start.plusHours(hours));
+        request.setFrequency(frequency);
+        request.setUntil(until);
+        request.setPurpose("Weekly tutorial");
+        request.setSkipConflicts(skipConflicts);
+        return request;
+    }
+
+    private Booking save(LocalDateTime start, LocalDateTime end, Booking.BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setLab(lab);
+        booking.setUser(student);
+        booking.setStartTime(start);
+        booking.setEndTime(end);
+        booking.setStatus(status);
+        booking = bookingRepository.save(booking);
+        bookingIntervalIndex.bookingSaved(booking);
+        return booking;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.ElisaInternership.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringJUnitConfig({ReportCache.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = "reports.cache.max-entries=3")
+class ReportCacheTest {
+    private static final YearMonth MARCH = YearMonth.of(2030, 3);
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        reportCache.onReportDataChanged(ReportDataChanged.all());
+    }
+
+    @Test
+    void bookingChangeEvictsOnlyTheReportsCoveringItsMonth() {
+        ReportCache.Key march = monthly(MARCH);
+        ReportCache.Key april = monthly(MARCH.plusMonths(1));
+        ReportCache.Key year = ReportCache.Key.of(ReportCache.Report.YEARLY_USAGE, YearMonth.of(2030, 1),
+                YearMonth.of(2031, 1));
+        ReportCache.Key equipment = ReportCache.Key.of(ReportCache.Report.EQUIPMENT);
+        load(march);
+        load(april);
+        load(year);
+        assertEquals(3, loads.get());
+
+        eventPublisher.publishEvent(ReportDataChanged.bookings(Set.of(MARCH)));
+
+        load(april);
+        assertEquals(3, loads.get());
+        load(march);
+        load(year);
+        assertEquals(5, loads.get());
+
+        load(equipment);
+        eventPublisher.publishEvent(ReportDataChanged.of(ReportCache.Report.MAINTENANCE));
+        load(equipment);
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsDroppedAtCapacity() {
+        double evictedBefore = meterRegistry.get("reports.cache.evictions").tag("cause", "size").counter().count();
+        load(monthly(MARCH));
+        load(monthly(MARCH.plusMonths(1)));
+        load(monthly(MARCH.plusMonths(2)));
+        load(monthly(MARCH));
+        load(monthly(MARCH.plusMonths(3)));
+        assertEquals(4, loads.get());
+
+        // April was the least recently used
+        load(monthly(MARCH));
+        load(monthly(MARCH.plusMonths(2)));
+        assertEquals(4, loads.get());
+        load(monthly(MARCH.plusMonths(1)));
+        assertEquals(5, loads.get());
+        assertEquals(3, reportCache.size());
+        assertEquals(evictedBefore + 2,
+                meterRegistry.get("reports.cache.evictions").tag("cause", "size").counter().count());
+    }
+
+    @Test
+    void callersGetTheirOwnCopy() {
+        reportCache.get(monthly(MARCH), () -> new HashMap<>(Map.of("totalBookings", 1L)))
+                .put("bookings", "first page");
+
+        Map<String, Object> cached = load(monthly(MARCH));
+        assertEquals(Map.of("totalBookings", 1L), cached);
+        assertEquals(0, loads.get());
+    }
+
+    private Map<String, Object> load(ReportCache.Key key) {
+        return reportCache.get(key, () -> {
+            loads.incrementAndGet();
+            return new HashMap<>(Map.of("key", key.toString()));
+        });
+    }
+
+    private static ReportCache.Key monthly(YearMonth month) {
+        return ReportCache.Key.of(ReportCache.Report.MONTHLY_USAGE, month, month.plusMonths(1));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.ReportJob;
+import com.example.ElisaInternership.dto.ReportJobRequest;
+import com.example.ElisaInternership.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "reports.jobs.max-active-per-user=2")
+@Import({ReportJobService.class, ReportService.class, ReportCache.class, LabOccupancyHeatmap.class,
+        LabUsageRollup.class, LabLockStripes.class, AuditService.class, AuditLogWriter.class, AuditArchive.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReportJobServiceTest {
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    private final User admin = user(1L);
+    private final User otherAdmin = user(2L);
+
+    @Test
+    void jobsAreLimitedPerUserAndCanBeCancelled() throws InterruptedException {
+        ReportJob kept;
+        // Holding the cache's lock keeps every job from finishing its report
+        synchronized (reportCache) {
+            kept = reportJobService.submit(request(ReportJob.Type.EQUIPMENT_UTILIZATION), admin);
+            ReportJob cancelled = reportJobService.submit(request(ReportJob.Type.MAINTENANCE_STATISTICS), admin);
+            assertThrows(RuntimeException.class,
+                    () -> reportJobService.submit(request(ReportJob.Type.EQUIPMENT_UTILIZATION), admin));
+            reportJobService.submit(request(ReportJob.Type.EQUIPMENT_UTILIZATION), otherAdmin);
+
+            assertEquals(ReportJob.Status.CANCELLED, reportJobService.cancel(cancelled.getId(), admin).getStatus());
+            assertThrows(RuntimeException.class, () -> reportJobService.getResult(cancelled.getId(), admin));
+            assertThrows(RuntimeException.class, () -> reportJobService.getJob(kept.getId(), otherAdmin));
+            reportJobService.submit(request(ReportJob.Type.MAINTENANCE_STATISTICS), admin);
+        }
+
+        assertEquals(ReportJob.Status.SUCCEEDED, awaitFinished(kept.getId(), admin).getStatus());
+        Map<String, Object> report = reportJobService.getResult(kept.getId(), admin);
+        assertEquals(0L, report.get("totalEquipment"));
+
+        List<ReportJob> jobs = reportJobService.getJobs(admin);
+        assertEquals(3, jobs.size());
+        assertTrue(jobs.stream().noneMatch(job -> job.getStatus() == ReportJob.Status.FAILED));
+
+        // Deleting a finished job drops it and its result
+        reportJobService.cancel(kept.getId(), admin);
+        assertThrows(RuntimeException.class, () -> reportJobService.getJob(kept.getId(), admin));
+    }
+
+    @Test
+    void monthlyJobNeedsAMonth() {
+        assertThrows(RuntimeException.class,
+                () -> reportJobService.submit(request(ReportJob.Type.MONTHLY_LAB_USAGE), user(3L)));
+    }
+
+    @Test
+    void occupancyAndTrendJobsRunTheirReports() throws InterruptedException {
+        User user = user(4L);
+        ReportJobRequest occupancy = request(ReportJob.Type.LAB_OCCUPANCY);
+        occupancy.setFrom(LocalDate.of(2030, 1, 1));
+        occupancy.setTo(LocalDate.of(2030, 2, 1));
+        ReportJob occupancyJob = reportJobService.submit(occupancy, user);
+        assertEquals(ReportJob.Status.SUCCEEDED, awaitFinished(occupancyJob.getId(), user).getStatus());
+        assertTrue(reportJobService.getResult(occupancyJob.getId(), user).containsKey("occupancy"));
+
+        ReportJobRequest trends = request(ReportJob.Type.TRENDS);
+        trends.setFrom(LocalDate.of(2030, 1, 1));
+        trends.setTo(LocalDate.of(2030, 1, 31));
+        trends.setPeriod("week");
+        ReportJob trendJob = reportJobService.submit(trends, user);
+        assertEquals(ReportJob.Status.SUCCEEDED, awaitFinished(trendJob.getId(), user).getStatus());
+        Map<String, Object> report = reportJobService.getResult(trendJob.getId(), user);
+        assertEquals("WEEK", report.get("granularity"));
+        assertEquals(5, ((List<?>) report.get("series")).size());
+    }
+
+    @Test
+    void trendJobNeedsARangeAndAKnownPeriod() {
+        ReportJobRequest trends = request(ReportJob.Type.TRENDS);
+        trends.setFrom(LocalDate.of(2030, 1, 1));
+        assertThrows(RuntimeException.class, () -> reportJobService.submit(trends, user(5L)));
+        trends.setTo(LocalDate.of(2030, 3, 1));
+        trends.setPeriod("day");
+        assertThrows(RuntimeException.class, () -> reportJobService.submit(trends, user(5L)));
+        assertEquals(List.of(), reportJobService.getJobs(user(5L)));
+    }
+
+    private ReportJob awaitFinished(String id, User user) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            ReportJob job = reportJobService.getJob(id, user);
+            if (job.getStatus() != ReportJob.Status.QUEUED && job.getStatus() != ReportJob.Status.RUNNING) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Report job " + id + " did not finish");
+    }
+
+    private static ReportJobRequest request(ReportJob.Type type) {
+        ReportJobRequest request = new ReportJobRequest();
+        request.setType(type);
+        return request;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("job-user-" + id);
+        return user;
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.BookingSummary;
+import com.example.ElisaInternership.dto.CursorPage;
+import com.example.ElisaInternership.dto.LabEquipmentStats;
+import com.example.ElisaInternership.dto.LabMaintenanceStats;
+import com.example.ElisaInternership.dto.LabUsage;
+import com.example.ElisaInternership.dto.MonthUsage;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Equipment;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.Maintenance;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.EquipmentRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.MaintenanceRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.ElisaInternership.TestData.lab;
+import static com.example.ElisaInternership.TestData.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@Import({ReportService.class, ReportCache.class, LabOccupancyHeatmap.class, LabUsageRollup.class, LabLockStripes.class,
+        AuditService.class, AuditLogWriter.class, AuditArchive.class, SimpleMeterRegistry.class})
+class ReportServiceTest {
+    private static final YearMonth MONTH = YearMonth.of(2030, 3);
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private LabUsageRollup labUsageRollup;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Lab alpha;
+    private Lab beta;
+    private User ann;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        // Test transactions roll back, so the after-commit evictions never run
+        reportCache.onReportDataChanged(ReportDataChanged.all());
+        alpha = labRepository.save(lab("Alpha", 20));
+        beta = labRepository.save(lab("Beta", 20));
+        ann = userRepository.save(user("report-ann", User.Role.INSTRUCTOR));
+        bob = userRepository.save(user("report-bob", User.Role.INSTRUCTOR));
+
+        // Start just outside the month on either side
+        save(alpha, ann, at(2, 28, 23, 59, 59), at(3, 1, 1, 0, 0), Booking.BookingStatus.APPROVED);
+        save(alpha, bob, at(4, 1, 0, 0, 0), at(4, 1, 1, 0, 0), Booking.BookingStatus.APPROVED);
+
+        // Start exactly on the first instant and in the last second of the month
+        save(alpha, ann, at(3, 1, 0, 0, 0), at(3, 1, 2, 0, 0), Booking.BookingStatus.APPROVED);
+        save(alpha, ann, at(3, 31, 23, 59, 59), at(4, 1, 1, 29, 59), Booking.BookingStatus.APPROVED);
+        save(alpha, bob, at(3, 12, 9, 0, 0), at(3, 12, 10, 0, 0), Booking.BookingStatus.REJECTED);
+        save(beta, bob, at(3, 10, 8, 0, 0), at(3, 10, 9, 15, 0), Booking.BookingStatus.COMPLETED);
+        save(beta, ann, at(3, 15, 10, 0, 0), at(3, 15, 11, 30, 0), Booking.BookingStatus.PENDING);
+    }
+
+    @Test
+    void monthlyReportMatchesInMemoryAggregationOnExactMonthBounds() {
+        Map<String, Object> report = reportService.getMonthlyLabUsageReport(MONTH, false);
+
+        // The previous findAll() + stream logic, with the window made exact
+        LocalDateTime start = MONTH.atDay(1).atStartOfDay();
+        LocalDateTime end = MONTH.plusMonths(1).atDay(1).atStartOfDay();
+        List<Booking> inMonth = bookingRepository.findAll().stream()
+                .filter(b -> !b.getStartTime().isBefore(start) && b.getStartTime().isBefore(end))
+                .toList();
+        long approved = inMonth.stream().filter(b -> b.getStatus() == Booking.BookingStatus.APPROVED).count();
+        long pending = inMonth.stream().filter(b -> b.getStatus() == Booking.BookingStatus.PENDING).count();
+
+        assertEquals(5, inMonth.size());
+        assertEquals((long) inMonth.size(), report.get("totalBookings"));
+        assertEquals(approved, report.get("approvedBookings"));
+        assertEquals(pending, report.get("pendingBookings"));
+        assertEquals(2L, report.get("uniqueUsers"));
+        assertEquals(hours(inMonth, null), report.get("bookedHours"));
+        assertFalse(report.containsKey("bookings"));
+
+        @SuppressWarnings("unchecked")
+        List<LabUsage> labs = (List<LabUsage>) report.get("labs");
+        assertEquals(List.of("Alpha", "Beta"), labs.stream().map(LabUsage::getLabName).toList());
+        LabUsage alphaUsage = labs.get(0);
+        assertEquals(3, alphaUsage.getTotalBookings());
+        assertEquals(hours(inMonth, alpha), alphaUsage.getBookedHours());
+        assertEquals(3.5, alphaUsage.getBookedHours());
+        assertEquals(2, alphaUsage.getUniqueUsers());
+        assertEquals(2L, alphaUsage.getStatusCounts().get(Booking.BookingStatus.APPROVED));
+        assertEquals(1L, alphaUsage.getStatusCounts().get(Booking.BookingStatus.REJECTED));
+        LabUsage betaUsage = labs.get(1);
+        assertEquals(2, betaUsage.getTotalBookings());
+        assertEquals(1.25, betaUsage.getBookedHours());
+        assertEquals(2, betaUsage.getUniqueUsers());
+    }
+
+    @Test
+    void monthlyBookingsArePagedInStartOrder() {
+        List<LocalDateTime> starts = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<BookingSummary> page = reportService.getMonthlyBookings(MONTH, cursor, 2);
+            page.getItems().forEach(booking -> starts.add(booking.getStartTime()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(at(3, 1, 0, 0, 0), at(3, 10, 8, 0, 0), at(3, 12, 9, 0, 0),
+                at(3, 15, 10, 0, 0), at(3, 31, 23, 59, 59)), starts);
+
+        @SuppressWarnings("unchecked")
+        CursorPage<BookingSummary> embedded = (CursorPage<BookingSummary>)
+                reportService.getMonthlyLabUsageReport(MONTH, true).get("bookings");
+        assertEquals(5, embedded.getItems().size());
+        assertNull(embedded.getNextCursor());
+    }
+
+    @Test
+    void yearlyReportAddsUpTheMonths() {
+        Map<String, Object> report = reportService.getYearlyLabUsageReport(Year.of(2030));
+
+        assertEquals(7L, report.get("totalBookings"));
+        assertEquals(2L, report.get("uniqueUsers"));
+        assertEquals(2030, report.get("year"));
+        @SuppressWarnings("unchecked")
+        List<MonthUsage> months = (List<MonthUsage>) report.get("months");
+        assertEquals(12, months.size());
+        assertEquals(List.of(1L, 5L, 1L), months.subList(1, 4).stream().map(MonthUsage::getTotalBookings).toList());
+        assertEquals(4.75, months.get(2).getBookedHours());
+        assertEquals(0, months.get(0).getTotalBookings());
+    }
+
+    @Test
+    void equipmentReportCountsPerLabAndOverall() {
+        saveEquipment(alpha, "Scope", Equipment.EquipmentStatus.IN_USE);
+        saveEquipment(alpha, "Printer", Equipment.EquipmentStatus.AVAILABLE);
+        saveEquipment(alpha, "Router", Equipment.EquipmentStatus.BROKEN);
+        saveEquipment(beta, "Projector", Equipment.EquipmentStatus.UNDER_MAINTENANCE);
+        assertEquals(4, equipmentRepository.findAll().size());
+
+        Map<String, Object> report = reportService.getEquipmentUtilizationReport();
+
+        assertEquals(4L, report.get("totalEquipment"));
+        assertEquals(1L, report.get("available"));
+        assertEquals(1L, report.get("inUse"));
+        assertEquals(1L, report.get("underMaintenance"));
+        assertEquals(1L, report.get("broken"));
+        assertEquals(50.0, report.get("utilizationRate"));
+        @SuppressWarnings("unchecked")
+        List<LabEquipmentStats> labs = (List<LabEquipmentStats>) report.get("labs");
+        assertEquals(List.of(alpha.getId(), beta.getId()), labs.stream().map(LabEquipmentStats::getLabId).toList());
+        assertEquals(3, labs.get(0).getTotalEquipment());
+        assertEquals(100.0 / 3, labs.get(0).getUtilizationRate(), 1e-9);
+        assertEquals(1, labs.get(1).getUnderMaintenance());
+        assertEquals(100.0, labs.get(1).getUtilizationRate());
+    }
+
+    @Test
+    void maintenanceAveragesOnlyCountRequestsWithACost() {
+        Equipment scope = saveEquipment(alpha, "Scope", Equipment.EquipmentStatus.IN_USE);
+        Equipment projector = saveEquipment(beta, "Projector", Equipment.EquipmentStatus.UNDER_MAINTENANCE);
+        saveMaintenance(scope, Maintenance.MaintenanceStatus.COMPLETED, 100.0);
+        saveMaintenance(scope, Maintenance.MaintenanceStatus.COMPLETED, null);
+        saveMaintenance(scope, Maintenance.MaintenanceStatus.PENDING, null);
+        saveMaintenance(projector, Maintenance.MaintenanceStatus.IN_PROGRESS, 50.0);
+        saveMaintenance(projector, Maintenance.MaintenanceStatus.CANCELLED, null);
+
+        Map<String, Object> report = reportService.getMaintenanceStatistics();
+
+        assertEquals(5L, report.get("totalRequests"));
+        assertEquals(1L, report.get("pending"));
+        assertEquals(1L, report.get("inProgress"));
+        assertEquals(2L, report.get("completed"));
+        assertEquals(1L, report.get("cancelled"));
+        assertEquals(150.0, report.get("totalCost"));
+        // Dividing by the completed count would give 75 here
+        assertEquals(75.0, report.get("averageCost"));
+        assertEquals(100.0, report.get("averageCompletedCost"));
+        @SuppressWarnings("unchecked")
+        List<LabMaintenanceStats> labs = (List<LabMaintenanceStats>) report.get("labs");
+        assertEquals(2, labs.size());
+        assertEquals(3, labs.get(0).getTotalRequests());
+        assertEquals(100.0, labs.get(0).getAverageCost());
+        assertEquals(2, labs.get(1).getTotalRequests());
+        assertEquals(50.0, labs.get(1).getAverageCost());
+    }
+
+    // Hours of APPROVED and COMPLETED bookings, rounded like the report
+    private static double hours(List<Booking> bookings, Lab lab) {
+        long seconds = bookings.stream()
+                .filter(b -> lab == null || b.getLab().getId().equals(lab.getId()))
+                .filter(b -> b.getStatus() == Booking.BookingStatus.APPROVED
+                        || b.getStatus() == Booking.BookingStatus.COMPLETED)
+                .mapToLong(b -> Duration.between(b.getStartTime(), b.getEndTime()).getSeconds())
+                .sum();
+        return Math.round(seconds / 36.0) / 100.0;
+    }
+
+    private static LocalDateTime at(int month, int day, int hour, int minute, int second) {
+        return LocalDateTime.of(2030, month, day, hour, minute, second);
+    }
+
+    private void save(Lab lab, User user, LocalDateTime start, LocalDateTime end, Booking.BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setLab(lab);
+        booking.setUser(user);
+        booking.setStartTime(start);
+        booking.setEndTime(end);
+        booking.setStatus(status);
+        labUsageRollup.bookingAdded(bookingRepository.save(booking));
+    }
+
+    private Equipment saveEquipment(Lab lab, String name, Equipment.EquipmentStatus status) {
+        Equipment equipment = new Equipment();
+        equipment.setName(name);
+        equipment.setSerialNumber("SN-" + name);
+        equipment.setLab(lab);
+        equipment.setStatus(status);
+        return equipmentRepository.save(equipment);
+    }
+
+    private void saveMaintenance(Equipment equipment, Maintenance.MaintenanceStatus status, Double cost) {
+        Maintenance maintenance = new Maintenance();
+        maintenance.setEquipment(equipment);
+        maintenance.setRequestedBy(ann);
+        maintenance.setDescription("Report test");
+        maintenance.setStatus(status);
+        maintenance.setCost(cost);
+        maintenanceRepository.save(maintenance);
+    }
+}
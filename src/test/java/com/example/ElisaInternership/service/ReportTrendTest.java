@@ -0,0 +1,208 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Equipment;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.Maintenance;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.repository.BookingRepository;
+import com.example.ElisaInternership.repository.EquipmentRepository;
+import com.example.ElisaInternership.repository.LabRepository;
+import com.example.ElisaInternership.repository.MaintenanceRepository;
+import com.example.ElisaInternership.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Periods are computed on the trend pool's threads, so the data has to be committed
+@DataJpaTest
+@Import({ReportService.class, ReportCache.class, LabOccupancyHeatmap.class, LabUsageRollup.class, LabLockStripes.class,
+        AuditService.class, AuditLogWriter.class, AuditArchive.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReportTrendTest {
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private LabUsageRollup labUsageRollup;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LabRepository labRepository;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Lab lab;
+    private User user;
+    private Equipment equipment;
+
+    @BeforeEach
+    void setUp() {
+        reportCache.onReportDataChanged(ReportDataChanged.all());
+        lab = new Lab();
+        lab.setName("Trend Lab");
+        lab.setLocation("Block T");
+        lab.setCapacity(20);
+        lab.setType(Lab.LabType.EXTENSION_108);
+        lab = labRepository.save(lab);
+        user = new User();
+        user.setUsername("trend-user");
+        user.setEmail("trend-user@auca.rw");
+        user.setPassword("secret123");
+        user.setFirstName("Trend");
+        user.setLastName("User");
+        user.setRole(User.Role.INSTRUCTOR);
+        user = userRepository.save(user);
+        equipment = new Equipment();
+        equipment.setName("Trend Projector");
+        equipment.setSerialNumber("SN-TREND");
+        equipment.setLab(lab);
+        equipment.setStatus(Equipment.EquipmentStatus.AVAILABLE);
+        equipment = equipmentRepository.save(equipment);
+
+        // Monday 4 March 2030 starts ISO week 10
+        saveBooking(at(3, 4, 9), 2, Booking.BookingStatus.APPROVED);
+        saveBooking(at(3, 5, 9), 1, Booking.BookingStatus.REJECTED);
+        saveBooking(at(3, 12, 9), 1, Booking.BookingStatus.COMPLETED);
+        saveBooking(at(4, 2, 9), 1, Booking.BookingStatus.PENDING);
+        saveMaintenance(at(3, 6, 8), at(3, 20, 8), Maintenance.MaintenanceStatus.COMPLETED, 100.0);
+        saveMaintenance(at(4, 3, 8), null, Maintenance.MaintenanceStatus.PENDING, 40.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        maintenanceRepository.deleteAll();
+        equipmentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        labRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void monthlySeriesCoversEveryPeriodTouchedByTheRange() {
+        Map<String, Object> report = reportService.getTrendReport(ReportService.TrendPeriod.MONTH,
+                LocalDate.of(2030, 3, 15), LocalDate.of(2030, 4, 10));
+
+        assertEquals("2030-03-01", report.get("from"));
+        assertEquals("2030-05-01", report.get("to"));
+        List<Map<String, Object>> series = series(report);
+        assertEquals(2, series.size());
+        Map<String, Object> march = series.get(0);
+        assertEquals("2030-03", march.get("period"));
+        assertEquals(3L, march.get("totalBookings"));
+        assertEquals(3.0, march.get("bookedHours"));
+        assertEquals(66.67, march.get("approvalRate"));
+        assertEquals(1L, march.get("maintenanceRequests"));
+        assertEquals(100.0, march.get("maintenanceCost"));
+        Map<String, Object> april = series.get(1);
+        assertEquals("2030-04", april.get("period"));
+        assertEquals(1L, april.get("totalBookings"));
+        assertEquals(0.0, april.get("approvalRate"));
+        assertEquals(1L, april.get("maintenanceRequests"));
+        assertEquals(0.0, april.get("maintenanceCost"));
+    }
+
+    @Test
+    void weeksStartOnMonday() {
+        Map<String, Object> report = reportService.getTrendReport(ReportService.TrendPeriod.WEEK,
+                LocalDate.of(2030, 3, 6), LocalDate.of(2030, 3, 12));
+
+        List<Map<String, Object>> series = series(report);
+        assertEquals(List.of("2030-W10", "2030-W11"), series.stream().map(point -> point.get("period")).toList());
+        assertEquals("2030-03-04", series.get(0).get("start"));
+        assertEquals(2L, series.get(0).get("totalBookings"));
+        assertEquals(50.0, series.get(0).get("approvalRate"));
+        assertEquals(1L, series.get(1).get("totalBookings"));
+    }
+
+    @Test
+    void overlappingRangesOnlyComputeNewPeriods() {
+        double before = misses();
+        reportService.getTrendReport(ReportService.TrendPeriod.MONTH, LocalDate.of(2030, 3, 1),
+                LocalDate.of(2030, 4, 1));
+        reportService.getTrendReport(ReportService.TrendPeriod.MONTH, LocalDate.of(2030, 2, 1),
+                LocalDate.of(2030, 3, 1));
+        assertEquals(before + 3, misses());
+
+        // A new March booking evicts March only
+        saveBooking(at(3, 20, 9), 1, Booking.BookingStatus.APPROVED);
+        Map<String, Object> report = reportService.getTrendReport(ReportService.TrendPeriod.MONTH,
+                LocalDate.of(2030, 2, 1), LocalDate.of(2030, 4, 1));
+        assertEquals(before + 4, misses());
+        assertEquals(4L, series(report).get(1).get("totalBookings"));
+    }
+
+    @Test
+    void rangesAreBounded() {
+        assertThrows(RuntimeException.class, () -> reportService.getTrendReport(ReportService.TrendPeriod.MONTH,
+                LocalDate.of(2030, 4, 1), LocalDate.of(2030, 3, 1)));
+        assertThrows(RuntimeException.class, () -> reportService.getTrendReport(ReportService.TrendPeriod.WEEK,
+                LocalDate.of(2000, 1, 1), LocalDate.of(2030, 1, 1)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> series(Map<String, Object> report) {
+        return (List<Map<String, Object>>) report.get("series");
+    }
+
+    private double misses() {
+        return meterRegistry.get("reports.cache.misses").tag("report", "TREND_PERIOD").counter().count();
+    }
+
+    private static LocalDateTime at(int month, int day, int hour) {
+        return LocalDateTime.of(2030, month, day, hour, 0);
+    }
+
+    private void saveBooking(LocalDateTime start, int hours, Booking.BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setLab(lab);
+        booking.setUser(user);
+        booking.setStartTime(start);
+        booking.setEndTime(start.plusHours(hours));
+        booking.setStatus(status);
+        labUsageRollup.bookingAdded(bookingRepository.save(booking));
+    }
+
+    private void saveMaintenance(LocalDateTime requested, LocalDateTime completed,
+                                 Maintenance.MaintenanceStatus status, Double cost) {
+        Maintenance maintenance = new Maintenance();
+        maintenance.setEquipment(equipment);
+        maintenance.setRequestedBy(user);
+        maintenance.setDescription("Trend test");
+        maintenance.setStatus(status);
+        maintenance.setRequestDate(requested);
+        maintenance.setCompletionDate(completed);
+        maintenance.setCost(cost);
+        maintenanceRepository.save(maintenance);
+    }
+}
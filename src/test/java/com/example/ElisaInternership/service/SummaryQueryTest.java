@@ -0,0 +1,167 @@
+package com.example.ElisaInternership.service;
+
+import com.example.ElisaInternership.dto.BookingFilter;
+import com.example.ElisaInternership.dto.BookingSummary;
+import com.example.ElisaInternership.dto.EquipmentSummary;
+import com.example.ElisaInternership.dto.LabSummary;
+import com.example.ElisaInternership.dto.MaintenanceSummary;
+import com.example.ElisaInternership.dto.UserSummary;
+import com.example.ElisaInternership.model.Booking;
+import com.example.ElisaInternership.model.Equipment;
+import com.example.ElisaInternership.model.Lab;
+import com.example.ElisaInternership.model.Maintenance;
+import com.example.ElisaInternership.model.User;
+import com.example.ElisaInternership.security.TokenRevocations;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Each list endpoint reads its rows and their associations with one SQL
+ * statement, however many rows there are.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookingService.class, EquipmentService.class, LabService.class, MaintenanceService.class, UserService.class,
+        AuditService.class, AuditLogWriter.class, AuditArchive.class, BookingIntervalIndex.class, LabLockStripes.class,
+        LabUsageRollup.class, TokenRevocations.class, BCryptPasswordEncoder.class, SimpleMeterRegistry.class})
+class SummaryQueryTest {
+    private static final int LABS = 3;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EquipmentService equipmentService;
+
+    @Autowired
+    private LabService labService;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime start = LocalDateTime.of(2030, 5, 6, 9, 0);
+        for (int i = 0; i < LABS; i++) {
+            User manager = user("summary-manager-" + i, User.Role.LAB_MANAGER, null);
+            Lab lab = new Lab();
+            lab.setName("Summary Lab " + i);
+            lab.setLocation("Block " + i);
+            lab.setCapacity(20 + i);
+            lab.setType(Lab.LabType.EXTENSION_310);
+            lab.setLabManager(manager);
+            entityManager.persist(lab);
+            User student = user("summary-student-" + i, User.Role.STUDENT, lab);
+
+            Equipment equipment = new Equipment();
+            equipment.setName("Projector " + i);
+            equipment.setSerialNumber("SUM-" + i);
+            equipment.setLab(lab);
+            equipment.setStatus(Equipment.EquipmentStatus.AVAILABLE);
+            entityManager.persist(equipment);
+
+            Maintenance maintenance = new Maintenance();
+            maintenance.setEquipment(equipment);
+            maintenance.setRequestedBy(student);
+            maintenance.setAssignedTechnician(i % 2 == 0 ? manager : null);
+            maintenance.setDescription("Lamp " + i);
+            maintenance.setStatus(Maintenance.MaintenanceStatus.PENDING);
+            entityManager.persist(maintenance);
+
+            Booking booking = new Booking();
+            booking.setLab(lab);
+            booking.setUser(student);
+            booking.setStartTime(start.plusDays(i));
+            booking.setEndTime(start.plusDays(i).plusHours(1));
+            booking.setStatus(Booking.BookingStatus.PENDING);
+            entityManager.persist(booking);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void bookingsAreOneStatement() {
+        List<BookingSummary> bookings = statements(1,
+                () -> bookingService.getBookings(new BookingFilter(), null, 10).getItems());
+        assertEquals(LABS, bookings.size());
+        assertEquals("Summary Lab 0", bookings.get(0).getLab().getName());
+        assertEquals("summary-student-0", bookings.get(0).getUser().getUsername());
+    }
+
+    @Test
+    void labsAreOneStatement() {
+        List<LabSummary> labs = statements(1, labService::getAllLabs);
+        assertEquals(LABS, labs.size());
+        assertEquals("summary-manager-0", labs.get(0).getLabManager().getUsername());
+    }
+
+    @Test
+    void equipmentIsOneStatement() {
+        List<EquipmentSummary> equipment = statements(1, equipmentService::getAllEquipment);
+        assertEquals(LABS, equipment.size());
+        assertEquals("Summary Lab 0", equipment.get(0).getLab().getName());
+    }
+
+    @Test
+    void maintenanceIsOneStatement() {
+        List<MaintenanceSummary> maintenance = statements(1, maintenanceService::getAllMaintenance);
+        assertEquals(LABS, maintenance.size());
+        assertEquals("Projector 0", maintenance.get(0).getEquipment().getName());
+        assertEquals("summary-student-0", maintenance.get(0).getRequestedBy().getUsername());
+        assertEquals("summary-manager-0", maintenance.get(0).getAssignedTechnician().getUsername());
+        assertNull(maintenance.get(1).getAssignedTechnician());
+    }
+
+    @Test
+    void usersAreOneStatement() {
+        List<UserSummary> users = statements(1, userService::getAllUsers);
+        assertEquals(2 * LABS, users.size());
+        assertEquals("Summary Lab 0", users.get(1).getAssignedLab().getName());
+        assertNull(users.get(0).getAssignedLab());
+    }
+
+    private <T> T statements(long expected, Supplier<T> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+
+    private User user(String username, User.Role role, Lab lab) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@auca.rw");
+        user.setPassword("secret123");
+        user.setFirstName("Summary");
+        user.setLastName("User");
+        user.setRole(role);
+        user.setAssignedLab(lab);
+        return entityManager.persist(user);
+    }
+}